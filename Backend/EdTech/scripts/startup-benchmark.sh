@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+#
+# Measures cold start: time from launch to the first 200 from /api/generate/health, and
+# (when IMAGE is set) to the first completed OCR request on /api/generate/questions/stream.
+#
+#   scripts/startup-benchmark.sh plain     # java -jar target/EdTech-0.0.1-SNAPSHOT.jar
+#   scripts/startup-benchmark.sh fast      # AOT + AppCDS build from mvn -Pfast-startup package
+#   scripts/startup-benchmark.sh -- java -Xshare:off -jar target/EdTech-0.0.1-SNAPSHOT.jar
+#
+# Environment: RUNS (default 5), PORT (default 9876), IMAGE (a PNG/JPEG with some text),
+# EMAIL and PASSWORD of the account used for the OCR request (signed up if missing).
+# The LLM call runs too; its share is reported separately from the Server-Timing header.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-9876}
+IMAGE=${IMAGE:-}
+EMAIL=${EMAIL:-startup-benchmark@example.com}
+PASSWORD=${PASSWORD:-startup-benchmark}
+BASE="http://localhost:${PORT}"
+JAR=target/EdTech-0.0.1-SNAPSHOT.jar
+
+case "${1:-plain}" in
+  plain) CMD=(java -jar "$JAR") ;;
+  fast) CMD=(java -XX:SharedArchiveFile=target/application/application.jsa -Dspring.aot.enabled=true
+             -jar target/application/EdTech-0.0.1-SNAPSHOT.jar) ;;
+  --) shift; CMD=("$@") ;;
+  *) echo "usage: $0 [plain|fast|-- command...]" >&2; exit 2 ;;
+esac
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+median() { sort -n | awk '{ v[NR] = $1 } END { if (NR) print v[int((NR + 1) / 2)]; else print "-" }'; }
+
+token() {
+  curl -s -o /dev/null -H 'Content-Type: application/json' \
+    -d "{\"email\":\"${EMAIL}\",\"password\":\"${PASSWORD}\",\"firstName\":\"Startup\",\"lastName\":\"Benchmark\"}" \
+    "${BASE}/api/auth/signup" || true
+  curl -s -H 'Content-Type: application/json' -d "{\"email\":\"${EMAIL}\",\"password\":\"${PASSWORD}\"}" \
+    "${BASE}/api/auth/login" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p'
+}
+
+health_times=()
+ocr_times=()
+echo "run health_ms first_ocr_ms server_timing"
+for run in $(seq 1 "$RUNS"); do
+  start=$(now_ms)
+  "${CMD[@]}" --server.port="$PORT" > "target/startup-run-${run}.log" 2>&1 &
+  pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+
+  until curl -fs -o /dev/null "${BASE}/api/generate/health"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "application exited, see target/startup-run-${run}.log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  health=$(( $(now_ms) - start ))
+  health_times+=("$health")
+
+  ocr="-"
+  timing="-"
+  if [[ -n "$IMAGE" ]]; then
+    bearer=$(token)
+    timing=$(curl -s -D - -o /dev/null -H "Authorization: Bearer ${bearer}" \
+      -H "Content-Type: image/${IMAGE##*.}" --data-binary "@${IMAGE}" \
+      "${BASE}/api/generate/questions/stream?questionCount=1" | tr -d '\r' | sed -n 's/^[Ss]erver-[Tt]iming: //p')
+    ocr=$(( $(now_ms) - start ))
+    ocr_times+=("$ocr")
+  fi
+
+  echo "$run $health $ocr ${timing:--}"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+done
+
+echo "median health_ms: $(printf '%s\n' "${health_times[@]}" | median)"
+if [[ ${#ocr_times[@]} -gt 0 ]]; then
+  echo "median first_ocr_ms: $(printf '%s\n' "${ocr_times[@]}" | median)"
+fi
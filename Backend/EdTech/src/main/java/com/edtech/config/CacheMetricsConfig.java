@@ -0,0 +1,54 @@
+package com.edtech.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hit-ratio gauges for the Hibernate second-level and query caches. Raw
+ * hit/miss/put counters are already published by Spring Boot's Hibernate
+ * metrics as {@code hibernate.second.level.cache.requests} and
+ * {@code hibernate.query.cache.requests}.
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            Statistics statistics = sessionFactory.getStatistics();
+
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                // The query results region is listed too, but has no domain data statistics; it is covered below
+                if (!(sessionFactory.getCache().getRegion(region) instanceof DomainDataRegion)) {
+                    continue;
+                }
+                Gauge.builder("hibernate.cache.hit.ratio", statistics, s -> {
+                    CacheRegionStatistics regionStats = s.getDomainDataRegionStatistics(region);
+                    return ratio(regionStats.getHitCount(), regionStats.getMissCount());
+                })
+                        .tag("region", region)
+                        .description("Second-level cache hit ratio since startup")
+                        .register(registry);
+            }
+
+            Gauge.builder("hibernate.cache.hit.ratio", statistics,
+                    s -> ratio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                    .tag("region", "query-results")
+                    .description("Query cache hit ratio since startup")
+                    .register(registry);
+        };
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -2,6 +2,7 @@ package com.edtech.config;
 
 import com.edtech.security.JwtAuthenticationFilter;
 import com.edtech.service.UserDetailsServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,10 +14,12 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 
@@ -32,6 +35,12 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private WebApplicationContext applicationContext;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -42,6 +51,10 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/generate/health",
+                                "/api/payments/webhook",
+                                // Liveness and readiness probes; the rest of the actuator is on the management port
+                                "/livez",
+                                "/readyz",
                                 "/",
                                 "/error",
                                 "/favicon.ico",
@@ -49,6 +62,9 @@ public class SecurityConfig {
                                 "/js/**",
                                 "/images/**")
                         .permitAll()
+                        // Scraped by Prometheus without a token; the management port is never exposed publicly
+                        .requestMatchers(this::isManagementServer).permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .authenticationProvider(authenticationProvider())
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -56,9 +72,14 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Requests served by the separate management server (management.server.port), which has its own servlet context
+    private boolean isManagementServer(HttpServletRequest request) {
+        return request.getServletContext() != applicationContext.getServletContext();
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -0,0 +1,130 @@
+package com.edtech.controller;
+
+import com.edtech.dto.ArchiveStatus;
+import com.edtech.dto.BackfillStatus;
+import com.edtech.security.UserDetailsCache;
+import com.edtech.service.ArchiveService;
+import com.edtech.service.GenerationTrace;
+import com.edtech.service.LearningStatsService;
+import com.edtech.service.PayloadLogger;
+import com.edtech.service.SlowGenerationLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operational endpoints, restricted to users listed in {@code app.admin.emails}.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private LearningStatsService learningStatsService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private SlowGenerationLog slowGenerationLog;
+
+    @Autowired
+    private PayloadLogger payloadLogger;
+
+    /**
+     * Recomputes the learning stats tables from quizzes in the background. Safe to re-run.
+     */
+    @PostMapping("/stats/backfill")
+    public ResponseEntity<BackfillStatus> startStatsBackfill() {
+        return ResponseEntity.accepted().body(learningStatsService.startBackfill());
+    }
+
+    @GetMapping("/stats/backfill")
+    public ResponseEntity<BackfillStatus> statsBackfillStatus() {
+        return ResponseEntity.ok(learningStatsService.getBackfillStatus());
+    }
+
+    /**
+     * Moves quizzes and settled payments past their retention into the archive tables, in the background.
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<ArchiveStatus> startArchive() {
+        return ResponseEntity.accepted().body(archiveService.start());
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<ArchiveStatus> archiveStatus() {
+        return ResponseEntity.ok(archiveService.getStatus());
+    }
+
+    /**
+     * Drops cached authentication details for one user, or for everyone when no email is given.
+     */
+    @DeleteMapping("/auth-cache")
+    public ResponseEntity<Void> invalidateAuthCache(@RequestParam(required = false) String email) {
+        if (email == null || email.isBlank()) {
+            userDetailsCache.invalidateAll();
+        } else {
+            userDetailsCache.invalidate(email.trim());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * The slowest recent question generations with their per-stage timings and trace ids.
+     */
+    @GetMapping("/slow-generations")
+    public ResponseEntity<List<GenerationTrace>> slowGenerations(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(slowGenerationLog.slowest(limit));
+    }
+
+    /**
+     * Logs full generation payloads (OCR text, prompt, LLM response) for one user or one
+     * {@code X-Request-Id} for the next {@code minutes}, instead of sampled, truncated ones.
+     */
+    @PostMapping("/payload-capture")
+    public ResponseEntity<?> startPayloadCapture(@RequestParam(required = false) String email,
+            @RequestParam(required = false) String requestId, @RequestParam(defaultValue = "15") long minutes) {
+        if ((email == null || email.isBlank()) && (requestId == null || requestId.isBlank())) {
+            return ResponseEntity.badRequest().body("Error: email or requestId is required");
+        }
+        if (minutes < 1 || minutes > 1440) {
+            return ResponseEntity.badRequest().body("Error: minutes must be between 1 and 1440");
+        }
+        Duration ttl = Duration.ofMinutes(minutes);
+        if (email != null && !email.isBlank()) {
+            payloadLogger.captureUser(email, ttl);
+        }
+        if (requestId != null && !requestId.isBlank()) {
+            payloadLogger.captureRequest(requestId, ttl);
+        }
+        return ResponseEntity.ok(payloadLogger.activeCaptures());
+    }
+
+    @GetMapping("/payload-capture")
+    public ResponseEntity<Map<String, Instant>> payloadCaptures() {
+        return ResponseEntity.ok(payloadLogger.activeCaptures());
+    }
+
+    /**
+     * Stops full-payload capture for one user or request id, or for everything when neither is given.
+     */
+    @DeleteMapping("/payload-capture")
+    public ResponseEntity<Void> stopPayloadCapture(@RequestParam(required = false) String email,
+            @RequestParam(required = false) String requestId) {
+        if ((email == null || email.isBlank()) && (requestId == null || requestId.isBlank())) {
+            payloadLogger.stopAllCaptures();
+        } else {
+            payloadLogger.stopCapture(email, requestId);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,28 +2,53 @@ package com.edtech.controller;
 
 import com.edtech.dto.JwtResponse;
 import com.edtech.dto.LoginRequest;
+import com.edtech.dto.RefreshRequest;
 import com.edtech.dto.SignupRequest;
 import com.edtech.entity.User;
 import com.edtech.repository.UserRepository;
+import com.edtech.security.AccountUserDetails;
 import com.edtech.security.JwtUtil;
+import com.edtech.security.PasswordWorkExecutor;
+import com.edtech.security.RefreshTokenService;
+import com.edtech.security.TokenRevocationService;
+import com.edtech.security.VerifiedToken;
+import com.edtech.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sign-up, login, token refresh and logout. Logins return a short-lived
+ * access token and a single-use refresh token; see
+ * {@link RefreshTokenService} and {@link TokenRevocationService}. BCrypt work runs on {@link PasswordWorkExecutor}, so
+ * the request thread is released while the hash is computed; when the pool's
+ * queue is full the request gets a 503 straight away. Everything around the
+ * hash (looking up the user before it, saving the user or issuing the refresh
+ * token after it) runs on the application task executor, so a slow database
+ * never holds a password thread.
+ */
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:4200")
 public class AuthController {
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     @Autowired
     private UserRepository userRepository;
 
@@ -33,38 +58,149 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private PasswordWorkExecutor passwordWorkExecutor;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
+
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
+    // Checked in place of a password hash for unknown emails, so they take as long to reject as known ones
+    private String userNotFoundHash;
+
+    @PostConstruct
+    void init() {
+        userNotFoundHash = passwordEncoder.encode("userNotFoundPassword");
+    }
+
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity.badRequest()
-                    .body(new MessageResponse("Error: Email is already in use!"));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Email is already in use!")));
         }
 
-        // Create new user's account
-        User user = new User();
-        user.setEmail(signUpRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(signUpRequest.getPassword()));
-        user.setFirstName(signUpRequest.getFirstName());
-        user.setLastName(signUpRequest.getLastName());
+        try {
+            return passwordWorkExecutor.submit(() -> passwordEncoder.encode(signUpRequest.getPassword()))
+                    .thenApplyAsync(passwordHash -> {
+                        // Create new user's account
+                        User user = new User();
+                        user.setEmail(signUpRequest.getEmail());
+                        user.setPassword(passwordHash);
+                        user.setFirstName(signUpRequest.getFirstName());
+                        user.setLastName(signUpRequest.getLastName());
+
+                        userRepository.save(user);
+
+                        return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+                    }, taskExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
 
-        userRepository.save(user);
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        String email = loginRequest.getEmail();
+        String password = loginRequest.getPassword();
+        // Only the hash check takes a password thread; the lookup before it and the token after it do not
+        return CompletableFuture.supplyAsync(() -> findUser(email), taskExecutor)
+                .thenCompose(user -> passwordWorkExecutor.submit(() -> verify(user, password)))
+                .<ResponseEntity<?>>thenApplyAsync(userDetails -> ResponseEntity.ok(tokens(userDetails,
+                        refreshTokenService.issue(userDetails.getId()))), taskExecutor)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof AuthenticationException) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(new MessageResponse("Error: Invalid email or password"));
+                    }
+                    if (cause instanceof RejectedExecutionException) {
+                        return busy();
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
 
-        return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        if (rotation.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("Error: Refresh token is invalid or expired"));
+        }
+        try {
+            AccountUserDetails userDetails =
+                    (AccountUserDetails) userDetailsService.loadUserByUsername(rotation.get().getEmail());
+            return ResponseEntity.ok(tokens(userDetails, rotation.get().getRefreshToken()));
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("Error: Refresh token is invalid or expired"));
+        }
     }
 
-    @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    /**
+     * Revokes the bearer access token, if one is sent, and the refresh token's
+     * whole family, if one is given.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false)
+            String authorization, @RequestBody(required = false) RefreshRequest refreshRequest) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                VerifiedToken token = jwtUtil.verify(authorization.substring(7));
+                if (token.getTokenId() != null) {
+                    tokenRevocationService.revoke(token.getTokenId(), token.getExpiresAt());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Already unusable; nothing to revoke
+            }
+        }
+        if (refreshRequest != null && refreshRequest.getRefreshToken() != null) {
+            refreshTokenService.revokeFamily(refreshRequest.getRefreshToken());
+        }
+        return ResponseEntity.ok(new MessageResponse("Logged out"));
+    }
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+    private Optional<AccountUserDetails> findUser(String email) {
+        try {
+            return Optional.of((AccountUserDetails) userDetailsService.loadUserByUsername(email));
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+    }
 
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String jwt = jwtUtil.generateToken(userDetails);
+    // Runs on the password pool with the user already loaded; the same checks the authentication provider makes
+    private AccountUserDetails verify(Optional<AccountUserDetails> user, String password) {
+        String hash = user.map(AccountUserDetails::getPassword).orElse(userNotFoundHash);
+        if (!passwordEncoder.matches(password, hash) || user.isEmpty()) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        accountStatusChecker.check(user.get());
+        return user.get();
+    }
 
-        User user = userRepository.findByEmail(loginRequest.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private JwtResponse tokens(AccountUserDetails userDetails, String refreshToken) {
+        String jwt = jwtUtil.generateToken(userDetails);
+        return new JwtResponse(jwt, refreshToken, jwtUtil.getExpiration().toSeconds(), userDetails.getUsername(),
+                userDetails.getFirstName(), userDetails.getLastName());
+    }
 
-        return ResponseEntity.ok(new JwtResponse(jwt, user.getEmail(), user.getFirstName(), user.getLastName()));
+    // Password work is queued past its limit; ask the client to come back shortly
+    private ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: Too many sign-ins right now, please retry"));
     }
 
     // Inner class for message responses
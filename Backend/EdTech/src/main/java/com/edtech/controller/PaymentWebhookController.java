@@ -0,0 +1,42 @@
+package com.edtech.controller;
+
+import com.edtech.service.PaymentWebhookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Receives payment status callbacks from the gateway. Not behind JWT
+ * authentication; every request must carry an {@code X-Signature} header
+ * with the hex HMAC-SHA256 of the body under {@code payment.webhook.secret}.
+ */
+@RestController
+@RequestMapping("/api/payments")
+public class PaymentWebhookController {
+
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+
+    @PostMapping("/webhook")
+    public ResponseEntity<Void> receive(@RequestBody byte[] body,
+            @RequestHeader(value = "X-Signature", required = false) String signature) {
+        switch (paymentWebhookService.ingest(body, signature)) {
+            case ACCEPTED:
+                // Written; acknowledge so the gateway stops retrying
+                return ResponseEntity.ok().build();
+            case DUPLICATE:
+                // Already received; acknowledge so the gateway stops retrying
+                return ResponseEntity.ok().build();
+            case INVALID_SIGNATURE:
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            case INVALID_PAYLOAD:
+                return ResponseEntity.badRequest().build();
+            default:
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build();
+        }
+    }
+}
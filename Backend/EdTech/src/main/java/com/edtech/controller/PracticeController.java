@@ -0,0 +1,51 @@
+package com.edtech.controller;
+
+import com.edtech.dto.DueQuestion;
+import com.edtech.dto.ReviewRequest;
+import com.edtech.dto.ReviewResult;
+import com.edtech.service.PracticeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/practice")
+@CrossOrigin(origins = "http://localhost:4200")
+public class PracticeController {
+
+    @Autowired
+    private PracticeService practiceService;
+
+    /**
+     * Questions due for spaced-repetition review, most overdue first.
+     */
+    @GetMapping("/due")
+    public ResponseEntity<List<DueQuestion>> getDue(@RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        return practiceService.getDue(authentication.getName(), limit)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Records a review. Send either an answer to be graded or a self-assessed
+     * quality from 0 (blackout) to 5 (perfect recall). Refused with 409 while
+     * the question is in one of the user's unsubmitted quiz attempts.
+     */
+    @PostMapping("/reviews")
+    public ResponseEntity<?> review(@RequestBody ReviewRequest request, Authentication authentication) {
+        try {
+            return practiceService.review(authentication.getName(), request)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new AuthController.MessageResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new AuthController.MessageResponse(e.getMessage()));
+        }
+    }
+}
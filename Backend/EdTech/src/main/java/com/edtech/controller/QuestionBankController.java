@@ -0,0 +1,195 @@
+package com.edtech.controller;
+
+import com.edtech.dto.ImportResult;
+import com.edtech.dto.Leaderboard;
+import com.edtech.dto.QuestionBankDetail;
+import com.edtech.dto.QuestionBankSummary;
+import com.edtech.service.LeaderboardService;
+import com.edtech.service.QuestionBankService;
+import com.edtech.entity.QuestionBank;
+import com.edtech.service.QuestionExportService;
+import com.edtech.service.QuestionImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/question-banks")
+@CrossOrigin(origins = "http://localhost:4200")
+public class QuestionBankController {
+
+    @Autowired
+    private QuestionBankService questionBankService;
+
+    @Autowired
+    private QuestionExportService questionExportService;
+
+    @Autowired
+    private QuestionImportService questionImportService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @GetMapping
+    public ResponseEntity<List<QuestionBankSummary>> listBanks(Authentication authentication) {
+        return ResponseEntity.ok(questionBankService.listBanks(authentication.getName()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<QuestionBankDetail> getBank(@PathVariable Long id, Authentication authentication) {
+        return questionBankService.getBank(id, authentication.getName())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Best attempt per participant, highest percentage first, plus the caller's own rank.
+     */
+    @GetMapping("/{id}/leaderboard")
+    public ResponseEntity<Leaderboard> getLeaderboard(@PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+        return leaderboardService.getLeaderboard(id, authentication.getName(), limit)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams the bank as NDJSON (default) or CSV directly to the response body.
+     */
+    @GetMapping("/{id}/export")
+    public void exportBank(@PathVariable Long id,
+            @RequestParam(defaultValue = "ndjson") String format,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+
+        QuestionExportService.Format exportFormat;
+        try {
+            exportFormat = QuestionExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+            return;
+        }
+
+        if (questionBankService.findOwnedBank(id, authentication.getName()).isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"question-bank-" + id + "." + exportFormat.getExtension() + "\"");
+        questionExportService.export(id, exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * Creates a bank and fills it from the request body (text/csv,
+     * application/x-ndjson or application/json), read incrementally.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResult> importNewBank(
+            @RequestParam String name,
+            @RequestParam(required = false) String subject,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "X-Import-Id", required = false) String importId,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+
+        Optional<QuestionImportService.Format> importFormat = resolveImportFormat(format, request);
+        if (importFormat.isEmpty()) {
+            return unsupportedImportFormat();
+        }
+        if (request.getContentLengthLong() > questionImportService.getMaxBytes()) {
+            return importTooLarge();
+        }
+        Optional<QuestionBank> bank = questionBankService.createBank(authentication.getName(), name, subject,
+                difficulty);
+        if (bank.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        ImportResult result = questionImportService.importQuestions(authentication.getName(), importId,
+                bank.get().getId(), importFormat.get(), request.getInputStream());
+        // Don't leave an empty bank behind when nothing could be imported
+        if (result.getRowsImported() == 0 && questionBankService.deleteEmptyBank(bank.get().getId())) {
+            result.setQuestionBankId(null);
+        }
+        return importResponse(result);
+    }
+
+    /**
+     * Appends questions from the request body to an existing bank.
+     */
+    @PostMapping("/{id}/import")
+    public ResponseEntity<ImportResult> importIntoBank(
+            @PathVariable Long id,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "X-Import-Id", required = false) String importId,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+
+        Optional<QuestionImportService.Format> importFormat = resolveImportFormat(format, request);
+        if (importFormat.isEmpty()) {
+            return unsupportedImportFormat();
+        }
+        if (request.getContentLengthLong() > questionImportService.getMaxBytes()) {
+            return importTooLarge();
+        }
+        if (questionBankService.findOwnedBank(id, authentication.getName()).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return importResponse(questionImportService.importQuestions(authentication.getName(), importId, id,
+                importFormat.get(), request.getInputStream()));
+    }
+
+    @GetMapping("/imports/{importId}")
+    public ResponseEntity<ImportResult> importProgress(@PathVariable String importId,
+            Authentication authentication) {
+        return questionImportService.getProgress(authentication.getName(), importId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private Optional<QuestionImportService.Format> resolveImportFormat(String format, HttpServletRequest request) {
+        if (format != null) {
+            try {
+                return Optional.of(QuestionImportService.Format.valueOf(format.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+        return QuestionImportService.Format.fromContentType(request.getContentType());
+    }
+
+    private ResponseEntity<ImportResult> unsupportedImportFormat() {
+        ImportResult result = new ImportResult();
+        result.setStatus("FAILED");
+        result.setMessage("Use text/csv, application/x-ndjson or application/json, or pass format=csv|ndjson|json");
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(result);
+    }
+
+    private ResponseEntity<ImportResult> importTooLarge() {
+        ImportResult result = new ImportResult();
+        result.setStatus("FAILED");
+        result.setMessage("Import body exceeds " + questionImportService.getMaxBytes() + " bytes");
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(result);
+    }
+
+    private ResponseEntity<ImportResult> importResponse(ImportResult result) {
+        if ("FAILED".equals(result.getStatus())) {
+            return ResponseEntity.unprocessableEntity().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+}
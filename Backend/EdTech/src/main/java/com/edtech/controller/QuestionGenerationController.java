@@ -2,17 +2,30 @@ package com.edtech.controller;
 
 import com.edtech.dto.GenerateRequest;
 import com.edtech.dto.GenerateResponse;
+import com.edtech.dto.GenerationJobStatus;
+import com.edtech.repository.UserRepository;
+import com.edtech.service.GenerationJobQueue;
+import com.edtech.service.GenerationMetrics;
+import com.edtech.service.GenerationTrace;
+import com.edtech.service.ImageUpload;
+import com.edtech.service.ImageUploadReader;
+import com.edtech.service.ImageUploadRejectedException;
 import com.edtech.service.QuestionGenerationService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/generate")
@@ -24,10 +37,26 @@ public class QuestionGenerationController {
     @Autowired
     private QuestionGenerationService questionGenerationService;
 
+    @Autowired
+    private ImageUploadReader imageUploadReader;
+
+    @Autowired
+    private GenerationMetrics generationMetrics;
+
+    @Autowired
+    private GenerationJobQueue generationJobQueue;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @PostMapping(value = "/questions", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<GenerateResponse> generateQuestions(
-            @ModelAttribute GenerateRequest generateRequest) {
+            @ModelAttribute GenerateRequest generateRequest,
+            @RequestParam(defaultValue = "false") boolean timings) {
+        return traced("questions", timings, () -> generate(generateRequest));
+    }
 
+    private ResponseEntity<GenerateResponse> generate(GenerateRequest generateRequest) {
         try {
             logger.info("Received question generation request for subject: {}, difficulty: {}, count: {}",
                     generateRequest.getSubject(),
@@ -61,6 +90,165 @@ public class QuestionGenerationController {
         }
     }
 
+    /**
+     * Streaming variant of {@link #generateQuestions}: the raw image is the
+     * request body ({@code Content-Type: image/png}, {@code image/jpeg}, ...)
+     * and the options are query parameters. The body is read through a fixed
+     * buffer instead of being materialized by multipart parsing, and bad
+     * uploads are refused as early as possible (see {@link ImageUploadReader}).
+     */
+    @PostMapping(value = "/questions/stream", consumes = "image/*")
+    public ResponseEntity<GenerateResponse> generateQuestionsFromStream(HttpServletRequest request,
+            @RequestParam(required = false) String subject,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) Integer questionCount,
+            @RequestParam(defaultValue = "false") boolean timings) {
+        return traced("questions/stream", timings,
+                () -> generateFromStream(request, subject, difficulty, questionCount));
+    }
+
+    private ResponseEntity<GenerateResponse> generateFromStream(HttpServletRequest request, String subject,
+            String difficulty, Integer questionCount) {
+        logger.info("Received streaming question generation request for subject: {}, difficulty: {}, count: {}",
+                subject, difficulty, questionCount);
+
+        try (ImageUpload image = readUpload(request)) {
+            GenerateResponse response = questionGenerationService.generateQuestions(image, subject, difficulty,
+                    questionCount);
+
+            if ("success".equals(response.getStatus())) {
+                logger.info("Successfully generated {} questions", response.getQuestions().size());
+                return ResponseEntity.ok(response);
+            } else {
+                logger.error("Failed to generate questions: {}", response.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            }
+
+        } catch (ImageUploadRejectedException e) {
+            logger.info("Rejected image upload: {}", e.getMessage());
+            return ResponseEntity.status(statusFor(e.getReason()))
+                    .body(new GenerateResponse(null, "error", e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Error reading image upload: ", e);
+            return ResponseEntity.badRequest()
+                    .body(new GenerateResponse(null, "error", "Failed to read image upload"));
+        }
+    }
+
+    /**
+     * Queues generation from a streamed image (same body and limits as
+     * {@link #generateQuestionsFromStream}) and answers 202 at once. Any node
+     * running the job worker may pick the job up; poll the returned
+     * {@code Location} for the result.
+     */
+    @PostMapping(value = "/jobs", consumes = "image/*")
+    public ResponseEntity<?> enqueueImageJob(HttpServletRequest request, Authentication authentication,
+            @RequestParam(required = false) String subject,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) Integer questionCount) {
+        Long userId = userRepository.findIdByEmail(authentication.getName()).orElse(null);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try (ImageUpload image = readUpload(request)) {
+            return queued(generationJobQueue.enqueueImage(userId, image, subject, difficulty, questionCount));
+        } catch (ImageUploadRejectedException e) {
+            logger.info("Rejected image upload: {}", e.getMessage());
+            return ResponseEntity.status(statusFor(e.getReason()))
+                    .body(new GenerateResponse(null, "error", e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Error reading image upload: ", e);
+            return ResponseEntity.badRequest()
+                    .body(new GenerateResponse(null, "error", "Failed to read image upload"));
+        }
+    }
+
+    /**
+     * Queues generation from text and answers 202 at once.
+     */
+    @PostMapping("/jobs/text")
+    public ResponseEntity<?> enqueueTextJob(Authentication authentication,
+            @RequestParam String text,
+            @RequestParam(required = false) String subject,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) Integer questionCount) {
+        if (text.isBlank()) {
+            return ResponseEntity.badRequest().body(new GenerateResponse(null, "error", "Text is required"));
+        }
+        return userRepository.findIdByEmail(authentication.getName())
+                .<ResponseEntity<?>>map(userId -> queued(
+                        generationJobQueue.enqueueText(userId, text, subject, difficulty, questionCount)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    /**
+     * Status of one of the caller's jobs, with the generated questions once it has succeeded.
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<GenerationJobStatus> jobStatus(@PathVariable long id, Authentication authentication) {
+        return userRepository.findIdByEmail(authentication.getName())
+                .flatMap(userId -> generationJobQueue.find(id, userId))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<GenerationJobStatus> queued(long id) {
+        GenerationJobStatus status = new GenerationJobStatus();
+        status.setId(id);
+        status.setStatus("QUEUED");
+        return ResponseEntity.accepted().location(URI.create("/api/generate/jobs/" + id)).body(status);
+    }
+
+    /**
+     * Runs a generation handler with its stage timings collected. The
+     * breakdown is always sent as a {@code Server-Timing} header, and also
+     * as the {@code timings} block of the body when {@code timings=true}.
+     * Slow requests are kept for {@code GET /api/admin/slow-generations}.
+     */
+    private ResponseEntity<GenerateResponse> traced(String endpoint, boolean includeTimings,
+            Supplier<ResponseEntity<GenerateResponse>> handler) {
+        GenerationTrace trace = generationMetrics.begin(endpoint);
+        ResponseEntity<GenerateResponse> response = null;
+        try {
+            response = handler.get();
+        } finally {
+            generationMetrics.finish(trace,
+                    response == null ? "error" : String.valueOf(response.getStatusCode().value()));
+        }
+        GenerateResponse body = response.getBody();
+        if (includeTimings && body != null) {
+            body.setTimings(trace.getTimings());
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header("Server-Timing", trace.toServerTiming())
+                .body(body);
+    }
+
+    private ImageUpload readUpload(HttpServletRequest request) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            ImageUpload image = imageUploadReader.read(request.getInputStream(), request.getContentLengthLong());
+            success = true;
+            return image;
+        } finally {
+            generationMetrics.recordStage("upload_copy", start, success);
+        }
+    }
+
+    private static HttpStatus statusFor(ImageUploadRejectedException.Reason reason) {
+        switch (reason) {
+            case TOO_LARGE:
+            case TOO_MANY_PIXELS:
+                return HttpStatus.PAYLOAD_TOO_LARGE;
+            case UNSUPPORTED_TYPE:
+                return HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+            default:
+                return HttpStatus.BAD_REQUEST;
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Question Generation Service is running");
@@ -85,10 +273,15 @@ public class QuestionGenerationController {
             @RequestParam(defaultValue = "The photosynthesis process in plants converts carbon dioxide and water into glucose using sunlight energy. This process occurs in chloroplasts and is essential for plant growth.") String text,
             @RequestParam(defaultValue = "biology") String subject,
             @RequestParam(defaultValue = "medium") String difficulty,
-            @RequestParam(defaultValue = "3") Integer questionCount) {
+            @RequestParam(defaultValue = "3") Integer questionCount,
+            @RequestParam(defaultValue = "false") boolean timings) {
+        return traced("test-text", timings, () -> generateFromText(text, subject, difficulty, questionCount));
+    }
 
+    private ResponseEntity<GenerateResponse> generateFromText(String text, String subject, String difficulty,
+            Integer questionCount) {
         try {
-            logger.info("Testing question generation with text: {}", text.substring(0, Math.min(50, text.length())));
+            logger.info("Testing question generation with {} characters of text", text.length());
 
             GenerateResponse response = questionGenerationService.generateQuestionsFromTextOnly(text, subject,
                     difficulty, questionCount);
@@ -0,0 +1,64 @@
+package com.edtech.controller;
+
+import com.edtech.dto.QuizAttemptResponse;
+import com.edtech.dto.QuizResult;
+import com.edtech.dto.QuizSummary;
+import com.edtech.dto.StartQuizRequest;
+import com.edtech.dto.SubmitQuizRequest;
+import com.edtech.repository.QuizRepository;
+import com.edtech.repository.UserRepository;
+import com.edtech.service.QuizAttemptService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/quizzes")
+@CrossOrigin(origins = "http://localhost:4200")
+public class QuizController {
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @GetMapping
+    public ResponseEntity<List<QuizSummary>> listQuizzes(Authentication authentication) {
+        List<QuizSummary> quizzes = userRepository.findIdByEmail(authentication.getName())
+                .map(quizRepository::findSummariesByUserId)
+                .orElseGet(ArrayList::new);
+        return ResponseEntity.ok(quizzes);
+    }
+
+    /**
+     * Starts an attempt on a question bank; questions are returned without answers.
+     */
+    @PostMapping("/attempts")
+    public ResponseEntity<QuizAttemptResponse> startAttempt(@RequestBody StartQuizRequest request,
+            Authentication authentication) {
+        return quizAttemptService.start(authentication.getName(), request)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Grades an attempt. The result is returned immediately; the attempt shows
+     * up in the quiz listing once the write-behind queue has flushed it.
+     */
+    @PostMapping("/attempts/{attemptId}/submit")
+    public ResponseEntity<QuizResult> submitAttempt(@PathVariable String attemptId,
+            @RequestBody SubmitQuizRequest request,
+            Authentication authentication) {
+        return quizAttemptService.submit(authentication.getName(), attemptId, request.getAnswers())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,25 @@
+package com.edtech.controller;
+
+import com.edtech.dto.LearningStats;
+import com.edtech.service.LearningStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:4200")
+public class StatsController {
+
+    @Autowired
+    private LearningStatsService learningStatsService;
+
+    @GetMapping
+    public ResponseEntity<LearningStats> getStats(Authentication authentication) {
+        return learningStatsService.getStats(authentication.getName())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+}
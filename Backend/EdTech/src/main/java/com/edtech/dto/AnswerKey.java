@@ -0,0 +1,29 @@
+package com.edtech.dto;
+
+import java.util.List;
+
+/**
+ * The gradable part of a question: loaded once per bank and kept in memory
+ * while quizzes on that bank are being taken.
+ */
+public class AnswerKey {
+    private final Long questionId;
+    private final String type;
+    private final String answer;
+    private final List<String> options;
+    private final String explanation;
+
+    public AnswerKey(Long questionId, String type, String answer, List<String> options, String explanation) {
+        this.questionId = questionId;
+        this.type = type;
+        this.answer = answer;
+        this.options = options;
+        this.explanation = explanation;
+    }
+
+    public Long getQuestionId() { return questionId; }
+    public String getType() { return type; }
+    public String getAnswer() { return answer; }
+    public List<String> getOptions() { return options; }
+    public String getExplanation() { return explanation; }
+}
@@ -0,0 +1,31 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+
+public class ArchiveStatus {
+    private String status; // "IDLE", "RUNNING", "COMPLETED", "FAILED"
+    private long quizzesArchived;
+    private long paymentsArchived;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    
+    // Getters and setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public long getQuizzesArchived() { return quizzesArchived; }
+    public void setQuizzesArchived(long quizzesArchived) { this.quizzesArchived = quizzesArchived; }
+    
+    public long getPaymentsArchived() { return paymentsArchived; }
+    public void setPaymentsArchived(long paymentsArchived) { this.paymentsArchived = paymentsArchived; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,27 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+
+public class BackfillStatus {
+    private String status; // "IDLE", "RUNNING", "COMPLETED", "FAILED"
+    private long usersProcessed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    
+    // Getters and setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public long getUsersProcessed() { return usersProcessed; }
+    public void setUsersProcessed(long usersProcessed) { this.usersProcessed = usersProcessed; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,27 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+
+public class DueQuestion {
+    private Question question; // without answer or explanation
+    private Long questionBankId;
+    private LocalDateTime dueAt;
+    private int repetitions;
+    private int lapses;
+    
+    // Getters and setters
+    public Question getQuestion() { return question; }
+    public void setQuestion(Question question) { this.question = question; }
+    
+    public Long getQuestionBankId() { return questionBankId; }
+    public void setQuestionBankId(Long questionBankId) { this.questionBankId = questionBankId; }
+    
+    public LocalDateTime getDueAt() { return dueAt; }
+    public void setDueAt(LocalDateTime dueAt) { this.dueAt = dueAt; }
+    
+    public int getRepetitions() { return repetitions; }
+    public void setRepetitions(int repetitions) { this.repetitions = repetitions; }
+    
+    public int getLapses() { return lapses; }
+    public void setLapses(int lapses) { this.lapses = lapses; }
+}
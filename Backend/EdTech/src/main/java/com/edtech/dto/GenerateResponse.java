@@ -1,11 +1,17 @@
 package com.edtech.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
+import java.util.Map;
 
 public class GenerateResponse {
     private List<Question> questions;
     private String status;
     private String message;
+    // Per-stage milliseconds; only filled in when the caller asks for timings
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Double> timings;
     
     public GenerateResponse() {}
     
@@ -24,4 +30,7 @@ public class GenerateResponse {
     
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
+
+    public Map<String, Double> getTimings() { return timings; }
+    public void setTimings(Map<String, Double> timings) { this.timings = timings; }
 }
@@ -0,0 +1,38 @@
+package com.edtech.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GenerationJobStatus {
+    private long id;
+    private String status; // "QUEUED", "RUNNING", "SUCCEEDED", "FAILED"
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    private GenerateResponse result;
+
+    // Getters and setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public GenerateResponse getResult() { return result; }
+    public void setResult(GenerateResponse result) { this.result = result; }
+}
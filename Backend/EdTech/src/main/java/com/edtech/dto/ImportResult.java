@@ -0,0 +1,70 @@
+package com.edtech.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress and outcome of a bulk question import. The same object is
+ * returned while the import runs and once it has finished.
+ */
+public class ImportResult {
+    private String importId;
+    private Long questionBankId;
+    private String status; // "RUNNING", "COMPLETED", "FAILED"
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long elapsedMillis;
+    private String message;
+    private List<RowError> errors = new ArrayList<>();
+
+    public static class RowError {
+        private long row;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+        public void setRow(long row) { this.row = row; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    // Getters and setters
+    public String getImportId() { return importId; }
+    public void setImportId(String importId) { this.importId = importId; }
+
+    public Long getQuestionBankId() { return questionBankId; }
+    public void setQuestionBankId(Long questionBankId) { this.questionBankId = questionBankId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+
+    public long getRowsImported() { return rowsImported; }
+    public void setRowsImported(long rowsImported) { this.rowsImported = rowsImported; }
+
+    public long getRowsRejected() { return rowsRejected; }
+    public void setRowsRejected(long rowsRejected) { this.rowsRejected = rowsRejected; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000 / elapsedMillis;
+    }
+}
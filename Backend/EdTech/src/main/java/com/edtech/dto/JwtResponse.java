@@ -6,6 +6,8 @@ public class JwtResponse {
     private String email;
     private String firstName;
     private String lastName;
+    private String refreshToken;
+    private long expiresIn;
 
     public JwtResponse(String accessToken, String email, String firstName, String lastName) {
         this.token = accessToken;
@@ -14,6 +16,13 @@ public class JwtResponse {
         this.lastName = lastName;
     }
 
+    public JwtResponse(String accessToken, String refreshToken, long expiresIn, String email, String firstName,
+            String lastName) {
+        this(accessToken, email, firstName, lastName);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
     // Getters and setters
     public String getToken() {
         return token;
@@ -54,4 +63,21 @@ public class JwtResponse {
     public void setLastName(String lastName) {
         this.lastName = lastName;
     }
-}
\ No newline at end of file
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    /** Seconds until the access token expires. */
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
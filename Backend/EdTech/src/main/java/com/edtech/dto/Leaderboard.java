@@ -0,0 +1,23 @@
+package com.edtech.dto;
+
+import java.util.List;
+
+public class Leaderboard {
+    private Long questionBankId;
+    private int participants;
+    private List<LeaderboardEntry> top;
+    private LeaderboardEntry me; // the caller's own entry, null if they have no attempt on the bank
+    
+    // Getters and setters
+    public Long getQuestionBankId() { return questionBankId; }
+    public void setQuestionBankId(Long questionBankId) { this.questionBankId = questionBankId; }
+    
+    public int getParticipants() { return participants; }
+    public void setParticipants(int participants) { this.participants = participants; }
+    
+    public List<LeaderboardEntry> getTop() { return top; }
+    public void setTop(List<LeaderboardEntry> top) { this.top = top; }
+    
+    public LeaderboardEntry getMe() { return me; }
+    public void setMe(LeaderboardEntry me) { this.me = me; }
+}
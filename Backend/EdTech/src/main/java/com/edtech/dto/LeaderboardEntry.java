@@ -0,0 +1,39 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+
+public class LeaderboardEntry {
+    private int rank;
+    private Long userId;
+    private String firstName;
+    private String lastName;
+    private int score;
+    private int totalQuestions;
+    private double percentage;
+    private LocalDateTime achievedAt;
+    
+    // Getters and setters
+    public int getRank() { return rank; }
+    public void setRank(int rank) { this.rank = rank; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+    
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+    
+    public int getTotalQuestions() { return totalQuestions; }
+    public void setTotalQuestions(int totalQuestions) { this.totalQuestions = totalQuestions; }
+    
+    public double getPercentage() { return percentage; }
+    public void setPercentage(double percentage) { this.percentage = percentage; }
+    
+    public LocalDateTime getAchievedAt() { return achievedAt; }
+    public void setAchievedAt(LocalDateTime achievedAt) { this.achievedAt = achievedAt; }
+}
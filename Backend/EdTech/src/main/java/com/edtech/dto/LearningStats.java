@@ -0,0 +1,73 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Dashboard view of a user's quiz history, read from the precomputed stats tables.
+ */
+public class LearningStats {
+    private List<SubjectStats> subjects;
+    private List<BankStats> banks;
+    private List<String> weakSubjects; // lowest average first
+    
+    // Getters and setters
+    public List<SubjectStats> getSubjects() { return subjects; }
+    public void setSubjects(List<SubjectStats> subjects) { this.subjects = subjects; }
+    
+    public List<BankStats> getBanks() { return banks; }
+    public void setBanks(List<BankStats> banks) { this.banks = banks; }
+    
+    public List<String> getWeakSubjects() { return weakSubjects; }
+    public void setWeakSubjects(List<String> weakSubjects) { this.weakSubjects = weakSubjects; }
+    
+    public static class SubjectStats {
+        private String subject; // null for banks without a subject
+        private int attempts;
+        private double averagePercentage;
+        private double bestPercentage;
+        private LocalDateTime lastAttemptAt;
+        
+        public String getSubject() { return subject; }
+        public void setSubject(String subject) { this.subject = subject; }
+        
+        public int getAttempts() { return attempts; }
+        public void setAttempts(int attempts) { this.attempts = attempts; }
+        
+        public double getAveragePercentage() { return averagePercentage; }
+        public void setAveragePercentage(double averagePercentage) { this.averagePercentage = averagePercentage; }
+        
+        public double getBestPercentage() { return bestPercentage; }
+        public void setBestPercentage(double bestPercentage) { this.bestPercentage = bestPercentage; }
+        
+        public LocalDateTime getLastAttemptAt() { return lastAttemptAt; }
+        public void setLastAttemptAt(LocalDateTime lastAttemptAt) { this.lastAttemptAt = lastAttemptAt; }
+    }
+    
+    public static class BankStats {
+        private Long questionBankId;
+        private String questionBankName;
+        private int attempts;
+        private double averagePercentage;
+        private double bestPercentage;
+        private LocalDateTime lastAttemptAt;
+        
+        public Long getQuestionBankId() { return questionBankId; }
+        public void setQuestionBankId(Long questionBankId) { this.questionBankId = questionBankId; }
+        
+        public String getQuestionBankName() { return questionBankName; }
+        public void setQuestionBankName(String questionBankName) { this.questionBankName = questionBankName; }
+        
+        public int getAttempts() { return attempts; }
+        public void setAttempts(int attempts) { this.attempts = attempts; }
+        
+        public double getAveragePercentage() { return averagePercentage; }
+        public void setAveragePercentage(double averagePercentage) { this.averagePercentage = averagePercentage; }
+        
+        public double getBestPercentage() { return bestPercentage; }
+        public void setBestPercentage(double bestPercentage) { this.bestPercentage = bestPercentage; }
+        
+        public LocalDateTime getLastAttemptAt() { return lastAttemptAt; }
+        public void setLastAttemptAt(LocalDateTime lastAttemptAt) { this.lastAttemptAt = lastAttemptAt; }
+    }
+}
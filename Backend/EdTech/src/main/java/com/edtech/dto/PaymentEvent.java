@@ -0,0 +1,31 @@
+package com.edtech.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Payment status callback from the gateway; also the shape the gateway
+ * returns when asked for the current status of transactions.
+ */
+public class PaymentEvent {
+    private String transactionId;
+    private String status; // PENDING, SUCCEEDED, FAILED or REFUNDED
+    private BigDecimal amount;
+    private String paymentMethod;
+    private Long userId;
+    
+    // Getters and setters
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+}
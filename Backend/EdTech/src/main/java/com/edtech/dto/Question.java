@@ -9,6 +9,7 @@ public class Question {
     private List<String> options;
     private String answer;
     private String explanation;
+    private String difficulty;
     
     // Getters and setters
     public String getId() { return id; }
@@ -28,4 +29,7 @@ public class Question {
     
     public String getExplanation() { return explanation; }
     public void setExplanation(String explanation) { this.explanation = explanation; }
+    
+    public String getDifficulty() { return difficulty; }
+    public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
 }
@@ -0,0 +1,32 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class QuestionBankDetail {
+    private Long id;
+    private String name;
+    private String subject;
+    private String difficulty;
+    private LocalDateTime createdAt;
+    private List<Question> questions;
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getDifficulty() { return difficulty; }
+    public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public List<Question> getQuestions() { return questions; }
+    public void setQuestions(List<Question> questions) { this.questions = questions; }
+}
@@ -0,0 +1,47 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing row for a question bank, built by a single aggregate query so that
+ * question counts never touch the lazy {@code questions} collection.
+ */
+public class QuestionBankSummary {
+    private Long id;
+    private String name;
+    private String subject;
+    private String difficulty;
+    private long questionCount;
+    private LocalDateTime createdAt;
+
+    public QuestionBankSummary() {}
+
+    public QuestionBankSummary(Long id, String name, String subject, String difficulty, long questionCount,
+            LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.subject = subject;
+        this.difficulty = difficulty;
+        this.questionCount = questionCount;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getDifficulty() { return difficulty; }
+    public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
+
+    public long getQuestionCount() { return questionCount; }
+    public void setQuestionCount(long questionCount) { this.questionCount = questionCount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
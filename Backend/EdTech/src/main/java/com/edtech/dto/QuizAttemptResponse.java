@@ -0,0 +1,35 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A started attempt. Questions are sent without answers or explanations.
+ */
+public class QuizAttemptResponse {
+    private String attemptId;
+    private Long questionBankId;
+    private String title;
+    private LocalDateTime startedAt;
+    private LocalDateTime expiresAt;
+    private List<Question> questions;
+    
+    // Getters and setters
+    public String getAttemptId() { return attemptId; }
+    public void setAttemptId(String attemptId) { this.attemptId = attemptId; }
+    
+    public Long getQuestionBankId() { return questionBankId; }
+    public void setQuestionBankId(Long questionBankId) { this.questionBankId = questionBankId; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    public List<Question> getQuestions() { return questions; }
+    public void setQuestions(List<Question> questions) { this.questions = questions; }
+}
@@ -0,0 +1,54 @@
+package com.edtech.dto;
+
+import java.util.List;
+
+public class QuizResult {
+    private String attemptId;
+    private Long questionBankId;
+    private int score;
+    private int totalQuestions;
+    private int gradedQuestions; // PARAGRAPH answers are stored but not auto-graded
+    private List<QuestionResult> results;
+    
+    // Getters and setters
+    public String getAttemptId() { return attemptId; }
+    public void setAttemptId(String attemptId) { this.attemptId = attemptId; }
+    
+    public Long getQuestionBankId() { return questionBankId; }
+    public void setQuestionBankId(Long questionBankId) { this.questionBankId = questionBankId; }
+    
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+    
+    public int getTotalQuestions() { return totalQuestions; }
+    public void setTotalQuestions(int totalQuestions) { this.totalQuestions = totalQuestions; }
+    
+    public int getGradedQuestions() { return gradedQuestions; }
+    public void setGradedQuestions(int gradedQuestions) { this.gradedQuestions = gradedQuestions; }
+    
+    public List<QuestionResult> getResults() { return results; }
+    public void setResults(List<QuestionResult> results) { this.results = results; }
+    
+    public static class QuestionResult {
+        private Long questionId;
+        private String givenAnswer;
+        private Boolean correct; // null when not auto-graded
+        private String correctAnswer;
+        private String explanation;
+        
+        public Long getQuestionId() { return questionId; }
+        public void setQuestionId(Long questionId) { this.questionId = questionId; }
+        
+        public String getGivenAnswer() { return givenAnswer; }
+        public void setGivenAnswer(String givenAnswer) { this.givenAnswer = givenAnswer; }
+        
+        public Boolean getCorrect() { return correct; }
+        public void setCorrect(Boolean correct) { this.correct = correct; }
+        
+        public String getCorrectAnswer() { return correctAnswer; }
+        public void setCorrectAnswer(String correctAnswer) { this.correctAnswer = correctAnswer; }
+        
+        public String getExplanation() { return explanation; }
+        public void setExplanation(String explanation) { this.explanation = explanation; }
+    }
+}
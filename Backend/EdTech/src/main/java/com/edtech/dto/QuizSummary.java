@@ -0,0 +1,52 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing row for a quiz together with the name of its question bank,
+ * fetched in one joined query.
+ */
+public class QuizSummary {
+    private Long id;
+    private String title;
+    private Integer score;
+    private Integer totalQuestions;
+    private Long questionBankId;
+    private String questionBankName;
+    private LocalDateTime createdAt;
+
+    public QuizSummary() {}
+
+    public QuizSummary(Long id, String title, Integer score, Integer totalQuestions, Long questionBankId,
+            String questionBankName, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.score = score;
+        this.totalQuestions = totalQuestions;
+        this.questionBankId = questionBankId;
+        this.questionBankName = questionBankName;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public Integer getScore() { return score; }
+    public void setScore(Integer score) { this.score = score; }
+
+    public Integer getTotalQuestions() { return totalQuestions; }
+    public void setTotalQuestions(Integer totalQuestions) { this.totalQuestions = totalQuestions; }
+
+    public Long getQuestionBankId() { return questionBankId; }
+    public void setQuestionBankId(Long questionBankId) { this.questionBankId = questionBankId; }
+
+    public String getQuestionBankName() { return questionBankName; }
+    public void setQuestionBankName(String questionBankName) { this.questionBankName = questionBankName; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,17 @@
+package com.edtech.dto;
+
+public class ReviewRequest {
+    private Long questionId;
+    private String answer; // graded against the answer key when quality is not given
+    private Integer quality; // SM-2 self-assessment, 0 (blackout) to 5 (perfect)
+    
+    // Getters and setters
+    public Long getQuestionId() { return questionId; }
+    public void setQuestionId(Long questionId) { this.questionId = questionId; }
+    
+    public String getAnswer() { return answer; }
+    public void setAnswer(String answer) { this.answer = answer; }
+    
+    public Integer getQuality() { return quality; }
+    public void setQuality(Integer quality) { this.quality = quality; }
+}
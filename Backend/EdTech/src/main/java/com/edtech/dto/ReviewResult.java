@@ -0,0 +1,39 @@
+package com.edtech.dto;
+
+import java.time.LocalDateTime;
+
+public class ReviewResult {
+    private Long questionId;
+    private Boolean correct; // null when graded by self-assessment only
+    private int quality;
+    private String correctAnswer;
+    private String explanation;
+    private int intervalDays;
+    private double easeFactor;
+    private LocalDateTime nextReviewAt;
+    
+    // Getters and setters
+    public Long getQuestionId() { return questionId; }
+    public void setQuestionId(Long questionId) { this.questionId = questionId; }
+    
+    public Boolean getCorrect() { return correct; }
+    public void setCorrect(Boolean correct) { this.correct = correct; }
+    
+    public int getQuality() { return quality; }
+    public void setQuality(int quality) { this.quality = quality; }
+    
+    public String getCorrectAnswer() { return correctAnswer; }
+    public void setCorrectAnswer(String correctAnswer) { this.correctAnswer = correctAnswer; }
+    
+    public String getExplanation() { return explanation; }
+    public void setExplanation(String explanation) { this.explanation = explanation; }
+    
+    public int getIntervalDays() { return intervalDays; }
+    public void setIntervalDays(int intervalDays) { this.intervalDays = intervalDays; }
+    
+    public double getEaseFactor() { return easeFactor; }
+    public void setEaseFactor(double easeFactor) { this.easeFactor = easeFactor; }
+    
+    public LocalDateTime getNextReviewAt() { return nextReviewAt; }
+    public void setNextReviewAt(LocalDateTime nextReviewAt) { this.nextReviewAt = nextReviewAt; }
+}
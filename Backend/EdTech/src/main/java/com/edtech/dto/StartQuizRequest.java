@@ -0,0 +1,27 @@
+package com.edtech.dto;
+
+import java.util.List;
+
+public class StartQuizRequest {
+    private Long questionBankId;
+    private Integer questionCount; // all questions of the bank, up to the configured maximum, when null
+    private String title;
+    private List<String> types; // e.g. ["MCQ", "ONE_WORD"]; all types when null or empty
+    private String difficulty; // question difficulty, falling back to the bank's; any when null
+    
+    // Getters and setters
+    public Long getQuestionBankId() { return questionBankId; }
+    public void setQuestionBankId(Long questionBankId) { this.questionBankId = questionBankId; }
+    
+    public Integer getQuestionCount() { return questionCount; }
+    public void setQuestionCount(Integer questionCount) { this.questionCount = questionCount; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public List<String> getTypes() { return types; }
+    public void setTypes(List<String> types) { this.types = types; }
+    
+    public String getDifficulty() { return difficulty; }
+    public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
+}
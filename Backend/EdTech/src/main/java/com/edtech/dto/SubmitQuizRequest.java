@@ -0,0 +1,11 @@
+package com.edtech.dto;
+
+import java.util.Map;
+
+public class SubmitQuizRequest {
+    private Map<Long, String> answers; // question id -> given answer; unanswered questions may be left out
+    
+    // Getters and setters
+    public Map<Long, String> getAnswers() { return answers; }
+    public void setAnswers(Map<Long, String> answers) { this.answers = answers; }
+}
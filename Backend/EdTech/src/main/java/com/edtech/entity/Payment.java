@@ -5,7 +5,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_payments_status", columnList = "status"),
+        @Index(name = "idx_payments_created_at", columnList = "created_at")
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,7 +25,9 @@ public class Payment {
     @Column(nullable = false)
     private String status;
     
+    @Column(unique = true)
     private String transactionId;
+
     private String paymentMethod;
     
     @Column(nullable = false)
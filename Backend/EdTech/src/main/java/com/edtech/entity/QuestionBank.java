@@ -1,11 +1,19 @@
 package com.edtech.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "question_banks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "question_banks", indexes = {
+        @Index(name = "idx_question_banks_user_subject", columnList = "user_id, subject"),
+        @Index(name = "idx_question_banks_subject", columnList = "subject")
+})
 public class QuestionBank {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,6 +30,7 @@ public class QuestionBank {
     private User user;
     
     @OneToMany(mappedBy = "questionBank", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<QuestionEntity> questions;
     
     @Column(nullable = false)
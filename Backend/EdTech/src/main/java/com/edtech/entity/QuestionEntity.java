@@ -1,10 +1,20 @@
 package com.edtech.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "questions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_bank_id", columnList = "question_bank_id, id")
+})
 public class QuestionEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,8 +26,9 @@ public class QuestionEntity {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String questionText;
     
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "JSON")
-    private String options;
+    private List<String> options;
     
     @Column(columnDefinition = "TEXT")
     private String answer;
@@ -25,6 +36,10 @@ public class QuestionEntity {
     @Column(columnDefinition = "TEXT")
     private String explanation;
     
+    // null means the bank's difficulty applies
+    @Column(length = 32)
+    private String difficulty;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_bank_id")
     private QuestionBank questionBank;
@@ -47,8 +62,8 @@ public class QuestionEntity {
     public String getQuestionText() { return questionText; }
     public void setQuestionText(String questionText) { this.questionText = questionText; }
     
-    public String getOptions() { return options; }
-    public void setOptions(String options) { this.options = options; }
+    public List<String> getOptions() { return options; }
+    public void setOptions(List<String> options) { this.options = options; }
     
     public String getAnswer() { return answer; }
     public void setAnswer(String answer) { this.answer = answer; }
@@ -56,6 +71,9 @@ public class QuestionEntity {
     public String getExplanation() { return explanation; }
     public void setExplanation(String explanation) { this.explanation = explanation; }
     
+    public String getDifficulty() { return difficulty; }
+    public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
+    
     public QuestionBank getQuestionBank() { return questionBank; }
     public void setQuestionBank(QuestionBank questionBank) { this.questionBank = questionBank; }
     
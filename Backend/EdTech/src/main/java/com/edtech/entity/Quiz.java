@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "quizzes")
+@Table(name = "quizzes", indexes = {
+        @Index(name = "idx_quizzes_user_bank", columnList = "user_id, question_bank_id"),
+        @Index(name = "idx_quizzes_bank", columnList = "question_bank_id"),
+        @Index(name = "idx_quizzes_created_at", columnList = "created_at")
+})
 public class Quiz {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +27,9 @@ public class Quiz {
     
     private Integer score;
     private Integer totalQuestions;
+
+    @Column(unique = true, length = 36)
+    private String attemptId;
     
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -51,6 +58,9 @@ public class Quiz {
     public Integer getTotalQuestions() { return totalQuestions; }
     public void setTotalQuestions(Integer totalQuestions) { this.totalQuestions = totalQuestions; }
     
+    public String getAttemptId() { return attemptId; }
+    public void setAttemptId(String attemptId) { this.attemptId = attemptId; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
@@ -0,0 +1,42 @@
+package com.edtech.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "quiz_answers", indexes = {
+        @Index(name = "idx_quiz_answers_attempt", columnList = "attempt_id"),
+        @Index(name = "idx_quiz_answers_question", columnList = "question_id")
+})
+public class QuizAnswer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 36)
+    private String attemptId;
+    
+    @Column(nullable = false)
+    private Long questionId;
+    
+    @Column(columnDefinition = "TEXT")
+    private String givenAnswer;
+    
+    // null when the question type is not auto-graded
+    private Boolean correct;
+    
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getAttemptId() { return attemptId; }
+    public void setAttemptId(String attemptId) { this.attemptId = attemptId; }
+    
+    public Long getQuestionId() { return questionId; }
+    public void setQuestionId(Long questionId) { this.questionId = questionId; }
+    
+    public String getGivenAnswer() { return givenAnswer; }
+    public void setGivenAnswer(String givenAnswer) { this.givenAnswer = givenAnswer; }
+    
+    public Boolean getCorrect() { return correct; }
+    public void setCorrect(Boolean correct) { this.correct = correct; }
+}
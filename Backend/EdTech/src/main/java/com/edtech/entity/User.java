@@ -6,6 +6,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserAccountListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,27 @@
+package com.edtech.entity;
+
+import com.edtech.event.UserAccountChangedEvent;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Announces password and account changes made through JPA. Instantiated by
+ * Spring through Hibernate's bean container, so it can publish events.
+ */
+@Component
+public class UserAccountListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserAccountListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getEmail()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.edtech.event;
+
+/**
+ * Published after questions of a bank are added, edited or removed outside of
+ * an entity save, so in-memory views of the bank can be dropped.
+ */
+public class QuestionBankChangedEvent {
+    private final Long questionBankId;
+
+    public QuestionBankChangedEvent(Long questionBankId) {
+        this.questionBankId = questionBankId;
+    }
+
+    public Long getQuestionBankId() { return questionBankId; }
+}
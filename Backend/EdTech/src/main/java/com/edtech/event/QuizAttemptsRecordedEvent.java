@@ -0,0 +1,20 @@
+package com.edtech.event;
+
+import com.edtech.service.CompletedAttempt;
+
+import java.util.List;
+
+/**
+ * Published by the quiz write-behind queue inside the transaction that inserts
+ * the attempts. Plain listeners take part in that transaction; use
+ * {@code @TransactionalEventListener} to react only once the rows are committed.
+ */
+public class QuizAttemptsRecordedEvent {
+    private final List<CompletedAttempt> attempts;
+
+    public QuizAttemptsRecordedEvent(List<CompletedAttempt> attempts) {
+        this.attempts = List.copyOf(attempts);
+    }
+
+    public List<CompletedAttempt> getAttempts() { return attempts; }
+}
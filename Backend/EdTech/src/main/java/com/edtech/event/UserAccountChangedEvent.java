@@ -0,0 +1,15 @@
+package com.edtech.event;
+
+/**
+ * Published when a user row is updated or deleted, so cached authentication
+ * data for that account can be dropped.
+ */
+public class UserAccountChangedEvent {
+    private final String email;
+
+    public UserAccountChangedEvent(String email) {
+        this.email = email;
+    }
+
+    public String getEmail() { return email; }
+}
@@ -2,15 +2,20 @@ package com.edtech.repository;
 
 import com.edtech.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    List<Payment> findByUserId(Long userId);
+    // Filter on the foreign key column so the lookups stay on idx_payments_user_status
+    @Query("select p from Payment p where p.user.id = :userId")
+    List<Payment> findByUserId(@Param("userId") Long userId);
 
     List<Payment> findByStatus(String status);
 
-    List<Payment> findByUserIdAndStatus(Long userId, String status);
-}
\ No newline at end of file
+    @Query("select p from Payment p where p.user.id = :userId and p.status = :status")
+    List<Payment> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
+}
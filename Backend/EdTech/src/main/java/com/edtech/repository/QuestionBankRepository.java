@@ -1,16 +1,40 @@
 package com.edtech.repository;
 
+import com.edtech.dto.QuestionBankSummary;
 import com.edtech.entity.QuestionBank;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuestionBankRepository extends JpaRepository<QuestionBank, Long> {
-    List<QuestionBank> findByUserId(Long userId);
+    // Derived queries on user.id outer-join users and filter on users.id, which
+    // bypasses idx_question_banks_user_subject; filter on the foreign key instead.
+    @Query("select b from QuestionBank b where b.user.id = :userId")
+    List<QuestionBank> findByUserId(@Param("userId") Long userId);
 
     List<QuestionBank> findBySubject(String subject);
 
-    List<QuestionBank> findByUserIdAndSubject(Long userId, String subject);
-}
\ No newline at end of file
+    @Query("select b from QuestionBank b where b.user.id = :userId and b.subject = :subject")
+    List<QuestionBank> findByUserIdAndSubject(@Param("userId") Long userId, @Param("subject") String subject);
+
+    // Listing view: one grouped query instead of initializing every bank's questions
+    @Query("select new com.edtech.dto.QuestionBankSummary(b.id, b.name, b.subject, b.difficulty, count(q.id), b.createdAt) "
+            + "from QuestionBank b left join b.questions q "
+            + "where b.user.id = :userId "
+            + "group by b.id, b.name, b.subject, b.difficulty, b.createdAt "
+            + "order by b.createdAt desc")
+    List<QuestionBankSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query("select count(q) from QuestionEntity q where q.questionBank.id = :bankId")
+    long countQuestionsById(@Param("bankId") Long bankId);
+
+    // Detail view: bank and its questions in a single joined select
+    @EntityGraph(attributePaths = "questions")
+    Optional<QuestionBank> findWithQuestionsById(Long id);
+}
@@ -1,9 +1,42 @@
 package com.edtech.repository;
 
+import com.edtech.dto.AnswerKey;
 import com.edtech.entity.QuestionEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface QuestionRepository extends JpaRepository<QuestionEntity, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    // Cached in the query cache; Hibernate invalidates it whenever the questions table is written through JPA
+    @Query("select q from QuestionEntity q where q.questionBank.id = :questionBankId order by q.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<QuestionEntity> findByQuestionBankId(@Param("questionBankId") Long questionBankId);
+
+    @Query("select new com.edtech.dto.AnswerKey(q.id, q.type, q.answer, q.options, q.explanation) "
+            + "from QuestionEntity q where q.questionBank.id = :questionBankId order by q.id")
+    List<AnswerKey> findAnswerKeysByQuestionBankId(@Param("questionBankId") Long questionBankId);
+
+    /**
+     * Streams a bank's questions in id order with a bounded JDBC fetch size.
+     * Rows are read-only and bypass the second-level cache so a full export
+     * does not flood it. Must be consumed inside a transaction and closed.
+     */
+    @Query("select q from QuestionEntity q where q.questionBank.id = :questionBankId order by q.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    Stream<QuestionEntity> streamByQuestionBankId(@Param("questionBankId") Long questionBankId);
 }
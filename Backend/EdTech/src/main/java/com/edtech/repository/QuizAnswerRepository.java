@@ -0,0 +1,12 @@
+package com.edtech.repository;
+
+import com.edtech.entity.QuizAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuizAnswerRepository extends JpaRepository<QuizAnswer, Long> {
+    List<QuizAnswer> findByAttemptId(String attemptId);
+}
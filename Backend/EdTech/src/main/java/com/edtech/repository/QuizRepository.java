@@ -1,16 +1,37 @@
 package com.edtech.repository;
 
+import com.edtech.dto.QuizSummary;
 import com.edtech.entity.Quiz;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
-    List<Quiz> findByUserId(Long userId);
+    // Filter on the foreign key columns so the lookups stay on idx_quizzes_user_bank / idx_quizzes_bank
+    @Query("select q from Quiz q where q.user.id = :userId")
+    List<Quiz> findByUserId(@Param("userId") Long userId);
 
-    List<Quiz> findByQuestionBankId(Long questionBankId);
+    @Query("select q from Quiz q where q.questionBank.id = :questionBankId")
+    List<Quiz> findByQuestionBankId(@Param("questionBankId") Long questionBankId);
 
-    List<Quiz> findByUserIdAndQuestionBankId(Long userId, Long questionBankId);
-}
\ No newline at end of file
+    @Query("select q from Quiz q where q.user.id = :userId and q.questionBank.id = :questionBankId")
+    List<Quiz> findByUserIdAndQuestionBankId(@Param("userId") Long userId,
+            @Param("questionBankId") Long questionBankId);
+
+    // Listing view: quiz rows with their bank name from one joined query
+    @Query("select new com.edtech.dto.QuizSummary(q.id, q.title, q.score, q.totalQuestions, b.id, b.name, q.createdAt) "
+            + "from Quiz q left join q.questionBank b "
+            + "where q.user.id = :userId "
+            + "order by q.createdAt desc")
+    List<QuizSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Detail view: quiz and its bank in a single joined select
+    @EntityGraph(attributePaths = "questionBank")
+    Optional<Quiz> findWithQuestionBankById(Long id);
+}
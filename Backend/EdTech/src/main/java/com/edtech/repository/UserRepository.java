@@ -2,11 +2,22 @@ package com.edtech.repository;
 
 import com.edtech.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("select u.id from User u where u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // id, firstName, lastName
+    @Query("select u.id, u.firstName, u.lastName from User u where u.id in :ids")
+    List<Object[]> findNamesByIdIn(@Param("ids") Collection<Long> ids);
 }
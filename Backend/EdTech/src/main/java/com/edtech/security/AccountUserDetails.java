@@ -0,0 +1,40 @@
+package com.edtech.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * User details that also carry the user id and display name, so a login can
+ * build its response and issue a refresh token from the authenticated
+ * principal without loading the user again.
+ */
+public class AccountUserDetails extends User {
+
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+
+    public AccountUserDetails(Long id, String email, String password, Collection<? extends GrantedAuthority> authorities,
+            String firstName, String lastName) {
+        super(email, password, authorities);
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    // Getters
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+}
@@ -1,21 +1,46 @@
 package com.edtech.security;
 
 import com.edtech.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authenticates requests carrying a bearer token. Where the user details come
+ * from is set by {@code auth.user-details.mode}:
+ * <ul>
+ *   <li>{@code cached} (default): {@link UserDetailsCache}, so only the first
+ *       request per user and TTL touches the database;</li>
+ *   <li>{@code database}: a user lookup on every request;</li>
+ *   <li>{@code claims}: the token's subject and roles alone, with no lookup.
+ *       Deleted users and role changes then take effect only when the token
+ *       expires.</li>
+ * </ul>
+ * The token itself is verified once per request by {@link JwtUtil#verify},
+ * and tokens revoked at logout are refused via {@link TokenRevocationService}.
+ * The time spent resolving and validating is recorded as
+ * {@code auth.filter.latency}, tagged with the mode and the lookup result.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -25,6 +50,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.user-details.mode:cached}")
+    private String mode;
+
+    // One timer per mode and result, built on first use instead of looked up in the registry per request
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
@@ -32,28 +72,67 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwt = null;
+        VerifiedToken token = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                token = jwtUtil.verify(authorizationHeader.substring(7));
+                // Almost always answered by the in-memory filter, without I/O
+                if (!tokenRevocationService.isRevoked(token.getTokenId())) {
+                    username = token.getSubject();
+                }
             } catch (Exception e) {
                 logger.error("JWT token extraction failed", e);
             }
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            long start = System.nanoTime();
+            String lookupMode = mode.trim().toLowerCase(Locale.ROOT);
+            String result;
+            UserDetails userDetails;
+            try {
+                switch (lookupMode) {
+                    case "claims":
+                        userDetails = User.withUsername(username)
+                                .password("")
+                                .authorities(token.getAuthorities())
+                                .build();
+                        result = "claims";
+                        break;
+                    case "database":
+                        userDetails = this.userDetailsService.loadUserByUsername(username);
+                        result = "database";
+                        break;
+                    default:
+                        lookupMode = "cached";
+                        result = userDetailsCache.contains(username) ? "hit" : "miss";
+                        userDetails = userDetailsCache.get(username);
+                }
+            } catch (UsernameNotFoundException e) {
+                userDetails = null;
+                result = "unknown_user";
+            }
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            // The signature and expiry were checked by verify() above
+            if (userDetails != null && username.equals(userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 usernamePasswordAuthenticationToken
                         .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
             }
+            timer(lookupMode, result).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
         filterChain.doFilter(request, response);
     }
+
+    private Timer timer(String lookupMode, String result) {
+        return timers.computeIfAbsent(lookupMode + '|' + result, key -> Timer.builder("auth.filter.latency")
+                .description("Time to resolve and validate the user of a bearer token")
+                .tag("mode", lookupMode)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
 }
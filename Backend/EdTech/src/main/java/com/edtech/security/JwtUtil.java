@@ -1,32 +1,70 @@
 package com.edtech.security;
 
+import com.edtech.util.Sha256;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies the HS256 tokens. The signing key and parser are built
+ * once; {@link #verify} checks a token's signature and expiry in a single
+ * parse and remembers the result, keyed by the token's SHA-256, so repeat
+ * requests with the same token skip the parse entirely. A remembered token is
+ * still rejected once its own expiry passes.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long expiration;
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    public JwtUtil(MeterRegistry meterRegistry,
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.expiration}") long expiration,
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheSize,
+            @Value("${jwt.verified-cache.ttl:PT5M}") Duration verifiedCacheTtl) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expiration = expiration;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfterWrite(verifiedCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "auth.verified-tokens");
+    }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    /** Lifetime of an access token, from {@code jwt.expiration}. */
+    public Duration getExpiration() {
+        return Duration.ofMillis(expiration);
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        // Lets the filter authorize from the token alone when auth.user-details.mode is "claims"
+        claims.put("roles", userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -34,14 +72,42 @@ public class JwtUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                // Revocation (logout) denylists tokens by this id
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Subject, roles and expiry of a valid token, parsing it at most once.
+     *
+     * @throws JwtException if the signature is wrong or the token has expired
+     * @throws IllegalArgumentException if the token is blank
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+        // A cached entry past its expiry falls through and the parser rejects it
+        Claims claims = extractAllClaims(token);
+        Date expiresAt = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(claims.getId(), claims.getSubject(), authorities(claims),
+                expiresAt == null ? null : expiresAt.toInstant());
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
+    }
+
+    /** Authorities from the {@code roles} claim; empty for tokens issued without one. */
+    public List<GrantedAuthority> extractAuthorities(String token) {
+        return verify(token).getAuthorities();
     }
 
     public Date extractExpiration(String token) {
@@ -54,19 +120,29 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        return verify(token).getSubject().equals(userDetails.getUsername());
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private static List<GrantedAuthority> authorities(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (roles != null) {
+            for (Object role : roles) {
+                authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+            }
+        }
+        return authorities;
+    }
+
+    // Keeps raw tokens out of the heap-resident cache
+    private static String hash(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT must not be blank");
+        }
+        return Sha256.hex(token);
     }
 }
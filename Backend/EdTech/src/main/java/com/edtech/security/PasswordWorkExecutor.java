@@ -0,0 +1,67 @@
+package com.edtech.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool for BCrypt hashing and verification, kept off the request
+ * threads so a login storm cannot starve the rest of the API. The queue is
+ * bounded by {@code auth.password-pool.queue-capacity}; once it is full new
+ * work is refused at once rather than left waiting, and callers answer 503.
+ * Exported as the {@code auth.password} executor metrics, with refusals
+ * counted in {@code auth.password.rejected}.
+ */
+@Component
+public class PasswordWorkExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public PasswordWorkExecutor(MeterRegistry meterRegistry,
+            @Value("${auth.password-pool.threads:0}") int threads,
+            @Value("${auth.password-pool.queue-capacity:100}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "auth.password");
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password work refused because the pool queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the task on the pool.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
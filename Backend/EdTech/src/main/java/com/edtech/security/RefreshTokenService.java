@@ -0,0 +1,160 @@
+package com.edtech.security;
+
+import com.edtech.util.Sha256;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. Each refresh spends the presented token
+ * and issues a new one in the same family. Presenting a token that was
+ * already spent means it leaked (or a client retried with a stale copy), so
+ * the whole family is revoked and the user has to log in again. Only the
+ * SHA-256 of a token is stored.
+ */
+@Component
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final String FIND_SQL = "SELECT r.id, r.family_id, r.expires_at, r.used_at, r.revoked, "
+            + "r.user_id, u.email FROM refresh_tokens r JOIN users u ON u.id = r.user_id WHERE r.token_hash = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO refresh_tokens "
+            + "(token_hash, user_id, family_id, expires_at, revoked, created_at) VALUES (?, ?, ?, ?, FALSE, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${jwt.refresh-expiration:P14D}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+    }
+
+    /** Starts a new token family for the user, as at login. */
+    public String issue(Long userId) {
+        return insert(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Spends the refresh token and issues its successor.
+     *
+     * @return the new token and the owner's email, or empty if the token is
+     *         unknown, expired, revoked or already spent
+     */
+    public Optional<Rotation> rotate(String refreshToken) {
+        String hash = hash(refreshToken);
+        return transactionTemplate.execute(tx -> {
+            List<StoredToken> rows = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> new StoredToken(
+                    rs.getLong("id"), rs.getString("family_id"), rs.getTimestamp("expires_at").toInstant(),
+                    rs.getTimestamp("used_at") != null, rs.getBoolean("revoked"), rs.getLong("user_id"),
+                    rs.getString("email")), hash);
+            if (rows.isEmpty()) {
+                return Optional.<Rotation>empty();
+            }
+            StoredToken stored = rows.get(0);
+            if (stored.revoked || !Instant.now().isBefore(stored.expiresAt)) {
+                return Optional.<Rotation>empty();
+            }
+            int spent = stored.used ? 0 : jdbcTemplate.update(
+                    "UPDATE refresh_tokens SET used_at = ? WHERE id = ? AND used_at IS NULL AND revoked = FALSE",
+                    Timestamp.from(Instant.now()), stored.id);
+            if (spent == 0) {
+                logger.warn("Refresh token reused for user {}; revoking its family", stored.userId);
+                revokeFamilyById(stored.familyId);
+                return Optional.<Rotation>empty();
+            }
+            return Optional.of(new Rotation(insert(stored.userId, stored.familyId), stored.email));
+        });
+    }
+
+    /** Revokes every token in the presented token's family, as at logout. */
+    public void revokeFamily(String refreshToken) {
+        List<String> families = jdbcTemplate.queryForList(
+                "SELECT family_id FROM refresh_tokens WHERE token_hash = ?", String.class, hash(refreshToken));
+        families.forEach(this::revokeFamilyById);
+    }
+
+    @Scheduled(cron = "${jwt.refresh-purge-cron:0 15 4 * * *}")
+    public int purgeExpired() {
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE expires_at < ?", Timestamp.from(Instant.now()));
+    }
+
+    private void revokeFamilyById(String familyId) {
+        jdbcTemplate.update("UPDATE refresh_tokens SET revoked = TRUE WHERE family_id = ?", familyId);
+    }
+
+    private String insert(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant now = Instant.now();
+        jdbcTemplate.update(INSERT_SQL, hash(token), userId, familyId, Timestamp.from(now.plus(ttl)),
+                Timestamp.from(now));
+        return token;
+    }
+
+    private static String hash(String token) {
+        return Sha256.hex(token);
+    }
+
+    private static class StoredToken {
+
+        final long id;
+        final String familyId;
+        final Instant expiresAt;
+        final boolean used;
+        final boolean revoked;
+        final long userId;
+        final String email;
+
+        StoredToken(long id, String familyId, Instant expiresAt, boolean used, boolean revoked, long userId,
+                String email) {
+            this.id = id;
+            this.familyId = familyId;
+            this.expiresAt = expiresAt;
+            this.used = used;
+            this.revoked = revoked;
+            this.userId = userId;
+            this.email = email;
+        }
+    }
+
+    /** A freshly issued refresh token and the email of the user it belongs to. */
+    public static class Rotation {
+
+        private final String refreshToken;
+        private final String email;
+
+        Rotation(String refreshToken, String email) {
+            this.refreshToken = refreshToken;
+            this.email = email;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+}
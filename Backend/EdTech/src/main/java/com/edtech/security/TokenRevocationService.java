@@ -0,0 +1,124 @@
+package com.edtech.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Denylist of revoked access tokens, by {@code jti}. The table is the source
+ * of truth; every request consults an in-memory {@link RevocationBloomFilter}
+ * first, and only a possible hit (a revoked token or a false positive) goes
+ * to the database to confirm. The filter is built from the table at startup
+ * and rebuilt every {@code jwt.revocation.rebuild-interval-ms}, which drops
+ * expired entries and picks up revocations made by other instances.
+ */
+@Component
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final Counter confirmedHits;
+    private final Counter falsePositives;
+
+    private volatile RevocationBloomFilter filter;
+    // Set while a rebuild is loading, so revocations made meanwhile land in both filters; guarded by swapLock
+    private RevocationBloomFilter next;
+    // Held by revoke while adding and by rebuild while swapping filters, so an id added to the outgoing filter
+    // after the rebuild's read is always added to the incoming one as well
+    private final Object swapLock = new Object();
+
+    public TokenRevocationService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${jwt.revocation.expected-entries:100000}") long expectedEntries,
+            @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new RevocationBloomFilter(expectedEntries, falsePositiveRate);
+        this.confirmedHits = Counter.builder("auth.revocation.lookups")
+                .description("Denylist lookups after a Bloom filter hit")
+                .tag("result", "revoked")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.revocation.lookups")
+                .description("Denylist lookups after a Bloom filter hit")
+                .tag("result", "false_positive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the token id has been revoked. Ids the filter has never seen are
+     * answered from memory without touching the database.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revoked_tokens WHERE jti = ?",
+                Integer.class, tokenId);
+        boolean revoked = rows != null && rows > 0;
+        (revoked ? confirmedHits : falsePositives).increment();
+        return revoked;
+    }
+
+    /** Denylists the token id until {@code expiresAt}, after which verification rejects it anyway. */
+    public void revoke(String tokenId, Instant expiresAt) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE jti = jti", tokenId, Timestamp.from(expiresAt), now);
+        synchronized (swapLock) {
+            filter.add(tokenId);
+            if (next != null) {
+                next.add(tokenId);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        logger.info("Loaded {} revoked token ids into the denylist filter", rebuild());
+    }
+
+    /**
+     * Replaces the filter with one built from the unexpired rows, after
+     * deleting the expired ones.
+     *
+     * @return number of ids loaded
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:60000}",
+            initialDelayString = "${jwt.revocation.rebuild-interval-ms:60000}")
+    public synchronized int rebuild() {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < ?", now);
+        Integer live = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revoked_tokens", Integer.class);
+        RevocationBloomFilter rebuilt = new RevocationBloomFilter(
+                Math.max(expectedEntries, 2L * (live == null ? 0 : live)), falsePositiveRate);
+        synchronized (swapLock) {
+            next = rebuilt;
+        }
+        try {
+            // Revocations committed before this read are in the rows; later ones are added to rebuilt by revoke
+            List<String> ids = jdbcTemplate.queryForList("SELECT jti FROM revoked_tokens", String.class);
+            ids.forEach(rebuilt::add);
+            synchronized (swapLock) {
+                filter = rebuilt;
+            }
+            return ids.size();
+        } finally {
+            synchronized (swapLock) {
+                next = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.edtech.security;
+
+import com.edtech.event.UserAccountChangedEvent;
+import com.edtech.service.UserDetailsServiceImpl;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-limited cache of the user details the JWT filter needs on
+ * every request. Entries carry no password hash; logins still go through
+ * {@link UserDetailsServiceImpl} directly. An account change made through JPA
+ * drops its entry once the change commits; anything else (direct SQL,
+ * {@code app.admin.emails} edits) is picked up within the TTL or by
+ * {@link #invalidate}.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final LoadingCache<String, UserDetails> cache;
+
+    public UserDetailsCache(UserDetailsServiceImpl userDetailsService, MeterRegistry meterRegistry,
+            @Value("${auth.user-details.ttl:PT5M}") Duration ttl,
+            @Value("${auth.user-details.max-size:100000}") long maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.user-details");
+    }
+
+    /**
+     * Cached details for the email.
+     *
+     * @throws org.springframework.security.core.userdetails.UsernameNotFoundException if there is no such user
+     */
+    public UserDetails get(String email) {
+        return cache.get(email);
+    }
+
+    public boolean contains(String email) {
+        return cache.getIfPresent(email) != null;
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(UserAccountChangedEvent event) {
+        invalidate(event.getEmail());
+    }
+
+    private UserDetails load(String email) {
+        UserDetails details = userDetailsService.loadUserByUsername(email);
+        return User.withUsername(details.getUsername())
+                .password("")
+                .authorities(details.getAuthorities())
+                .accountExpired(!details.isAccountNonExpired())
+                .accountLocked(!details.isAccountNonLocked())
+                .credentialsExpired(!details.isCredentialsNonExpired())
+                .disabled(!details.isEnabled())
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.edtech.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What the filter needs from a token whose signature and expiry have been
+ * checked: the token id ({@code jti}), the subject, the {@code roles} claim
+ * and the expiry.
+ */
+public class VerifiedToken {
+
+    private final String tokenId;
+    private final String subject;
+    private final List<GrantedAuthority> authorities;
+    private final Instant expiresAt;
+
+    public VerifiedToken(String tokenId, String subject, List<GrantedAuthority> authorities, Instant expiresAt) {
+        this.tokenId = tokenId;
+        this.subject = subject;
+        this.authorities = List.copyOf(authorities);
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    // Getters
+
+    /** The {@code jti} claim; null for tokens issued before ids were added. */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,62 @@
+package com.edtech.service;
+
+import com.edtech.dto.AnswerKey;
+import com.edtech.event.QuestionBankChangedEvent;
+import com.edtech.repository.QuestionRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answer keys per question bank, loaded with one query the first time a quiz
+ * on the bank is started or graded. Bounded by the total number of questions
+ * held, and dropped when the bank's questions change.
+ */
+@Component
+public class AnswerKeyCache {
+
+    private final QuestionRepository questionRepository;
+    private final LoadingCache<Long, Map<Long, AnswerKey>> keys;
+
+    public AnswerKeyCache(QuestionRepository questionRepository,
+            @Value("${quiz.answer-keys.max-questions:200000}") long maxQuestions,
+            @Value("${quiz.answer-keys.expire-after-access:PT2H}") Duration expireAfterAccess) {
+        this.questionRepository = questionRepository;
+        this.keys = Caffeine.newBuilder()
+                .maximumWeight(maxQuestions)
+                .weigher((Long bankId, Map<Long, AnswerKey> bank) -> Math.max(1, bank.size()))
+                .expireAfterAccess(expireAfterAccess)
+                .build(this::load);
+    }
+
+    /** Keys of every question in the bank by question id, in id order. Empty if the bank has no questions. */
+    public Map<Long, AnswerKey> forBank(Long bankId) {
+        return keys.get(bankId);
+    }
+
+    public void invalidate(Long bankId) {
+        keys.invalidate(bankId);
+    }
+
+    @EventListener
+    public void onQuestionBankChanged(QuestionBankChangedEvent event) {
+        invalidate(event.getQuestionBankId());
+    }
+
+    private Map<Long, AnswerKey> load(Long bankId) {
+        List<AnswerKey> rows = questionRepository.findAnswerKeysByQuestionBankId(bankId);
+        Map<Long, AnswerKey> byId = new LinkedHashMap<>(rows.size() * 2);
+        for (AnswerKey key : rows) {
+            byId.put(key.getQuestionId(), key);
+        }
+        return Collections.unmodifiableMap(byId);
+    }
+}
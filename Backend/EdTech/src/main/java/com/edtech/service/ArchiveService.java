@@ -0,0 +1,242 @@
+package com.edtech.service;
+
+import com.edtech.dto.ArchiveStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves cold rows out of the live tables so queries on {@code quizzes} and
+ * {@code payments} only ever touch the retention window. Quizzes (with their
+ * answers) older than {@code archive.quizzes.retain} and settled payments
+ * older than {@code archive.payments.retain} are copied to the archive
+ * tables and deleted, one batch per transaction, oldest first.
+ *
+ * <p>Month range partitioning was not an option here: MySQL does not allow
+ * foreign keys on partitioned tables, and both tables have them. Archived
+ * quizzes still count in the leaderboard rebuild and the stats backfill.
+ */
+@Service
+public class ArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+
+    private static final String COLD_QUIZZES_SQL = "SELECT id FROM quizzes WHERE created_at < ? "
+            + "AND stats_applied = TRUE ORDER BY created_at, id LIMIT ?";
+
+    private static final String COLD_PAYMENTS_SQL = "SELECT id FROM payments WHERE created_at < ? "
+            + "AND status <> 'PENDING' ORDER BY created_at, id LIMIT ?";
+
+    private static final String COPY_ANSWERS_SQL = "INSERT INTO quiz_answers_archive "
+            + "(id, attempt_id, question_id, given_answer, correct) "
+            + "SELECT a.id, a.attempt_id, a.question_id, a.given_answer, a.correct "
+            + "FROM quiz_answers a JOIN quizzes q ON q.attempt_id = a.attempt_id WHERE q.id IN (:ids)";
+
+    private static final String DELETE_ANSWERS_SQL = "DELETE FROM quiz_answers WHERE attempt_id IN "
+            + "(SELECT attempt_id FROM quizzes WHERE id IN (:ids))";
+
+    private static final String COPY_QUIZZES_SQL = "INSERT INTO quizzes_archive "
+            + "(id, title, user_id, question_bank_id, score, total_questions, created_at, attempt_id, archived_at) "
+            + "SELECT id, title, user_id, question_bank_id, score, total_questions, created_at, attempt_id, :now "
+            + "FROM quizzes WHERE id IN (:ids)";
+
+    private static final String COPY_PAYMENTS_SQL = "INSERT INTO payments_archive "
+            + "(id, user_id, amount, status, transaction_id, payment_method, created_at, archived_at) "
+            + "SELECT id, user_id, amount, status, transaction_id, payment_method, created_at, :now "
+            + "FROM payments WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration quizRetention;
+    private final Duration paymentRetention;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "archive");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ArchiveStatus status = idleStatus();
+
+    public ArchiveService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${archive.enabled:false}") boolean enabled,
+            @Value("${archive.quizzes.retain:P365D}") Duration quizRetention,
+            @Value("${archive.payments.retain:P730D}") Duration paymentRetention,
+            @Value("${archive.batch-size:1000}") int batchSize,
+            @Value("${archive.pause-ms:100}") long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.quizRetention = quizRetention;
+        this.paymentRetention = paymentRetention;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            start();
+        }
+    }
+
+    /**
+     * Starts an archive run in the background, or returns the current status
+     * if one is already running.
+     */
+    public ArchiveStatus start() {
+        if (!running.compareAndSet(false, true)) {
+            return status;
+        }
+        ArchiveStatus started = new ArchiveStatus();
+        started.setStatus("RUNNING");
+        started.setStartedAt(LocalDateTime.now());
+        status = started;
+        executor.execute(this::run);
+        return started;
+    }
+
+    public ArchiveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Archives quizzes created before {@code cutoff}, synchronously.
+     *
+     * @return number of quizzes archived
+     */
+    public long archiveQuizzes(LocalDateTime cutoff) {
+        long archived = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(COLD_QUIZZES_SQL, Long.class, Timestamp.valueOf(cutoff),
+                    batchSize);
+            if (ids.isEmpty()) {
+                return archived;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            transactionTemplate.executeWithoutResult(tx -> {
+                namedJdbcTemplate.update(COPY_ANSWERS_SQL, params);
+                namedJdbcTemplate.update(DELETE_ANSWERS_SQL, params);
+                namedJdbcTemplate.update(COPY_QUIZZES_SQL, params);
+                namedJdbcTemplate.update("DELETE FROM quizzes WHERE id IN (:ids)", params);
+            });
+            archived += ids.size();
+            publishProgress(archived, status.getPaymentsArchived());
+            pause();
+        }
+    }
+
+    /**
+     * Archives settled payments created before {@code cutoff}, synchronously.
+     * Pending payments stay live until reconciliation settles them.
+     *
+     * @return number of payments archived
+     */
+    public long archivePayments(LocalDateTime cutoff) {
+        long archived = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(COLD_PAYMENTS_SQL, Long.class, Timestamp.valueOf(cutoff),
+                    batchSize);
+            if (ids.isEmpty()) {
+                return archived;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            transactionTemplate.executeWithoutResult(tx -> {
+                namedJdbcTemplate.update(COPY_PAYMENTS_SQL, params);
+                namedJdbcTemplate.update("DELETE FROM payments WHERE id IN (:ids)", params);
+            });
+            archived += ids.size();
+            publishProgress(status.getQuizzesArchived(), archived);
+            pause();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long quizzes = archiveQuizzes(now.minus(quizRetention));
+            long payments = archivePayments(now.minus(paymentRetention));
+            finish("COMPLETED", quizzes, payments, null);
+            logger.info("Archived {} quizzes and {} payments in {} ms", quizzes, payments,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException | IllegalStateException e) {
+            logger.error("Archive run failed", e);
+            finish("FAILED", status.getQuizzesArchived(), status.getPaymentsArchived(), e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Gives other transactions room between batches
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archive run interrupted", e);
+        }
+    }
+
+    private void publishProgress(long quizzes, long payments) {
+        if (!running.get()) {
+            return;
+        }
+        ArchiveStatus current = status;
+        ArchiveStatus progress = new ArchiveStatus();
+        progress.setStatus(current.getStatus());
+        progress.setStartedAt(current.getStartedAt());
+        progress.setQuizzesArchived(quizzes);
+        progress.setPaymentsArchived(payments);
+        status = progress;
+    }
+
+    private void finish(String result, long quizzes, long payments, String message) {
+        ArchiveStatus finished = new ArchiveStatus();
+        finished.setStatus(result);
+        finished.setStartedAt(status.getStartedAt());
+        finished.setFinishedAt(LocalDateTime.now());
+        finished.setQuizzesArchived(quizzes);
+        finished.setPaymentsArchived(payments);
+        finished.setMessage(message);
+        status = finished;
+    }
+
+    private static ArchiveStatus idleStatus() {
+        ArchiveStatus idle = new ArchiveStatus();
+        idle.setStatus("IDLE");
+        return idle;
+    }
+}
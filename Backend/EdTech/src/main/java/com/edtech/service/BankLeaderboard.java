@@ -0,0 +1,77 @@
+package com.edtech.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leaderboard of one question bank: each user's best attempt, ordered by
+ * percentage score, then by who reached it first. Recording an attempt is
+ * a max-merge, so attempts can be applied in any order and more than once.
+ */
+final class BankLeaderboard {
+
+    /** A user's best attempt on the bank. */
+    static final class Entry {
+        final long userId;
+        final int score;
+        final int totalQuestions;
+        final long achievedAt;
+
+        Entry(long userId, int score, int totalQuestions, long achievedAt) {
+            this.userId = userId;
+            this.score = score;
+            this.totalQuestions = totalQuestions;
+            this.achievedAt = achievedAt;
+        }
+    }
+
+    // Higher percentage first, compared exactly by cross-multiplying; ties go to the earlier attempt
+    static final Comparator<Entry> ORDER = (a, b) -> {
+        int byScore = Long.compare((long) b.score * a.totalQuestions, (long) a.score * b.totalQuestions);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byTime = Long.compare(a.achievedAt, b.achievedAt);
+        return byTime != 0 ? byTime : Long.compare(a.userId, b.userId);
+    };
+
+    private final RankedSkipList<Entry> ranking = new RankedSkipList<>(ORDER);
+    private final Map<Long, Entry> byUser = new HashMap<>();
+
+    /** Keeps the attempt if it beats the user's current best. */
+    synchronized void record(long userId, int score, int totalQuestions, long achievedAt) {
+        if (totalQuestions <= 0) {
+            return;
+        }
+        Entry candidate = new Entry(userId, score, totalQuestions, achievedAt);
+        Entry current = byUser.get(userId);
+        if (current != null) {
+            if (ORDER.compare(candidate, current) >= 0) {
+                return;
+            }
+            ranking.remove(current);
+        }
+        ranking.insert(candidate);
+        byUser.put(userId, candidate);
+    }
+
+    synchronized List<Entry> top(int count) {
+        return ranking.range(1, count);
+    }
+
+    /** The user's 1-based rank, or 0 if they have no attempt on the bank. */
+    synchronized int rankOf(long userId) {
+        Entry entry = byUser.get(userId);
+        return entry == null ? 0 : ranking.rankOf(entry);
+    }
+
+    synchronized Entry entryOf(long userId) {
+        return byUser.get(userId);
+    }
+
+    synchronized int size() {
+        return ranking.size();
+    }
+}
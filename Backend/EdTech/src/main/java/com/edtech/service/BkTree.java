@@ -0,0 +1,98 @@
+package com.edtech.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BK-tree over 64-bit hashes under Hamming distance. Each child hangs off
+ * its parent by their distance, and the triangle inequality limits a search
+ * within {@code d} of a query to the children whose edge lies within
+ * {@code d} of the query's distance to the parent, so only a small part of
+ * the tree is visited for small {@code d}. Not thread-safe.
+ */
+final class BkTree<V> {
+
+    /** An entry found by {@link #within}, with its distance from the query. */
+    static final class Match<V> {
+        final long hash;
+        final V value;
+        final int distance;
+
+        Match(long hash, V value, int distance) {
+            this.hash = hash;
+            this.value = value;
+            this.distance = distance;
+        }
+    }
+
+    private static final class Node<V> {
+        final long hash;
+        V value;
+        final Map<Integer, Node<V>> children = new HashMap<>();
+
+        Node(long hash, V value) {
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    private Node<V> root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /** Adds the entry; a hash already in the tree gets the new value. */
+    void put(long hash, V value) {
+        if (root == null) {
+            root = new Node<>(hash, value);
+            size++;
+            return;
+        }
+        Node<V> node = root;
+        while (true) {
+            int distance = PerceptualHash.distance(hash, node.hash);
+            if (distance == 0) {
+                node.value = value;
+                return;
+            }
+            Node<V> child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node<>(hash, value));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /** Every entry within maxDistance of the hash, closest first. */
+    List<Match<V>> within(long hash, int maxDistance) {
+        List<Match<V>> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+        Deque<Node<V>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node<V> node = pending.pop();
+            int distance = PerceptualHash.distance(hash, node.hash);
+            if (distance <= maxDistance) {
+                matches.add(new Match<>(node.hash, node.value, distance));
+            }
+            for (Map.Entry<Integer, Node<V>> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                    pending.push(child.getValue());
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(match -> match.distance));
+        return matches;
+    }
+}
@@ -0,0 +1,58 @@
+package com.edtech.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A graded attempt waiting in the write-behind queue. Immutable, so it can be
+ * handed to listeners once it has been written.
+ */
+public final class CompletedAttempt {
+
+    /** One answered (or skipped) question; {@code correct} is null when the question is not auto-graded. */
+    public static final class GradedAnswer {
+        private final Long questionId;
+        private final String givenAnswer;
+        private final Boolean correct;
+
+        public GradedAnswer(Long questionId, String givenAnswer, Boolean correct) {
+            this.questionId = questionId;
+            this.givenAnswer = givenAnswer;
+            this.correct = correct;
+        }
+
+        public Long getQuestionId() { return questionId; }
+        public String getGivenAnswer() { return givenAnswer; }
+        public Boolean getCorrect() { return correct; }
+    }
+
+    private final String attemptId;
+    private final Long userId;
+    private final Long questionBankId;
+    private final String title;
+    private final int score;
+    private final int totalQuestions;
+    private final LocalDateTime submittedAt;
+    private final List<GradedAnswer> answers;
+
+    public CompletedAttempt(String attemptId, Long userId, Long questionBankId, String title, int score,
+            int totalQuestions, LocalDateTime submittedAt, List<GradedAnswer> answers) {
+        this.attemptId = attemptId;
+        this.userId = userId;
+        this.questionBankId = questionBankId;
+        this.title = title;
+        this.score = score;
+        this.totalQuestions = totalQuestions;
+        this.submittedAt = submittedAt;
+        this.answers = List.copyOf(answers);
+    }
+
+    public String getAttemptId() { return attemptId; }
+    public Long getUserId() { return userId; }
+    public Long getQuestionBankId() { return questionBankId; }
+    public String getTitle() { return title; }
+    public int getScore() { return score; }
+    public int getTotalQuestions() { return totalQuestions; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public List<GradedAnswer> getAnswers() { return answers; }
+}
@@ -0,0 +1,93 @@
+package com.edtech.service;
+
+/**
+ * A generation job claimed by a worker: the inputs of one text or image
+ * generation and how many times it has been attempted, this claim included.
+ */
+public class GenerationJob {
+
+    private final long id;
+    private final int attempts;
+    private final int maxAttempts;
+    private final String subject;
+    private final String difficulty;
+    private final Integer questionCount;
+    private final String inputText;
+    private final byte[] image;
+    private final String imageFormat;
+    private final String imageSha256;
+    private final int imageWidth;
+    private final int imageHeight;
+
+    GenerationJob(long id, int attempts, int maxAttempts, String subject, String difficulty, Integer questionCount,
+            String inputText, byte[] image, String imageFormat, String imageSha256, int imageWidth, int imageHeight) {
+        this.id = id;
+        this.attempts = attempts;
+        this.maxAttempts = maxAttempts;
+        this.subject = subject;
+        this.difficulty = difficulty;
+        this.questionCount = questionCount;
+        this.inputText = inputText;
+        this.image = image;
+        this.imageFormat = imageFormat;
+        this.imageSha256 = imageSha256;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+    }
+
+    public boolean isImageJob() {
+        return image != null;
+    }
+
+    // Getters
+
+    public long getId() {
+        return id;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public Integer getQuestionCount() {
+        return questionCount;
+    }
+
+    /** The text to generate from, for text jobs. */
+    public String getInputText() {
+        return inputText;
+    }
+
+    /** The uploaded image bytes, for image jobs. */
+    public byte[] getImage() {
+        return image;
+    }
+
+    public String getImageFormat() {
+        return imageFormat;
+    }
+
+    public String getImageSha256() {
+        return imageSha256;
+    }
+
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    public int getImageHeight() {
+        return imageHeight;
+    }
+}
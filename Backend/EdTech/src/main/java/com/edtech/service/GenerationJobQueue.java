@@ -0,0 +1,303 @@
+package com.edtech.service;
+
+import com.edtech.dto.GenerateResponse;
+import com.edtech.dto.GenerationJobStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.core.support.SqlBinaryValue;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The {@code generation_jobs} table as a work queue shared by every node.
+ *
+ * <p>{@link #claim} locks up to N queued rows with
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED}, so workers on different nodes
+ * each get their own rows without waiting on one another, and marks them
+ * RUNNING under a lease of {@code generation.jobs.lease}. The worker extends
+ * the lease with {@link #heartbeat} while the job runs. A job whose lease ran
+ * out is queued again by {@link #reclaimExpired}, up to
+ * {@code generation.jobs.max-attempts} attempts. Failed attempts are retried
+ * after {@code generation.jobs.retry-backoff}, doubled on each attempt.
+ * Updates from a worker that has lost its lease are ignored.
+ *
+ * <p>Lease times come from the nodes' clocks, which are assumed to be kept
+ * in sync (NTP); the lease is long compared to any realistic skew.
+ */
+@Service
+public class GenerationJobQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationJobQueue.class);
+
+    private static final String CLAIM_SQL = "SELECT id FROM generation_jobs WHERE status = 'QUEUED' "
+            + "AND available_at <= ? ORDER BY available_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String MARK_RUNNING_SQL = "UPDATE generation_jobs SET status = 'RUNNING', "
+            + "lease_owner = :owner, lease_until = :leaseUntil, attempts = attempts + 1 WHERE id IN (:ids)";
+
+    private static final String CLAIMED_JOBS_SQL = "SELECT id, attempts, max_attempts, subject, difficulty, "
+            + "question_count, input_text, image, image_format, image_sha256, image_width, image_height "
+            + "FROM generation_jobs WHERE id IN (:ids) ORDER BY id";
+
+    private static final String HEARTBEAT_SQL = "UPDATE generation_jobs SET lease_until = :leaseUntil "
+            + "WHERE id IN (:ids) AND status = 'RUNNING' AND lease_owner = :owner";
+
+    private static final String COMPLETE_SQL = "UPDATE generation_jobs SET status = 'SUCCEEDED', result = ?, "
+            + "error = NULL, image = NULL, lease_owner = NULL, lease_until = NULL, finished_at = ? "
+            + "WHERE id = ? AND status = 'RUNNING' AND lease_owner = ?";
+
+    private static final String RETRY_SQL = "UPDATE generation_jobs SET status = 'QUEUED', error = ?, "
+            + "available_at = ?, lease_owner = NULL, lease_until = NULL "
+            + "WHERE id = ? AND status = 'RUNNING' AND lease_owner = ?";
+
+    private static final String FAIL_SQL = "UPDATE generation_jobs SET status = 'FAILED', error = ?, "
+            + "image = NULL, lease_owner = NULL, lease_until = NULL, finished_at = ? "
+            + "WHERE id = ? AND status = 'RUNNING' AND lease_owner = ?";
+
+    // The attempt that was cut short does not count against the job
+    private static final String RELEASE_SQL = "UPDATE generation_jobs SET status = 'QUEUED', "
+            + "attempts = attempts - 1, available_at = :now, lease_owner = NULL, lease_until = NULL "
+            + "WHERE id IN (:ids) AND status = 'RUNNING' AND lease_owner = :owner";
+
+    private static final String EXPIRED_LAST_ATTEMPT_SQL = "UPDATE generation_jobs SET status = 'FAILED', "
+            + "error = 'Worker lease expired on the last attempt', image = NULL, lease_owner = NULL, "
+            + "finished_at = ? WHERE status = 'RUNNING' AND lease_until < ? AND attempts >= max_attempts";
+
+    private static final String EXPIRED_SQL = "UPDATE generation_jobs SET status = 'QUEUED', available_at = ?, "
+            + "lease_owner = NULL, lease_until = NULL WHERE status = 'RUNNING' AND lease_until < ?";
+
+    private static final String STATUS_SQL = "SELECT id, status, attempts, created_at, finished_at, error, result "
+            + "FROM generation_jobs WHERE id = ? AND user_id = ?";
+
+    private static final String PURGE_SQL = "DELETE FROM generation_jobs WHERE finished_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpleJdbcInsert insert;
+    private final ObjectMapper objectMapper;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retain;
+    private final int purgeBatchSize;
+
+    public GenerationJobQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${generation.jobs.lease:PT2M}") Duration lease,
+            @Value("${generation.jobs.max-attempts:3}") int maxAttempts,
+            @Value("${generation.jobs.retry-backoff:PT10S}") Duration retryBackoff,
+            @Value("${generation.jobs.retain:P7D}") Duration retain,
+            @Value("${generation.jobs.purge-batch-size:1000}") int purgeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.insert = new SimpleJdbcInsert(jdbcTemplate).withTableName("generation_jobs")
+                .usingGeneratedKeyColumns("id");
+        this.objectMapper = objectMapper;
+        this.lease = lease;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.retain = retain;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /** Queues generation from {@code text}; returns the job id. */
+    public long enqueueText(long userId, String text, String subject, String difficulty, Integer questionCount) {
+        Map<String, Object> row = newJob(userId, subject, difficulty, questionCount);
+        row.put("input_text", text);
+        return insert.executeAndReturnKey(row).longValue();
+    }
+
+    /**
+     * Queues generation from an accepted upload, copying its bytes into the
+     * job; returns the job id. The bytes are streamed from the spooled file
+     * into the BLOB rather than read onto the heap.
+     */
+    public long enqueueImage(long userId, ImageUpload image, String subject, String difficulty,
+            Integer questionCount) throws IOException {
+        try (InputStream bytes = Files.newInputStream(image.getPath())) {
+            Map<String, Object> row = newJob(userId, subject, difficulty, questionCount);
+            row.put("image", new SqlBinaryValue(bytes, image.getSize()));
+            row.put("image_format", image.getFormat());
+            row.put("image_sha256", image.getSha256());
+            row.put("image_width", image.getWidth());
+            row.put("image_height", image.getHeight());
+            return insert.executeAndReturnKey(row).longValue();
+        }
+    }
+
+    /**
+     * Claims up to {@code limit} queued jobs for {@code owner}, oldest first.
+     * Rows locked by another node's claim in progress are skipped, not waited on.
+     */
+    public List<GenerationJob> claim(String owner, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = jdbcTemplate.queryForList(CLAIM_SQL, Long.class, Timestamp.valueOf(now), limit);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                    .addValue("owner", owner)
+                    .addValue("leaseUntil", Timestamp.valueOf(now.plus(lease)));
+            namedJdbcTemplate.update(MARK_RUNNING_SQL, params);
+            return namedJdbcTemplate.query(CLAIMED_JOBS_SQL, params, claimedJob());
+        });
+    }
+
+    /** Extends the lease of jobs {@code owner} is still running; returns how many it still holds. */
+    public int heartbeat(String owner, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedJdbcTemplate.update(HEARTBEAT_SQL, new MapSqlParameterSource("ids", ids)
+                .addValue("owner", owner)
+                .addValue("leaseUntil", Timestamp.valueOf(LocalDateTime.now().plus(lease))));
+    }
+
+    /** Stores the result; false if {@code owner} no longer holds the job. */
+    public boolean complete(GenerationJob job, String owner, GenerateResponse response) {
+        String result;
+        try {
+            result = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize result of job " + job.getId(), e);
+        }
+        return jdbcTemplate.update(COMPLETE_SQL, result, Timestamp.valueOf(LocalDateTime.now()), job.getId(),
+                owner) == 1;
+    }
+
+    /**
+     * Records a failed attempt: the job is queued again after the backoff, or
+     * marked FAILED once it has used all its attempts. False if {@code owner}
+     * no longer holds the job.
+     */
+    public boolean fail(GenerationJob job, String owner, String error) {
+        String message = error == null ? "Unknown error" : error.substring(0, Math.min(error.length(), 1000));
+        LocalDateTime now = LocalDateTime.now();
+        if (job.getAttempts() < job.getMaxAttempts()) {
+            Duration backoff = retryBackoff.multipliedBy(1L << Math.min(job.getAttempts() - 1, 10));
+            return jdbcTemplate.update(RETRY_SQL, message, Timestamp.valueOf(now.plus(backoff)), job.getId(),
+                    owner) == 1;
+        }
+        return jdbcTemplate.update(FAIL_SQL, message, Timestamp.valueOf(now), job.getId(), owner) == 1;
+    }
+
+    /** Hands jobs back to the queue, e.g. when the node shuts down mid-job. */
+    public int release(String owner, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedJdbcTemplate.update(RELEASE_SQL, new MapSqlParameterSource("ids", ids)
+                .addValue("owner", owner)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /** Queues again the jobs of workers whose lease ran out; returns how many. */
+    public int reclaimExpired() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int failed = jdbcTemplate.update(EXPIRED_LAST_ATTEMPT_SQL, now, now);
+        int requeued = jdbcTemplate.update(EXPIRED_SQL, now, now);
+        if (failed + requeued > 0) {
+            logger.warn("Reclaimed {} generation jobs with expired leases ({} out of attempts)", failed + requeued,
+                    failed);
+        }
+        return requeued;
+    }
+
+    /** The job's status, if it exists and belongs to {@code userId}. */
+    public Optional<GenerationJobStatus> find(long id, long userId) {
+        return jdbcTemplate.query(STATUS_SQL, (rs, rowNum) -> {
+            GenerationJobStatus status = new GenerationJobStatus();
+            status.setId(rs.getLong("id"));
+            status.setStatus(rs.getString("status"));
+            status.setAttempts(rs.getInt("attempts"));
+            status.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            Timestamp finishedAt = rs.getTimestamp("finished_at");
+            status.setFinishedAt(finishedAt == null ? null : finishedAt.toLocalDateTime());
+            status.setError(rs.getString("error"));
+            String result = rs.getString("result");
+            if (result != null) {
+                try {
+                    status.setResult(objectMapper.readValue(result, GenerateResponse.class));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Corrupt result for job " + id, e);
+                }
+            }
+            return status;
+        }, id, userId).stream().findFirst();
+    }
+
+    /** Deletes finished jobs older than {@code generation.jobs.retain}, one batch at a time. */
+    @Scheduled(cron = "${generation.jobs.purge-cron:0 20 * * * *}")
+    public int purgeFinished() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retain));
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, cutoff, purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            logger.info("Purged {} finished generation jobs", purged);
+        }
+        return purged;
+    }
+
+    private Map<String, Object> newJob(long userId, String subject, String difficulty, Integer questionCount) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<String, Object> row = new HashMap<>();
+        row.put("user_id", userId);
+        row.put("status", "QUEUED");
+        row.put("subject", subject);
+        row.put("difficulty", difficulty);
+        row.put("question_count", questionCount);
+        row.put("attempts", 0);
+        row.put("max_attempts", maxAttempts);
+        row.put("available_at", now);
+        row.put("created_at", now);
+        return row;
+    }
+
+    private static RowMapper<GenerationJob> claimedJob() {
+        return (rs, rowNum) -> new GenerationJob(
+                rs.getLong("id"),
+                rs.getInt("attempts"),
+                rs.getInt("max_attempts"),
+                rs.getString("subject"),
+                rs.getString("difficulty"),
+                rs.getObject("question_count", Integer.class),
+                rs.getString("input_text"),
+                rs.getBytes("image"),
+                rs.getString("image_format"),
+                rs.getString("image_sha256"),
+                rs.getInt("image_width"),
+                rs.getInt("image_height"));
+    }
+}
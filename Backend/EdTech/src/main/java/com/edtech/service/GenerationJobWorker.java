@@ -0,0 +1,192 @@
+package com.edtech.service;
+
+import com.edtech.dto.GenerateResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs queued generation jobs on this node. Every
+ * {@code generation.jobs.poll-interval-ms} it reclaims jobs abandoned by
+ * dead nodes, then claims as many jobs as it has free slots (at most
+ * {@code generation.jobs.concurrency} running at once) and runs them on its
+ * pool. Every node with {@code generation.jobs.worker.enabled} takes part,
+ * so OCR and LLM capacity grows with the number of nodes. Leases are renewed
+ * every {@code generation.jobs.heartbeat-interval-ms} on a thread of the
+ * worker's own, so a slow task on the shared scheduler cannot let them run
+ * out. A failed LLM call fails the attempt rather than completing the job
+ * with mock questions, and the job is retried. Outcomes are
+ * counted in {@code generation.jobs.finished}; the pool is exported as the
+ * {@code generation.jobs} executor metrics.
+ */
+@Component
+public class GenerationJobWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationJobWorker.class);
+
+    private final GenerationJobQueue queue;
+    private final QuestionGenerationService generationService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int concurrency;
+    private final String nodeId;
+    private final long heartbeatIntervalMs;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService heartbeats;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public GenerationJobWorker(GenerationJobQueue queue, QuestionGenerationService generationService,
+            MeterRegistry meterRegistry,
+            @Value("${generation.jobs.worker.enabled:true}") boolean enabled,
+            @Value("${generation.jobs.concurrency:4}") int concurrency,
+            @Value("${generation.jobs.node-id:}") String nodeId,
+            @Value("${generation.jobs.heartbeat-interval-ms:30000}") long heartbeatIntervalMs) {
+        this.queue = queue;
+        this.generationService = generationService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.concurrency = Math.max(1, concurrency);
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "generation-job-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "generation.jobs");
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "generation-job-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${generation.jobs.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            queue.reclaimExpired();
+            int free = concurrency - running.size();
+            for (GenerationJob job : queue.claim(nodeId, free)) {
+                running.add(job.getId());
+                executor.execute(() -> execute(job));
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Polling the generation job queue failed: {}", e.getMessage());
+        }
+    }
+
+    public void heartbeat() {
+        if (running.isEmpty()) {
+            return;
+        }
+        try {
+            int held = queue.heartbeat(nodeId, Set.copyOf(running));
+            if (held < running.size()) {
+                logger.warn("Node {} lost the lease on {} running generation jobs", nodeId, running.size() - held);
+            }
+        } catch (RuntimeException e) {
+            // Anything escaping would cancel the schedule and let every lease run out
+            logger.warn("Generation job heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    /** Stops taking work and hands the jobs still running back to the queue. */
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        executor.shutdownNow();
+        if (!running.isEmpty()) {
+            int released = queue.release(nodeId, Set.copyOf(running));
+            logger.info("Released {} running generation jobs on shutdown", released);
+        }
+    }
+
+    void execute(GenerationJob job) {
+        try {
+            GenerateResponse response = job.isImageJob() ? generateFromImage(job)
+                    : generationService.generateQuestionsFromTextOnly(job.getInputText(), job.getSubject(),
+                            job.getDifficulty(), job.getQuestionCount(), false);
+            if ("success".equals(response.getStatus())) {
+                finished(queue.complete(job, nodeId, response) ? "succeeded" : "lease_lost");
+            } else {
+                failed(job, response.getMessage());
+            }
+        } catch (Exception e) {
+            logger.error("Generation job {} failed on attempt {}", job.getId(), job.getAttempts(), e);
+            failed(job, e.getMessage());
+        } finally {
+            running.remove(job.getId());
+        }
+    }
+
+    private GenerateResponse generateFromImage(GenerationJob job) throws IOException {
+        Path file = Files.createTempFile("job_" + job.getId() + "_", "." + job.getImageFormat());
+        Files.write(file, job.getImage());
+        try (ImageUpload image = new ImageUpload(file, job.getImageSha256(), job.getImage().length,
+                job.getImageFormat(), job.getImageWidth(), job.getImageHeight())) {
+            return generationService.generateQuestions(image, job.getSubject(), job.getDifficulty(),
+                    job.getQuestionCount(), false);
+        }
+    }
+
+    private void failed(GenerationJob job, String error) {
+        if (!queue.fail(job, nodeId, error)) {
+            finished("lease_lost");
+        } else {
+            finished(job.getAttempts() < job.getMaxAttempts() ? "retried" : "failed");
+        }
+    }
+
+    private void finished(String outcome) {
+        Counter.builder("generation.jobs.finished")
+                .description("Generation job attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = UUID.randomUUID().toString();
+        }
+        String id = host + "-" + ProcessHandle.current().pid();
+        return id.length() <= 64 ? id : id.substring(id.length() - 64);
+    }
+}
@@ -0,0 +1,172 @@
+package com.edtech.service;
+
+import com.edtech.config.RequestTraceFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the question generation pipeline, so the slow stage under load
+ * can be read off {@code /actuator/prometheus}:
+ * <ul>
+ *   <li>{@code generation.stage}: timer per stage ({@code upload_copy},
+ *       {@code image_hash}, {@code ocr}, {@code result_lookup},
+ *       {@code prompt_build}, {@code llm_call}, {@code parse}, {@code total})
+ *       and outcome, with a percentile histogram;</li>
+ *   <li>{@code generation.result_store}: lookups in
+ *       {@link GenerationResultStore}, by {@code hit} or {@code miss};</li>
+ *   <li>{@code generation.ocr_reuse}: perceptual-hash lookups in
+ *       {@link OcrReuseIndex}, by {@code hit} or {@code miss};</li>
+ *   <li>{@code generation.parse.strategy}: which parser produced the
+ *       questions, {@code mock} included;</li>
+ *   <li>{@code generation.fallbacks}: mock questions served, by reason;</li>
+ *   <li>{@code generation.questions.returned}: questions per response;</li>
+ *   <li>{@code generation.llm.tokens}: token usage reported by the LLM API.</li>
+ * </ul>
+ * Between {@link #begin} and {@link #finish} the stages recorded on the
+ * calling thread are also collected into that request's
+ * {@link GenerationTrace}, for its {@code Server-Timing} header and for
+ * {@link SlowGenerationLog}. Work run through {@link #unrecorded} (start-up
+ * warm-up) records nothing.
+ */
+@Component
+public class GenerationMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final SlowGenerationLog slowLog;
+    private final ThreadLocal<GenerationTrace> currentTrace = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> muted = new ThreadLocal<>();
+
+    // Meters are registered on first use and reused, so recording a stage is a map lookup
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> parseCounters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> questionSummaries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> resultStoreCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> ocrReuseCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> fallbackCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> tokenCounters = new ConcurrentHashMap<>();
+
+    public GenerationMetrics(MeterRegistry meterRegistry, SlowGenerationLog slowLog) {
+        this.meterRegistry = meterRegistry;
+        this.slowLog = slowLog;
+    }
+
+    /** Starts collecting stage timings for the request running on this thread. */
+    public GenerationTrace begin(String endpoint) {
+        GenerationTrace trace = new GenerationTrace(MDC.get(RequestTraceFilter.MDC_KEY), endpoint);
+        currentTrace.set(trace);
+        return trace;
+    }
+
+    /** Stops collecting, stamps the total and keeps the trace if it was slow. */
+    public void finish(GenerationTrace trace, String status) {
+        currentTrace.remove();
+        trace.finish(status);
+        slowLog.offer(trace);
+    }
+
+    /** Runs {@code work} on this thread without recording any of its meters. */
+    public <T> T unrecorded(Supplier<T> work) {
+        muted.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            muted.remove();
+        }
+    }
+
+    /** Records a stage that started at {@code startNanos} ({@link System#nanoTime()}). */
+    public void recordStage(String stage, long startNanos, boolean success) {
+        if (muted.get() != null) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        GenerationTrace trace = currentTrace.get();
+        // The trace measures its own total, from the controller's point of view
+        if (trace != null && !"total".equals(stage)) {
+            trace.addStage(stage, nanos);
+        }
+        String outcome = success ? "success" : "error";
+        stageTimers.computeIfAbsent(stage + '|' + outcome, key -> Timer.builder("generation.stage")
+                .description("Time spent in each question generation stage")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordParse(String strategy, int questions) {
+        if (muted.get() != null) {
+            return;
+        }
+        parseCounters.computeIfAbsent(strategy, key -> Counter.builder("generation.parse.strategy")
+                .description("LLM responses by the parser that produced the questions")
+                .tag("strategy", strategy)
+                .register(meterRegistry))
+                .increment();
+        questionSummaries.computeIfAbsent(strategy, key -> DistributionSummary.builder("generation.questions.returned")
+                .description("Questions returned per generation")
+                .tag("strategy", strategy)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(questions);
+    }
+
+    public void recordResultStore(String result) {
+        if (muted.get() != null) {
+            return;
+        }
+        resultStoreCounters.computeIfAbsent(result, key -> Counter.builder("generation.result_store")
+                .description("Generation result store lookups")
+                .tag("result", result)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    public void recordOcrReuse(String result) {
+        if (muted.get() != null) {
+            return;
+        }
+        ocrReuseCounters.computeIfAbsent(result, key -> Counter.builder("generation.ocr_reuse")
+                .description("Perceptual-hash lookups for reusable OCR text")
+                .tag("result", result)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    public void recordFallback(String reason) {
+        if (muted.get() != null) {
+            return;
+        }
+        fallbackCounters.computeIfAbsent(reason, key -> Counter.builder("generation.fallbacks")
+                .description("Generations answered with mock questions")
+                .tag("reason", reason)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    public void recordTokens(String model, long promptTokens, long completionTokens) {
+        if (muted.get() != null) {
+            return;
+        }
+        tokens(model, "prompt").increment(promptTokens);
+        tokens(model, "completion").increment(completionTokens);
+    }
+
+    private Counter tokens(String model, String type) {
+        return tokenCounters.computeIfAbsent(model + '|' + type, key -> Counter.builder("generation.llm.tokens")
+                .description("Tokens reported in the LLM API usage block")
+                .tag("model", model)
+                .tag("type", type)
+                .register(meterRegistry));
+    }
+}
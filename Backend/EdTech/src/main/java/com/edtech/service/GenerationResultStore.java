@@ -0,0 +1,152 @@
+package com.edtech.service;
+
+import com.edtech.dto.Question;
+import com.edtech.util.Sha256;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Durable, cluster-wide store of generated questions in
+ * {@code generation_results}, keyed by a hash of the normalized source text
+ * and the generation options (see {@link #key}). Unlike an in-process cache
+ * it survives deploys and is shared by every node. Entries live for
+ * {@code generation.result-store.ttl}; expired rows are ignored on read and
+ * deleted in batches by {@link #purgeExpired}.
+ *
+ * <p>The store is an optimization only: database errors are logged and
+ * treated as a miss, never surfaced to the request.
+ */
+@Service
+public class GenerationResultStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationResultStore.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final TypeReference<List<Question>> QUESTIONS = new TypeReference<>() {
+    };
+
+    private static final String FIND_SQL = "SELECT questions FROM generation_results "
+            + "WHERE content_hash = ? AND expires_at > ?";
+
+    // The new values are bound a second time for the update: VALUES() is deprecated on MySQL 8.0.20+ and the
+    // row alias that replaces it is not understood by H2
+    private static final String UPSERT_SQL = "INSERT INTO generation_results "
+            + "(content_hash, model, subject, difficulty, question_count, text_length, questions, created_at, "
+            + "expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "questions = ?, created_at = ?, expires_at = ?";
+
+    private static final String PURGE_SQL = "DELETE FROM generation_results WHERE expires_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+
+    public GenerationResultStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            @Value("${generation.result-store.enabled:true}") boolean enabled,
+            @Value("${generation.result-store.ttl:P30D}") Duration ttl,
+            @Value("${generation.result-store.purge-batch-size:1000}") int purgeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Hex SHA-256 identifying a generation. The text is NFKC-normalized with
+     * runs of whitespace collapsed, so OCR output that differs only in line
+     * breaks or spacing maps to the same key; case is kept. Subject and
+     * difficulty are compared case-insensitively, and missing options take
+     * the defaults the prompt uses.
+     */
+    public static String key(String text, String subject, String difficulty, Integer questionCount, String model) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFKC)).replaceAll(" ")
+                .trim();
+        String material = String.join("\u0000",
+                model == null ? "" : model,
+                option(subject, "general"),
+                option(difficulty, "medium"),
+                String.valueOf(questionCount != null ? questionCount : 5),
+                normalized);
+        return Sha256.hex(material);
+    }
+
+    public Optional<List<Question>> find(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            return jdbcTemplate.queryForList(FIND_SQL, String.class, key, Timestamp.valueOf(LocalDateTime.now()))
+                    .stream()
+                    .findFirst()
+                    .map(this::readQuestions);
+        } catch (DataAccessException | IllegalStateException e) {
+            logger.warn("Generation result lookup failed for {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void save(String key, String model, String subject, String difficulty, Integer questionCount,
+            int textLength, List<Question> questions) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(questions);
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+            Timestamp expiresAt = Timestamp.valueOf(createdAt.toLocalDateTime().plus(ttl));
+            jdbcTemplate.update(UPSERT_SQL, key, model, subject, difficulty, questionCount, textLength,
+                    json, createdAt, expiresAt, json, createdAt, expiresAt);
+        } catch (DataAccessException | JsonProcessingException e) {
+            logger.warn("Storing generation result {} failed: {}", key, e.getMessage());
+        }
+    }
+
+    /** Deletes expired results, one batch at a time. */
+    @Scheduled(cron = "${generation.result-store.purge-cron:0 40 * * * *}")
+    public int purgeExpired() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, now, purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            logger.info("Purged {} expired generation results", purged);
+        }
+        return purged;
+    }
+
+    private List<Question> readQuestions(String json) {
+        try {
+            return objectMapper.readValue(json, QUESTIONS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt stored questions", e);
+        }
+    }
+
+    private static String option(String value, String fallback) {
+        return value == null || value.isBlank() ? fallback : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
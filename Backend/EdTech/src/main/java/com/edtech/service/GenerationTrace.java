@@ -0,0 +1,73 @@
+package com.edtech.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Per-stage durations of one generation request, collected by
+ * {@link GenerationMetrics} while the request runs.
+ */
+public class GenerationTrace {
+
+    private final String traceId;
+    private final String endpoint;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Double> stages = new LinkedHashMap<>();
+    private double totalMillis;
+    private String status;
+
+    GenerationTrace(String traceId, String endpoint) {
+        this.traceId = traceId;
+        this.endpoint = endpoint;
+    }
+
+    void addStage(String stage, long nanos) {
+        stages.merge(stage, nanos / 1_000_000.0, Double::sum);
+    }
+
+    void finish(String status) {
+        this.status = status;
+        this.totalMillis = (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    /** Stage durations in milliseconds, in the order they ran, followed by {@code total}. */
+    public Map<String, Double> getTimings() {
+        Map<String, Double> timings = new LinkedHashMap<>(stages);
+        timings.put("total", totalMillis);
+        return timings;
+    }
+
+    /** Value for the {@code Server-Timing} response header. */
+    public String toServerTiming() {
+        StringJoiner header = new StringJoiner(", ");
+        getTimings().forEach((stage, millis) ->
+                header.add(stage + ";dur=" + String.format(Locale.ROOT, "%.1f", millis)));
+        return header.toString();
+    }
+
+    // Getters
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,53 @@
+package com.edtech.service;
+
+import com.edtech.dto.PaymentEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gateway client over HTTP: {@code GET {base-url}/transactions?ids=a,b,c}
+ * returns a JSON array of {@link PaymentEvent}s.
+ */
+@Component
+public class HttpPaymentGateway implements PaymentGateway {
+
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+
+    public HttpPaymentGateway(RestTemplate restTemplate, @Value("${payment.gateway.base-url:}") String baseUrl) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public boolean isConfigured() {
+        return baseUrl != null && !baseUrl.isBlank();
+    }
+
+    @Override
+    public Map<String, String> fetchStatuses(List<String> transactionIds) {
+        URI uri = UriComponentsBuilder.fromUriString(baseUrl)
+                .path("/transactions")
+                .queryParam("ids", String.join(",", transactionIds))
+                .encode()
+                .build()
+                .toUri();
+        PaymentEvent[] events = restTemplate.getForObject(uri, PaymentEvent[].class);
+        Map<String, String> statuses = new HashMap<>();
+        if (events != null) {
+            for (PaymentEvent event : events) {
+                if (event.getTransactionId() != null && event.getStatus() != null) {
+                    statuses.put(event.getTransactionId(), event.getStatus());
+                }
+            }
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,69 @@
+package com.edtech.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An accepted upload, spooled to a temporary file. Closing it deletes the file.
+ */
+public class ImageUpload implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageUpload.class);
+
+    private final Path path;
+    private final String sha256;
+    private final long size;
+    private final String format;
+    private final int width;
+    private final int height;
+
+    ImageUpload(Path path, String sha256, long size, String format, int width, int height) {
+        this.path = path;
+        this.sha256 = sha256;
+        this.size = size;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file: {}", path, e);
+        }
+    }
+
+    // Getters
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Hex SHA-256 of the uploaded bytes. */
+    public String getSha256() {
+        return sha256;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /** Format detected from the leading bytes, e.g. {@code png}. */
+    public String getFormat() {
+        return format;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
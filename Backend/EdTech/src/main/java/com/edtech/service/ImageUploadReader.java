@@ -0,0 +1,191 @@
+package com.edtech.service;
+
+import com.edtech.service.ImageUploadRejectedException.Reason;
+import com.edtech.util.Sha256;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+/**
+ * Reads a raw image request body through one fixed buffer, so the heap cost of
+ * an upload is {@code generation.upload.buffer-size} whatever the file size.
+ * While the bytes stream to a temporary file they are hashed and counted, and
+ * the upload is refused as soon as it is known to be bad:
+ * <ul>
+ *   <li>a declared length over {@code generation.upload.max-bytes}: before reading;</li>
+ *   <li>leading bytes that are not PNG, JPEG, GIF, BMP or TIFF: after the first 32 bytes;</li>
+ *   <li>PNG, GIF and BMP dimensions over {@code generation.upload.max-pixels}: from the same header;</li>
+ *   <li>a body growing past the byte limit: at that point;</li>
+ *   <li>JPEG and TIFF dimensions: from the spooled header, before anything decodes the pixels.</li>
+ * </ul>
+ */
+@Component
+public class ImageUploadReader {
+
+    private static final int HEADER_BYTES = 32;
+
+    private final long maxBytes;
+    private final long maxPixels;
+    private final int bufferSize;
+
+    public ImageUploadReader(@Value("${generation.upload.max-bytes:10485760}") long maxBytes,
+            @Value("${generation.upload.max-pixels:40000000}") long maxPixels,
+            @Value("${generation.upload.buffer-size:8192}") int bufferSize) {
+        this.maxBytes = maxBytes;
+        this.maxPixels = maxPixels;
+        this.bufferSize = Math.max(HEADER_BYTES, bufferSize);
+    }
+
+    /**
+     * Spools and checks the body.
+     *
+     * @param declaredLength the request's content length, or -1 if unknown
+     * @throws ImageUploadRejectedException if the upload is refused
+     */
+    public ImageUpload read(InputStream body, long declaredLength) throws IOException {
+        if (declaredLength > maxBytes) {
+            throw tooLarge();
+        }
+        byte[] buffer = new byte[bufferSize];
+        int headerLength = body.readNBytes(buffer, 0, HEADER_BYTES);
+        if (headerLength == 0) {
+            throw new ImageUploadRejectedException(Reason.EMPTY, "Image body is empty");
+        }
+        String format = sniffFormat(buffer, headerLength);
+        if (format == null) {
+            throw new ImageUploadRejectedException(Reason.UNSUPPORTED_TYPE,
+                    "Body is not a PNG, JPEG, GIF, BMP or TIFF image");
+        }
+        checkPixels(headerDimensions(format, buffer, headerLength));
+
+        MessageDigest digest = Sha256.newDigest();
+        Path file = Files.createTempFile("upload_", "." + format);
+        boolean accepted = false;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            long size = 0;
+            int read = headerLength;
+            while (read != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw tooLarge();
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                read = body.read(buffer);
+            }
+            out.close();
+            int[] dimensions = spooledDimensions(file);
+            checkPixels(dimensions);
+            accepted = true;
+            return new ImageUpload(file, HexFormat.of().formatHex(digest.digest()), size, format,
+                    dimensions[0], dimensions[1]);
+        } finally {
+            if (!accepted) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void checkPixels(int[] dimensions) {
+        if (dimensions != null
+                && (dimensions[0] < 0 || dimensions[1] < 0 || (long) dimensions[0] * dimensions[1] > maxPixels)) {
+            throw new ImageUploadRejectedException(Reason.TOO_MANY_PIXELS, "Image is " + dimensions[0] + "x"
+                    + dimensions[1] + " pixels; the limit is " + maxPixels + " pixels");
+        }
+    }
+
+    private ImageUploadRejectedException tooLarge() {
+        return new ImageUploadRejectedException(Reason.TOO_LARGE, "Image is larger than " + maxBytes + " bytes");
+    }
+
+    // Reads only the header of the spooled file; the pixels are left to the OCR step
+    private static int[] spooledDimensions(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new ImageUploadRejectedException(Reason.UNREADABLE, "Image format is not readable");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[] { reader.getWidth(0), reader.getHeight(0) };
+            } catch (IOException e) {
+                throw new ImageUploadRejectedException(Reason.UNREADABLE, "Image header is corrupt");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static String sniffFormat(byte[] header, int length) {
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (startsWith(header, length, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (startsWith(header, length, 'B', 'M')) {
+            return "bmp";
+        }
+        if (startsWith(header, length, 'I', 'I', 0x2A, 0x00) || startsWith(header, length, 'M', 'M', 0x00, 0x2A)) {
+            return "tif";
+        }
+        return null;
+    }
+
+    // Width and height where the format puts them in the first bytes; null otherwise
+    private static int[] headerDimensions(String format, byte[] header, int length) {
+        switch (format) {
+            case "png":
+                return length >= 24 ? new int[] { bigEndianInt(header, 16), bigEndianInt(header, 20) } : null;
+            case "gif":
+                return length >= 10 ? new int[] { littleEndianShort(header, 6), littleEndianShort(header, 8) } : null;
+            case "bmp":
+                return length >= 26
+                        ? new int[] { Math.abs(littleEndianInt(header, 18)), Math.abs(littleEndianInt(header, 22)) }
+                        : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean startsWith(byte[] data, int length, int... prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bigEndianInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+
+    private static int littleEndianInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8)
+                | ((data[offset + 2] & 0xFF) << 16) | ((data[offset + 3] & 0xFF) << 24);
+    }
+
+    private static int littleEndianShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8);
+    }
+}
@@ -0,0 +1,27 @@
+package com.edtech.service;
+
+/**
+ * Thrown by {@link ImageUploadReader} when an upload is refused, as early in
+ * the stream as the reason becomes known.
+ */
+public class ImageUploadRejectedException extends RuntimeException {
+
+    public enum Reason {
+        EMPTY,
+        TOO_LARGE,
+        UNSUPPORTED_TYPE,
+        TOO_MANY_PIXELS,
+        UNREADABLE
+    }
+
+    private final Reason reason;
+
+    public ImageUploadRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,168 @@
+package com.edtech.service;
+
+import com.edtech.dto.Leaderboard;
+import com.edtech.dto.LeaderboardEntry;
+import com.edtech.event.QuizAttemptsRecordedEvent;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-bank leaderboards held in memory. Each board keeps every participant's
+ * best attempt in a {@link RankedSkipList}, so top-N and a user's rank cost
+ * O(log n) instead of a scan and sort of the bank's quizzes. Boards are
+ * rebuilt from the quizzes table before the application reports ready and
+ * then follow attempts as the write-behind queue commits them.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    // Archived attempts still count towards each user's best
+    private static final String REBUILD_SQL = "SELECT question_bank_id, user_id, score, total_questions, created_at "
+            + "FROM quizzes WHERE total_questions > 0 AND score IS NOT NULL "
+            + "UNION ALL SELECT question_bank_id, user_id, score, total_questions, created_at "
+            + "FROM quizzes_archive WHERE total_questions > 0 AND score IS NOT NULL";
+
+    private static final int REBUILD_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QuestionBankRepository questionBankRepository;
+    private final UserRepository userRepository;
+    private final int maxLimit;
+    private final Map<Long, BankLeaderboard> boards = new ConcurrentHashMap<>();
+
+    public LeaderboardService(JdbcTemplate jdbcTemplate, QuestionBankRepository questionBankRepository,
+            UserRepository userRepository, @Value("${leaderboard.max-limit:100}") int maxLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.questionBankRepository = questionBankRepository;
+        this.userRepository = userRepository;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Loads every stored quiz into the boards. Recording is a max-merge, so
+     * attempts committed while the rebuild runs are not lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(REBUILD_SQL);
+            ps.setFetchSize(REBUILD_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            Timestamp createdAt = rs.getTimestamp(5);
+            board(rs.getLong(1)).record(rs.getLong(2), rs.getInt(3), rs.getInt(4),
+                    createdAt == null ? 0L : createdAt.getTime());
+            rows[0]++;
+        });
+        logger.info("Rebuilt leaderboards for {} banks from {} quizzes in {} ms", boards.size(), rows[0],
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onAttemptsRecorded(QuizAttemptsRecordedEvent event) {
+        for (CompletedAttempt attempt : event.getAttempts()) {
+            board(attempt.getQuestionBankId()).record(attempt.getUserId(), attempt.getScore(),
+                    attempt.getTotalQuestions(), toEpochMillis(attempt.getSubmittedAt()));
+        }
+    }
+
+    /**
+     * Top {@code limit} entries of the bank plus the caller's own entry, or
+     * empty if the bank does not exist.
+     */
+    public Optional<Leaderboard> getLeaderboard(Long bankId, String email, int limit) {
+        if (!boards.containsKey(bankId) && !questionBankRepository.existsById(bankId)) {
+            return Optional.empty();
+        }
+        BankLeaderboard board = board(bankId);
+        int count = Math.max(1, Math.min(limit, maxLimit));
+
+        List<BankLeaderboard.Entry> top = board.top(count);
+        List<LeaderboardEntry> entries = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            entries.add(toDto(top.get(i), i + 1));
+        }
+
+        LeaderboardEntry me = null;
+        Optional<Long> userId = userRepository.findIdByEmail(email);
+        if (userId.isPresent()) {
+            BankLeaderboard.Entry own = board.entryOf(userId.get());
+            if (own != null) {
+                me = toDto(own, board.rankOf(userId.get()));
+            }
+        }
+        attachNames(entries, me);
+
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.setQuestionBankId(bankId);
+        leaderboard.setParticipants(board.size());
+        leaderboard.setTop(entries);
+        leaderboard.setMe(me);
+        return Optional.of(leaderboard);
+    }
+
+    private BankLeaderboard board(Long bankId) {
+        return boards.computeIfAbsent(bankId, id -> new BankLeaderboard());
+    }
+
+    // One query for the names of everyone shown
+    private void attachNames(List<LeaderboardEntry> entries, LeaderboardEntry me) {
+        List<LeaderboardEntry> all = new ArrayList<>(entries);
+        if (me != null) {
+            all.add(me);
+        }
+        if (all.isEmpty()) {
+            return;
+        }
+        Map<Long, Object[]> names = new HashMap<>();
+        for (Object[] row : userRepository.findNamesByIdIn(all.stream().map(LeaderboardEntry::getUserId).toList())) {
+            names.put((Long) row[0], row);
+        }
+        for (LeaderboardEntry entry : all) {
+            Object[] row = names.get(entry.getUserId());
+            if (row != null) {
+                entry.setFirstName((String) row[1]);
+                entry.setLastName((String) row[2]);
+            }
+        }
+    }
+
+    private static LeaderboardEntry toDto(BankLeaderboard.Entry entry, int rank) {
+        LeaderboardEntry dto = new LeaderboardEntry();
+        dto.setRank(rank);
+        dto.setUserId(entry.userId);
+        dto.setScore(entry.score);
+        dto.setTotalQuestions(entry.totalQuestions);
+        dto.setPercentage(Math.round(entry.score * 10000.0 / entry.totalQuestions) / 100.0);
+        dto.setAchievedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.achievedAt), ZoneId.systemDefault()));
+        return dto;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return Timestamp.valueOf(time).getTime();
+    }
+}
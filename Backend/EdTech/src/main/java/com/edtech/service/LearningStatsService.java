@@ -0,0 +1,454 @@
+package com.edtech.service;
+
+import com.edtech.dto.BackfillStatus;
+import com.edtech.dto.LearningStats;
+import com.edtech.entity.QuestionBank;
+import com.edtech.event.QuizAttemptsRecordedEvent;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains the user_subject_stats and user_bank_stats tables. Recorded
+ * attempts are folded in with upserts once the quiz write-behind transaction
+ * has committed, in a transaction of their own, so a slow or failing stats
+ * write never holds up or rolls back the quiz rows. The fold flips
+ * {@code quizzes.stats_applied} together with its upserts; quizzes left
+ * unapplied by a failed fold are picked up by a periodic sweep. The dashboard
+ * is then a primary-key prefix read per table.
+ *
+ * <p>The backfill recomputes the tables from quizzes for consecutive ranges
+ * of users, deleting and re-inserting each range in one transaction. It
+ * replaces rather than adds and marks the range's quizzes as applied, so it
+ * can be re-run at any time, including while quizzes are being submitted.
+ */
+@Service
+public class LearningStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LearningStatsService.class);
+
+    // The totals are bound a second time for the update: VALUES() is deprecated on MySQL 8.0.20+ and the row
+    // alias that replaces it is not understood by H2
+    private static final String UPSERT_SUBJECT_SQL = "INSERT INTO user_subject_stats "
+            + "(user_id, subject, attempts, total_score, total_questions, best_percentage, last_attempt_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "attempts = attempts + ?, "
+            + "total_score = total_score + ?, "
+            + "total_questions = total_questions + ?, "
+            + "best_percentage = GREATEST(best_percentage, ?), "
+            + "last_attempt_at = GREATEST(last_attempt_at, ?)";
+
+    private static final String UPSERT_BANK_SQL = "INSERT INTO user_bank_stats "
+            + "(user_id, question_bank_id, attempts, total_score, total_questions, best_percentage, last_attempt_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "attempts = attempts + ?, "
+            + "total_score = total_score + ?, "
+            + "total_questions = total_questions + ?, "
+            + "best_percentage = GREATEST(best_percentage, ?), "
+            + "last_attempt_at = GREATEST(last_attempt_at, ?)";
+
+    // Locks the quizzes of a batch that no fold, sweep or backfill has counted yet
+    private static final String CLAIM_SQL = "SELECT attempt_id FROM quizzes "
+            + "WHERE attempt_id IN (:ids) AND stats_applied = FALSE FOR UPDATE";
+
+    private static final String MARK_APPLIED_SQL = "UPDATE quizzes SET stats_applied = TRUE "
+            + "WHERE attempt_id IN (:ids)";
+
+    private static final String PENDING_SQL = "SELECT attempt_id, user_id, question_bank_id, title, score, "
+            + "total_questions, created_at FROM quizzes WHERE stats_applied = FALSE ORDER BY id LIMIT ?";
+
+    // Live and archived quizzes of a user range (parameters: from, to, from, to)
+    private static final String USER_QUIZZES_SQL = "(SELECT user_id, question_bank_id, score, total_questions, "
+            + "created_at FROM quizzes WHERE user_id BETWEEN ? AND ? "
+            + "UNION ALL SELECT user_id, question_bank_id, score, total_questions, created_at "
+            + "FROM quizzes_archive WHERE user_id BETWEEN ? AND ?)";
+
+    // Aggregates over quizzes; must match what fold() computes for the same rows
+    private static final String RECOMPUTE_SUBJECT_SQL = "INSERT INTO user_subject_stats "
+            + "(user_id, subject, attempts, total_score, total_questions, best_percentage, last_attempt_at) "
+            + "SELECT q.user_id, COALESCE(b.subject, ''), COUNT(*), SUM(q.score), SUM(q.total_questions), "
+            + "MAX(ROUND(100.0 * q.score / q.total_questions, 2)), MAX(q.created_at) "
+            + "FROM " + USER_QUIZZES_SQL + " q JOIN question_banks b ON b.id = q.question_bank_id "
+            + "WHERE q.total_questions > 0 AND q.score IS NOT NULL "
+            + "GROUP BY q.user_id, COALESCE(b.subject, '')";
+
+    private static final String RECOMPUTE_BANK_SQL = "INSERT INTO user_bank_stats "
+            + "(user_id, question_bank_id, attempts, total_score, total_questions, best_percentage, last_attempt_at) "
+            + "SELECT q.user_id, q.question_bank_id, COUNT(*), SUM(q.score), SUM(q.total_questions), "
+            + "MAX(ROUND(100.0 * q.score / q.total_questions, 2)), MAX(q.created_at) "
+            + "FROM " + USER_QUIZZES_SQL + " q "
+            + "WHERE q.question_bank_id IS NOT NULL "
+            + "AND q.total_questions > 0 AND q.score IS NOT NULL "
+            + "GROUP BY q.user_id, q.question_bank_id";
+
+    private static final String SELECT_SUBJECTS_SQL = "SELECT subject, attempts, total_score, total_questions, "
+            + "best_percentage, last_attempt_at FROM user_subject_stats WHERE user_id = ?";
+
+    private static final String SELECT_BANKS_SQL = "SELECT s.question_bank_id, b.name, s.attempts, s.total_score, "
+            + "s.total_questions, s.best_percentage, s.last_attempt_at "
+            + "FROM user_bank_stats s JOIN question_banks b ON b.id = s.question_bank_id "
+            + "WHERE s.user_id = ? ORDER BY s.last_attempt_at DESC";
+
+    /** Running totals for one stats row. */
+    private static final class Totals {
+        int attempts;
+        long totalScore;
+        long totalQuestions;
+        BigDecimal bestPercentage = BigDecimal.ZERO;
+        LocalDateTime lastAttemptAt;
+
+        void add(CompletedAttempt attempt) {
+            attempts++;
+            totalScore += attempt.getScore();
+            totalQuestions += attempt.getTotalQuestions();
+            BigDecimal percentage = BigDecimal.valueOf(100L * attempt.getScore())
+                    .divide(BigDecimal.valueOf(attempt.getTotalQuestions()), 2, RoundingMode.HALF_UP);
+            bestPercentage = bestPercentage.max(percentage);
+            if (lastAttemptAt == null || attempt.getSubmittedAt().isAfter(lastAttemptAt)) {
+                lastAttemptAt = attempt.getSubmittedAt();
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate foldTemplate;
+    private final QuestionBankRepository questionBankRepository;
+    private final UserRepository userRepository;
+    private final int backfillUsersPerChunk;
+    private final double weakSubjectThreshold;
+    private final int pendingBatchSize;
+
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stats-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private volatile BackfillStatus backfillStatus = idleStatus();
+
+    public LearningStatsService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            QuestionBankRepository questionBankRepository, UserRepository userRepository,
+            @Value("${stats.backfill.users-per-chunk:500}") int backfillUsersPerChunk,
+            @Value("${stats.weak-subject-threshold:60}") double weakSubjectThreshold,
+            @Value("${stats.pending-sweep.batch-size:500}") int pendingBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The fold runs after the quiz transaction committed, while it is still bound to the thread
+        this.foldTemplate = new TransactionTemplate(transactionManager);
+        this.foldTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.questionBankRepository = questionBankRepository;
+        this.userRepository = userRepository;
+        this.backfillUsersPerChunk = backfillUsersPerChunk;
+        this.weakSubjectThreshold = weakSubjectThreshold;
+        this.pendingBatchSize = pendingBatchSize;
+    }
+
+    /**
+     * Folds a batch of attempts into the stats tables once the quiz
+     * write-behind transaction has committed. A failure is left to
+     * {@link #foldPending()}: the quizzes stay marked as not applied.
+     */
+    @TransactionalEventListener
+    public void onAttemptsRecorded(QuizAttemptsRecordedEvent event) {
+        try {
+            fold(event.getAttempts());
+        } catch (DataAccessException e) {
+            logger.warn("Folding {} quiz attempts into the stats failed, leaving them to the pending sweep: {}",
+                    event.getAttempts().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Folds quizzes whose stats were not applied when they were written.
+     *
+     * @return number of quizzes folded
+     */
+    @Scheduled(fixedDelayString = "${stats.pending-sweep.interval-ms:60000}")
+    public int foldPending() {
+        int total = 0;
+        while (true) {
+            List<CompletedAttempt> pending = jdbcTemplate.query(PENDING_SQL, (rs, i) -> new CompletedAttempt(
+                    rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getString(4), rs.getInt(5), rs.getInt(6),
+                    rs.getTimestamp(7).toLocalDateTime(), List.of()), pendingBatchSize);
+            if (pending.isEmpty()) {
+                return total;
+            }
+            int folded;
+            try {
+                folded = fold(pending);
+            } catch (DataAccessException e) {
+                logger.warn("Folding {} pending quiz attempts into the stats failed: {}", pending.size(),
+                        e.getMessage());
+                return total;
+            }
+            total += folded;
+            if (folded == 0 || pending.size() < pendingBatchSize) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Claims the attempts not yet counted and folds them in one transaction:
+     * one upsert per distinct user and subject and per distinct user and bank,
+     * applied in key order so concurrent batches lock rows in the same order.
+     */
+    private int fold(List<CompletedAttempt> attempts) {
+        Integer folded = foldTemplate.execute(status -> {
+            Map<String, Object> ids = Map.of("ids",
+                    attempts.stream().map(CompletedAttempt::getAttemptId).toList());
+            Set<String> claimed = new HashSet<>(namedJdbcTemplate.queryForList(CLAIM_SQL, ids, String.class));
+            if (claimed.isEmpty()) {
+                return 0;
+            }
+            List<CompletedAttempt> unapplied = attempts.stream()
+                    .filter(attempt -> claimed.contains(attempt.getAttemptId()))
+                    .toList();
+            namedJdbcTemplate.update(MARK_APPLIED_SQL, Map.of("ids", List.copyOf(claimed)));
+            aggregate(unapplied);
+            return unapplied.size();
+        });
+        return folded == null ? 0 : folded;
+    }
+
+    private void aggregate(List<CompletedAttempt> attempts) {
+        Map<Long, String> subjects = subjectsOf(attempts);
+        Comparator<List<Object>> byKey = Comparator.<List<Object>, Long>comparing(k -> (Long) k.get(0))
+                .thenComparing(k -> String.valueOf(k.get(1)));
+        Map<List<Object>, Totals> bySubject = new TreeMap<>(byKey);
+        Map<List<Object>, Totals> byBank = new TreeMap<>(byKey);
+
+        for (CompletedAttempt attempt : attempts) {
+            if (attempt.getTotalQuestions() <= 0) {
+                continue;
+            }
+            String subject = subjects.getOrDefault(attempt.getQuestionBankId(), "");
+            bySubject.computeIfAbsent(List.of(attempt.getUserId(), subject), k -> new Totals()).add(attempt);
+            byBank.computeIfAbsent(List.of(attempt.getUserId(), attempt.getQuestionBankId()), k -> new Totals())
+                    .add(attempt);
+        }
+
+        upsert(UPSERT_SUBJECT_SQL, bySubject);
+        upsert(UPSERT_BANK_SQL, byBank);
+    }
+
+    public LearningStats getStats(Long userId) {
+        List<LearningStats.SubjectStats> subjects = jdbcTemplate.query(SELECT_SUBJECTS_SQL, (rs, i) -> {
+            LearningStats.SubjectStats stats = new LearningStats.SubjectStats();
+            String subject = rs.getString(1);
+            stats.setSubject(subject.isEmpty() ? null : subject);
+            stats.setAttempts(rs.getInt(2));
+            stats.setAveragePercentage(percentage(rs.getLong(3), rs.getLong(4)));
+            stats.setBestPercentage(rs.getBigDecimal(5).doubleValue());
+            stats.setLastAttemptAt(rs.getTimestamp(6).toLocalDateTime());
+            return stats;
+        }, userId);
+
+        List<LearningStats.BankStats> banks = jdbcTemplate.query(SELECT_BANKS_SQL, (rs, i) -> {
+            LearningStats.BankStats stats = new LearningStats.BankStats();
+            stats.setQuestionBankId(rs.getLong(1));
+            stats.setQuestionBankName(rs.getString(2));
+            stats.setAttempts(rs.getInt(3));
+            stats.setAveragePercentage(percentage(rs.getLong(4), rs.getLong(5)));
+            stats.setBestPercentage(rs.getBigDecimal(6).doubleValue());
+            stats.setLastAttemptAt(rs.getTimestamp(7).toLocalDateTime());
+            return stats;
+        }, userId);
+
+        List<String> weak = subjects.stream()
+                .filter(s -> s.getSubject() != null && s.getAveragePercentage() < weakSubjectThreshold)
+                .sorted(Comparator.comparingDouble(LearningStats.SubjectStats::getAveragePercentage))
+                .map(LearningStats.SubjectStats::getSubject)
+                .toList();
+
+        LearningStats stats = new LearningStats();
+        stats.setSubjects(subjects);
+        stats.setBanks(banks);
+        stats.setWeakSubjects(weak);
+        return stats;
+    }
+
+    public Optional<LearningStats> getStats(String email) {
+        return userRepository.findIdByEmail(email).map(this::getStats);
+    }
+
+    /**
+     * Starts a backfill in the background, or returns the current status if
+     * one is already running.
+     */
+    public BackfillStatus startBackfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return backfillStatus;
+        }
+        BackfillStatus status = new BackfillStatus();
+        status.setStatus("RUNNING");
+        status.setStartedAt(LocalDateTime.now());
+        backfillStatus = status;
+        backfillExecutor.execute(this::runBackfill);
+        return status;
+    }
+
+    public BackfillStatus getBackfillStatus() {
+        return backfillStatus;
+    }
+
+    /**
+     * Recomputes the stats of every user synchronously.
+     *
+     * @return number of users processed
+     */
+    public long backfill() {
+        long processed = 0;
+        long lastUserId = 0;
+        while (true) {
+            List<Long> userIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?", Long.class,
+                    lastUserId, backfillUsersPerChunk);
+            if (userIds.isEmpty()) {
+                return processed;
+            }
+            long from = userIds.get(0);
+            long to = userIds.get(userIds.size() - 1);
+            recompute(from, to);
+            processed += userIds.size();
+            lastUserId = to;
+            publishProgress(processed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    private void runBackfill() {
+        long start = System.nanoTime();
+        try {
+            long processed = backfill();
+            finishBackfill("COMPLETED", processed, null);
+            logger.info("Stats backfill recomputed {} users in {} ms", processed,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            logger.error("Stats backfill failed", e);
+            finishBackfill("FAILED", backfillStatus.getUsersProcessed(), e.getMessage());
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    // Delete-and-recompute in one transaction. Marking the range's quizzes as
+    // applied first waits for folds holding them and makes later folds skip
+    // them, so every quiz is counted either here or by its fold, never both
+    private void recompute(long fromUserId, long toUserId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE quizzes SET stats_applied = TRUE WHERE user_id BETWEEN ? AND ? "
+                    + "AND stats_applied = FALSE", fromUserId, toUserId);
+            jdbcTemplate.update("DELETE FROM user_subject_stats WHERE user_id BETWEEN ? AND ?", fromUserId, toUserId);
+            jdbcTemplate.update("DELETE FROM user_bank_stats WHERE user_id BETWEEN ? AND ?", fromUserId, toUserId);
+            jdbcTemplate.update(RECOMPUTE_SUBJECT_SQL, fromUserId, toUserId, fromUserId, toUserId);
+            jdbcTemplate.update(RECOMPUTE_BANK_SQL, fromUserId, toUserId, fromUserId, toUserId);
+        });
+    }
+
+    private void upsert(String sql, Map<List<Object>, Totals> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<List<Object>, Totals>> entries = new ArrayList<>(rows.entrySet());
+        jdbcTemplate.batchUpdate(sql, entries, entries.size(), (ps, entry) -> {
+            Totals totals = entry.getValue();
+            ps.setLong(1, (Long) entry.getKey().get(0));
+            ps.setObject(2, entry.getKey().get(1));
+            ps.setInt(3, totals.attempts);
+            ps.setLong(4, totals.totalScore);
+            ps.setLong(5, totals.totalQuestions);
+            ps.setBigDecimal(6, totals.bestPercentage);
+            ps.setTimestamp(7, Timestamp.valueOf(totals.lastAttemptAt));
+            ps.setInt(8, totals.attempts);
+            ps.setLong(9, totals.totalScore);
+            ps.setLong(10, totals.totalQuestions);
+            ps.setBigDecimal(11, totals.bestPercentage);
+            ps.setTimestamp(12, Timestamp.valueOf(totals.lastAttemptAt));
+        });
+    }
+
+    // Bank subjects come from the second-level cache when the banks have been read recently
+    private Map<Long, String> subjectsOf(List<CompletedAttempt> attempts) {
+        List<Long> bankIds = attempts.stream().map(CompletedAttempt::getQuestionBankId).distinct().toList();
+        Map<Long, String> subjects = new HashMap<>();
+        for (QuestionBank bank : questionBankRepository.findAllById(bankIds)) {
+            subjects.put(bank.getId(), bank.getSubject() == null ? "" : bank.getSubject());
+        }
+        return subjects;
+    }
+
+    private void publishProgress(long processed) {
+        BackfillStatus current = backfillStatus;
+        if ("RUNNING".equals(current.getStatus())) {
+            BackfillStatus next = copy(current);
+            next.setUsersProcessed(processed);
+            backfillStatus = next;
+        }
+    }
+
+    private void finishBackfill(String result, long processed, String message) {
+        BackfillStatus next = copy(backfillStatus);
+        next.setStatus(result);
+        next.setUsersProcessed(processed);
+        next.setFinishedAt(LocalDateTime.now());
+        next.setMessage(message);
+        backfillStatus = next;
+    }
+
+    private static double percentage(long score, long total) {
+        return total == 0 ? 0.0 : Math.round(score * 10000.0 / total) / 100.0;
+    }
+
+    private static BackfillStatus idleStatus() {
+        BackfillStatus status = new BackfillStatus();
+        status.setStatus("IDLE");
+        return status;
+    }
+
+    private static BackfillStatus copy(BackfillStatus source) {
+        BackfillStatus copy = new BackfillStatus();
+        copy.setStatus(source.getStatus());
+        copy.setUsersProcessed(source.getUsersProcessed());
+        copy.setStartedAt(source.getStartedAt());
+        copy.setFinishedAt(source.getFinishedAt());
+        copy.setMessage(source.getMessage());
+        return copy;
+    }
+}
@@ -0,0 +1,104 @@
+package com.edtech.service;
+
+import com.edtech.service.PerceptualHash.Fingerprint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * OCR text of recent uploads on this node, looked up by perceptual hash so
+ * that another photo of the same page (a little rotated, brighter, or at a
+ * different resolution) reuses the text instead of running Tesseract again.
+ * Candidates are the stored hashes within
+ * {@code generation.ocr-reuse.max-distance} bits of the 64; the closest one
+ * whose line profile correlates at least
+ * {@code generation.ocr-reuse.min-correlation} with the upload's is the
+ * match. The hash alone cannot tell apart pages that share a layout, which
+ * can land as close as a retake of the same page. At most
+ * {@code generation.ocr-reuse.max-entries} uploads are kept; past that the
+ * oldest quarter is dropped and the tree rebuilt.
+ */
+@Component
+public class OcrReuseIndex {
+
+    private final boolean enabled;
+    private final int maxDistance;
+    private final double minCorrelation;
+    private final int maxEntries;
+    // Insertion order, oldest first; the tree is rebuilt from it after eviction
+    private final Map<Long, Entry> entries = new LinkedHashMap<>();
+    private BkTree<Entry> tree = new BkTree<>();
+
+    private static final class Entry {
+        final Fingerprint fingerprint;
+        final String text;
+
+        Entry(Fingerprint fingerprint, String text) {
+            this.fingerprint = fingerprint;
+            this.text = text;
+        }
+    }
+
+    public OcrReuseIndex(@Value("${generation.ocr-reuse.enabled:true}") boolean enabled,
+            @Value("${generation.ocr-reuse.max-distance:6}") int maxDistance,
+            @Value("${generation.ocr-reuse.min-correlation:0.94}") double minCorrelation,
+            @Value("${generation.ocr-reuse.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxDistance = maxDistance;
+        this.minCorrelation = minCorrelation;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Text of the closest stored upload that passes both checks. */
+    public synchronized Optional<String> find(Fingerprint fingerprint) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        for (BkTree.Match<Entry> match : tree.within(fingerprint.hash, maxDistance)) {
+            Entry entry = match.value;
+            if (PerceptualHash.correlation(fingerprint.profile, entry.fingerprint.profile) >= minCorrelation) {
+                return Optional.of(entry.text);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public synchronized void add(Fingerprint fingerprint, String text) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(fingerprint, text);
+        // Re-inserted so a repeat counts as the newest entry
+        entries.remove(fingerprint.hash);
+        entries.put(fingerprint.hash, entry);
+        tree.put(fingerprint.hash, entry);
+        if (entries.size() > maxEntries) {
+            evictOldest(Math.max(1, maxEntries / 4));
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictOldest(int count) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        for (int i = 0; i < count && oldest.hasNext(); i++) {
+            oldest.next();
+            oldest.remove();
+        }
+        // BK-trees have no cheap delete
+        tree = new BkTree<>();
+        for (Entry entry : entries.values()) {
+            tree.put(entry.fingerprint.hash, entry);
+        }
+    }
+}
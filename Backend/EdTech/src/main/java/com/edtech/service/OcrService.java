@@ -0,0 +1,37 @@
+package com.edtech.service;
+
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+
+/**
+ * Runs Tesseract over an image file. A new engine is created per call because
+ * {@link Tesseract} instances are not thread-safe.
+ */
+@Service
+public class OcrService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrService.class);
+
+    @Value("${tesseract.data.path}")
+    private String tesseractDataPath;
+
+    @Value("${tesseract.language}")
+    private String tesseractLanguage;
+
+    public String extractText(Path imageFile) throws TesseractException {
+        Tesseract tesseract = new Tesseract();
+        tesseract.setDatapath(tesseractDataPath);
+        tesseract.setLanguage(tesseractLanguage);
+
+        String extractedText = tesseract.doOCR(imageFile.toFile());
+        // The text itself goes through PayloadLogger
+        logger.debug("Extracted {} characters", extractedText.length());
+        return extractedText;
+    }
+}
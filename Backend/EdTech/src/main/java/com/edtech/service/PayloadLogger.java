@@ -0,0 +1,155 @@
+package com.edtech.service;
+
+import com.edtech.config.RequestTraceFilter;
+import com.edtech.util.Sha256;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs the large payloads of the generation path (OCR text, prompts, LLM
+ * responses) to the {@code com.edtech.payload} logger without writing each
+ * one in full on every request.
+ *
+ * <p>Each category is sampled at its own rate
+ * ({@code generation.payload-log.sample-rate.*}); a sampled payload is cut to
+ * {@code generation.payload-log.max-chars} characters and tagged with its
+ * length and SHA-256, so repeats can still be matched up across requests.
+ * Payloads that are not sampled are logged as length and hash only, at DEBUG.
+ *
+ * <p>For debugging, full payloads can be captured for a while for one user
+ * or one request id (the {@code X-Request-Id} trace id) through
+ * {@code /api/admin/payload-capture}.
+ */
+@Component
+public class PayloadLogger {
+
+    public static final String LOGGER_NAME = "com.edtech.payload";
+
+    private static final Logger payloadLog = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final double ocrTextRate;
+    private final double promptRate;
+    private final double llmResponseRate;
+    private final int maxChars;
+
+    // "user:<email>" or "request:<trace id>" -> end of the capture window
+    private final Map<String, Instant> captures = new ConcurrentHashMap<>();
+
+    public PayloadLogger(@Value("${generation.payload-log.sample-rate.ocr-text:0.01}") double ocrTextRate,
+            @Value("${generation.payload-log.sample-rate.prompt:0.01}") double promptRate,
+            @Value("${generation.payload-log.sample-rate.llm-response:0.05}") double llmResponseRate,
+            @Value("${generation.payload-log.max-chars:256}") int maxChars) {
+        this.ocrTextRate = ocrTextRate;
+        this.promptRate = promptRate;
+        this.llmResponseRate = llmResponseRate;
+        this.maxChars = Math.max(0, maxChars);
+    }
+
+    public void ocrText(String text) {
+        log("ocr_text", ocrTextRate, text);
+    }
+
+    public void prompt(String prompt) {
+        log("prompt", promptRate, prompt);
+    }
+
+    public void llmResponse(String response) {
+        log("llm_response", llmResponseRate, response);
+    }
+
+    /** Captures full payloads of requests made by {@code email} until {@code ttl} has passed. */
+    public void captureUser(String email, Duration ttl) {
+        captures.put(userKey(email), Instant.now().plus(ttl));
+    }
+
+    /** Captures full payloads of the request with trace id {@code requestId} until {@code ttl} has passed. */
+    public void captureRequest(String requestId, Duration ttl) {
+        captures.put(requestKey(requestId), Instant.now().plus(ttl));
+    }
+
+    public void stopCapture(String email, String requestId) {
+        if (email != null) {
+            captures.remove(userKey(email));
+        }
+        if (requestId != null) {
+            captures.remove(requestKey(requestId));
+        }
+    }
+
+    public void stopAllCaptures() {
+        captures.clear();
+    }
+
+    /** Active capture targets and when each one ends. */
+    public Map<String, Instant> activeCaptures() {
+        Instant now = Instant.now();
+        captures.values().removeIf(until -> !until.isAfter(now));
+        return Map.copyOf(captures);
+    }
+
+    private void log(String category, double rate, String payload) {
+        if (payload == null || !payloadLog.isInfoEnabled()) {
+            return;
+        }
+        if (capturing()) {
+            payloadLog.info("{} [full len={} sha256={}]: {}", category, payload.length(), Sha256.hex(payload),
+                    payload);
+        } else if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+            payloadLog.info("{} [len={} sha256={}]: {}", category, payload.length(), Sha256.hex(payload),
+                    truncate(payload));
+        } else if (payloadLog.isDebugEnabled()) {
+            payloadLog.debug("{} [len={} sha256={}]", category, payload.length(), Sha256.hex(payload));
+        }
+    }
+
+    private boolean capturing() {
+        if (captures.isEmpty()) {
+            return false;
+        }
+        String traceId = MDC.get(RequestTraceFilter.MDC_KEY);
+        if (traceId != null && active(requestKey(traceId))) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && active(userKey(authentication.getName()));
+    }
+
+    private boolean active(String key) {
+        Instant until = captures.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until.isAfter(Instant.now())) {
+            return true;
+        }
+        captures.remove(key, until);
+        return false;
+    }
+
+    String truncate(String payload) {
+        if (payload.length() <= maxChars) {
+            return payload;
+        }
+        return payload.substring(0, maxChars) + "...";
+    }
+
+    private static String userKey(String email) {
+        return "user:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String requestKey(String requestId) {
+        return "request:" + requestId.trim();
+    }
+}
@@ -0,0 +1,20 @@
+package com.edtech.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read access to the payment gateway, used to reconcile payments whose
+ * callbacks never arrived.
+ */
+public interface PaymentGateway {
+
+    /** False when no gateway is configured; reconciliation is then skipped. */
+    boolean isConfigured();
+
+    /**
+     * Current status of each transaction the gateway knows about, keyed by
+     * transaction id. Unknown transactions are left out.
+     */
+    Map<String, String> fetchStatuses(List<String> transactionIds);
+}
@@ -0,0 +1,118 @@
+package com.edtech.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settles payments whose callbacks never arrived. Pending payments older than
+ * {@code payment.reconciliation.min-age} are walked in id order, one chunk at
+ * a time (keyset pagination on the status index, so memory and query cost
+ * stay flat however many are pending); the gateway is asked for each chunk's
+ * statuses and settled ones are updated with one batch.
+ */
+@Service
+public class PaymentReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationService.class);
+
+    private static final String CHUNK_SQL = "SELECT id, transaction_id FROM payments "
+            + "WHERE status = 'PENDING' AND id > ? AND created_at < ? AND transaction_id IS NOT NULL "
+            + "ORDER BY id LIMIT ?";
+
+    private static final String UPDATE_SQL = "UPDATE payments SET status = ? WHERE id = ? AND status = 'PENDING'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentGateway paymentGateway;
+    private final int chunkSize;
+    private final Duration minAge;
+
+    public PaymentReconciliationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            PaymentGateway paymentGateway,
+            @Value("${payment.reconciliation.chunk-size:200}") int chunkSize,
+            @Value("${payment.reconciliation.min-age:PT15M}") Duration minAge) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.paymentGateway = paymentGateway;
+        this.chunkSize = chunkSize;
+        this.minAge = minAge;
+    }
+
+    /**
+     * Runs one pass over the pending payments.
+     *
+     * @return number of payments whose status was updated
+     */
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval-ms:300000}",
+            initialDelayString = "${payment.reconciliation.interval-ms:300000}")
+    public int reconcile() {
+        if (!paymentGateway.isConfigured()) {
+            return 0;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(minAge));
+        long lastId = 0;
+        int updated = 0;
+        while (true) {
+            List<Long> ids = new ArrayList<>(chunkSize);
+            List<String> transactionIds = new ArrayList<>(chunkSize);
+            jdbcTemplate.query(CHUNK_SQL, rs -> {
+                ids.add(rs.getLong(1));
+                transactionIds.add(rs.getString(2));
+            }, lastId, cutoff, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+
+            Map<String, String> statuses;
+            try {
+                statuses = paymentGateway.fetchStatuses(transactionIds);
+            } catch (RestClientException e) {
+                logger.warn("Payment reconciliation stopped after {} updates: gateway error {}", updated,
+                        e.getMessage());
+                break;
+            }
+            updated += settle(ids, transactionIds, statuses);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        if (updated > 0) {
+            logger.info("Payment reconciliation settled {} pending payments", updated);
+        }
+        return updated;
+    }
+
+    private int settle(List<Long> ids, List<String> transactionIds, Map<String, String> statuses) {
+        List<Object[]> updates = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String status = PaymentWebhookService.normalizeStatus(statuses.get(transactionIds.get(i)));
+            if (status != null && !status.equals(PaymentWebhookService.PENDING)) {
+                updates.add(new Object[] { status, ids.get(i) });
+            }
+        }
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, updates));
+        int updated = 0;
+        for (int count : counts) {
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+}
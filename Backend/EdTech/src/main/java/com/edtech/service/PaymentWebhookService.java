@@ -0,0 +1,391 @@
+package com.edtech.service;
+
+import com.edtech.dto.PaymentEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Intake for payment gateway callbacks. Each callback is authenticated with
+ * an HMAC of the body, dropped if the same transaction and status was seen
+ * recently, and otherwise handed to a single writer thread that upserts
+ * whatever has queued up with one JDBC batch. The callback is only
+ * acknowledged once the batch holding its event has committed; if the write
+ * fails or takes too long the event is forgotten and the gateway is asked to
+ * redeliver, so an acknowledged event is never lost. Under load, callbacks
+ * arriving while a batch is being written share the next one. Gateways
+ * deliver at least once and retry in bursts, so replays are answered from
+ * memory without touching the database. A replay that arrives while the
+ * original is still being written waits for that write and gets its answer,
+ * so it is never acknowledged ahead of a write that then fails.
+ *
+ * <p>The recent-id set only covers this instance and its recent past. The
+ * unique index on {@code transaction_id} makes the write itself idempotent,
+ * and status only moves forward (PENDING to SUCCEEDED or FAILED, SUCCEEDED to
+ * REFUNDED), so a duplicate or out-of-order event that reaches the database
+ * changes nothing. Payments moved to {@code payments_archive} are settled:
+ * events for them are applied to the archived row and never re-create a live
+ * one.
+ */
+@Service
+public class PaymentWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookService.class);
+
+    public static final String PENDING = "PENDING";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+    public static final String REFUNDED = "REFUNDED";
+
+    private static final List<String> STATUSES = List.of(PENDING, SUCCEEDED, FAILED, REFUNDED);
+
+    // Only forward transitions are applied; "status" is the stored value and the last two parameters repeat the
+    // incoming one: VALUES() is deprecated on MySQL 8.0.20+ and the row alias that replaces it is not
+    // understood by H2
+    private static final String UPSERT_SQL = "INSERT INTO payments "
+            + "(user_id, amount, status, transaction_id, payment_method, created_at) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE status = CASE "
+            + "WHEN status = 'PENDING' OR (status = 'SUCCEEDED' AND ? = 'REFUNDED') "
+            + "THEN ? ELSE status END";
+
+    /** A queued event and the completion its callback waits on: true once committed, false if it failed. */
+    private static final class PendingEvent {
+        final PaymentEvent event;
+        final CompletableFuture<Boolean> written = new CompletableFuture<>();
+
+        PendingEvent(PaymentEvent event) {
+            this.event = event;
+        }
+    }
+
+    // Locking read, so an archive batch moving one of these payments either commits first or waits for this write
+    private static final String ARCHIVED_SQL = "SELECT transaction_id FROM payments_archive "
+            + "WHERE transaction_id IN (:ids) FOR UPDATE";
+
+    // Archived payments are never pending, so a refund is the only transition left
+    private static final String REFUND_ARCHIVED_SQL = "UPDATE payments_archive SET status = 'REFUNDED' "
+            + "WHERE transaction_id IN (:ids) AND status = 'SUCCEEDED'";
+
+    public enum Outcome {
+        ACCEPTED,
+        DUPLICATE,
+        INVALID_SIGNATURE,
+        INVALID_PAYLOAD,
+        BUSY
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final byte[] secret;
+    // Completion of the write that recorded each recent event; replays wait on it
+    private final Cache<String, CompletableFuture<Boolean>> recentEvents;
+    private final BlockingQueue<PendingEvent> queue;
+    private final int batchSize;
+    private final long writeTimeoutMillis;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-webhook-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running = true;
+
+    private final Counter accepted;
+    private final Counter duplicates;
+    private final Counter rejected;
+    private final Counter written;
+    private final Counter failed;
+
+    public PaymentWebhookService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${payment.webhook.secret:}") String secret,
+            @Value("${payment.webhook.recent-ids:100000}") long recentIds,
+            @Value("${payment.webhook.recent-ttl:PT1H}") Duration recentTtl,
+            @Value("${payment.webhook.queue-capacity:10000}") int queueCapacity,
+            @Value("${payment.webhook.batch-size:500}") int batchSize,
+            @Value("${payment.webhook.write-timeout:PT5S}") Duration writeTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.secret = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        this.recentEvents = Caffeine.newBuilder()
+                .maximumSize(recentIds)
+                .expireAfterWrite(recentTtl)
+                .build();
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writeTimeoutMillis = writeTimeout.toMillis();
+        if (this.secret.length == 0) {
+            logger.warn("payment.webhook.secret is not set; payment callbacks will be rejected");
+        }
+
+        Gauge.builder("payment.webhook.queued", queue, BlockingQueue::size)
+                .description("Payment callbacks waiting to be written")
+                .register(meterRegistry);
+        this.accepted = Counter.builder("payment.webhook.events").tag("outcome", "accepted").register(meterRegistry);
+        this.duplicates = Counter.builder("payment.webhook.events").tag("outcome", "duplicate").register(meterRegistry);
+        this.rejected = Counter.builder("payment.webhook.events").tag("outcome", "rejected").register(meterRegistry);
+        this.written = Counter.builder("payment.webhook.written").register(meterRegistry);
+        this.failed = Counter.builder("payment.webhook.failed")
+                .description("Callbacks not written in time; the gateway is asked to redeliver them")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.execute(this::runWriter);
+    }
+
+    /**
+     * Authenticates, validates and records one callback, returning
+     * {@link Outcome#ACCEPTED} only once its event is committed.
+     * {@code signature} is the hex HMAC-SHA256 of the raw body under the
+     * shared secret.
+     */
+    public Outcome ingest(byte[] body, String signature) {
+        if (!signatureMatches(body, signature)) {
+            rejected.increment();
+            return Outcome.INVALID_SIGNATURE;
+        }
+        PaymentEvent event;
+        try {
+            event = objectMapper.readValue(body, PaymentEvent.class);
+        } catch (IOException e) {
+            rejected.increment();
+            return Outcome.INVALID_PAYLOAD;
+        }
+        String status = normalizeStatus(event.getStatus());
+        if (event.getTransactionId() == null || event.getTransactionId().isBlank()
+                || event.getTransactionId().length() > 255 || status == null || event.getAmount() == null) {
+            rejected.increment();
+            return Outcome.INVALID_PAYLOAD;
+        }
+        event.setStatus(status);
+
+        String key = event.getTransactionId() + '|' + status;
+        PendingEvent pending = new PendingEvent(event);
+        CompletableFuture<Boolean> original = recentEvents.asMap().putIfAbsent(key, pending.written);
+        if (original != null) {
+            // Only acknowledged once the original is committed; if it fails, both callers are asked to redeliver
+            if (!awaitWrite(original)) {
+                failed.increment();
+                return Outcome.BUSY;
+            }
+            duplicates.increment();
+            return Outcome.DUPLICATE;
+        }
+        if (!running || !queue.offer(pending)) {
+            // Not remembered, so the gateway's retry is accepted once there is room
+            recentEvents.asMap().remove(key, pending.written);
+            pending.written.complete(false);
+            rejected.increment();
+            return Outcome.BUSY;
+        }
+        if (!awaitWrite(pending.written)) {
+            // Not remembered either: the redelivery is written again, which the upsert makes harmless
+            recentEvents.asMap().remove(key, pending.written);
+            failed.increment();
+            return Outcome.BUSY;
+        }
+        accepted.increment();
+        return Outcome.ACCEPTED;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Stops taking callbacks and writes what is queued, so callbacks still
+     * waiting get their answer.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(writeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    private boolean awaitWrite(CompletableFuture<Boolean> written) {
+        try {
+            return written.get(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Takes whatever queued up while the previous batch was being written, up to batchSize
+    private void runWriter() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Payment callback writer failed", e);
+                batch.forEach(pending -> pending.written.complete(false));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Upper-cased status if it is one the pipeline knows, otherwise null. */
+    static String normalizeStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        String normalized = status.trim().toUpperCase(Locale.ROOT);
+        return STATUSES.contains(normalized) ? normalized : null;
+    }
+
+    // Position in the payment lifecycle: pending, settled (succeeded or failed), refunded
+    private static int stage(String status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case REFUNDED -> 2;
+            default -> 1;
+        };
+    }
+
+    private boolean signatureMatches(byte[] body, String signature) {
+        if (secret.length == 0 || signature == null || body == null) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            byte[] expected = mac.doFinal(body);
+            byte[] given = HexFormat.of().parseHex(signature.trim().toLowerCase(Locale.ROOT));
+            return MessageDigest.isEqual(expected, given);
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    // Sorted by transaction and status order, so events for one payment apply in sequence and rows lock in a fixed order
+    private void write(List<PendingEvent> events) {
+        List<PendingEvent> batch = new ArrayList<>(events);
+        batch.sort(Comparator.comparing((PendingEvent pending) -> pending.event.getTransactionId())
+                .thenComparingInt(pending -> stage(pending.event.getStatus())));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<String> transactionIds = batch.stream()
+                        .map(pending -> pending.event.getTransactionId())
+                        .distinct()
+                        .toList();
+                Set<String> archived = new HashSet<>(namedJdbcTemplate.queryForList(ARCHIVED_SQL,
+                        Map.of("ids", transactionIds), String.class));
+                List<PendingEvent> live = new ArrayList<>(batch.size());
+                List<String> archivedRefunds = new ArrayList<>();
+                for (PendingEvent pending : batch) {
+                    if (!archived.contains(pending.event.getTransactionId())) {
+                        live.add(pending);
+                    } else if (REFUNDED.equals(pending.event.getStatus())) {
+                        archivedRefunds.add(pending.event.getTransactionId());
+                    }
+                }
+                if (!archivedRefunds.isEmpty()) {
+                    namedJdbcTemplate.update(REFUND_ARCHIVED_SQL, Map.of("ids", archivedRefunds));
+                }
+                if (live.isEmpty()) {
+                    return;
+                }
+                jdbcTemplate.batchUpdate(UPSERT_SQL, live, live.size(), (ps, pending) -> {
+                    PaymentEvent event = pending.event;
+                    if (event.getUserId() == null) {
+                        ps.setNull(1, Types.BIGINT);
+                    } else {
+                        ps.setLong(1, event.getUserId());
+                    }
+                    ps.setBigDecimal(2, event.getAmount());
+                    ps.setString(3, event.getStatus());
+                    ps.setString(4, event.getTransactionId());
+                    ps.setString(5, event.getPaymentMethod());
+                    ps.setTimestamp(6, now);
+                    ps.setString(7, event.getStatus());
+                    ps.setString(8, event.getStatus());
+                });
+            });
+            written.increment(batch.size());
+            batch.forEach(pending -> pending.written.complete(true));
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                logger.error("Payment callback for transaction {} could not be written, asking for redelivery: {}",
+                        batch.get(0).event.getTransactionId(), e.getMessage());
+                batch.get(0).written.complete(false);
+                return;
+            }
+            logger.warn("Batch of {} payment callbacks failed, retrying one at a time: {}", batch.size(),
+                    e.getMessage());
+            for (PendingEvent pending : batch) {
+                write(List.of(pending));
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.edtech.service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * 64-bit perceptual hash (pHash) of an image: the picture is reduced to a
+ * 32x32 grid of mean luminances, and each bit records whether one of the
+ * 8x8 lowest-frequency DCT coefficients of that grid is above their median.
+ * Low frequencies describe the layout of the page rather than its pixels,
+ * so the hash barely moves with resolution, compression, brightness or a
+ * slight tilt, and two photos of the same page land a few bits apart.
+ *
+ * <p>For the same reason pages that share a layout can land a few bits
+ * apart too, so the hash comes with a second, independent signal: the
+ * grid itself merged into {@value #PROFILE_COLUMNS} columns, which follows
+ * how far each line of text runs (see {@link #correlation}).
+ */
+final class PerceptualHash {
+
+    /** Hash and line profile of one image. */
+    static final class Fingerprint {
+        final long hash;
+        // GRID rows of PROFILE_COLUMNS mean luminances; luminance is 0-255, so a byte per cell
+        final byte[] profile;
+
+        Fingerprint(long hash, byte[] profile) {
+            this.hash = hash;
+            this.profile = profile;
+        }
+    }
+
+    private static final int GRID = 32;
+    private static final int FREQUENCIES = 8;
+    private static final int PROFILE_COLUMNS = 8;
+    // The image is decoded subsampled to about this many pixels on its long side. Much smaller and the
+    // skipped pixels alias thin text strokes enough to move the hash of the same page by several bits.
+    private static final int DECODE_SIZE = 1024;
+
+    // COSINES[u][x] = cos((2x + 1) u pi / 2N), the DCT-II basis
+    private static final double[][] COSINES = new double[FREQUENCIES][GRID];
+
+    static {
+        for (int u = 0; u < FREQUENCIES; u++) {
+            for (int x = 0; x < GRID; x++) {
+                COSINES[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2 * GRID));
+            }
+        }
+    }
+
+    private PerceptualHash() {
+    }
+
+    /** Fingerprint of the image file, or null if no installed reader can decode it. */
+    static Fingerprint of(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / DECODE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return of(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static Fingerprint of(BufferedImage image) {
+        double[] luminance = luminanceGrid(image);
+        return new Fingerprint(hash(luminance), profile(luminance));
+    }
+
+    private static long hash(double[] luminance) {
+        // Top-left 8x8 block of the 2-D DCT, without the DC term (the mean brightness)
+        double[] coefficients = new double[FREQUENCIES * FREQUENCIES - 1];
+        int i = 0;
+        for (int u = 0; u < FREQUENCIES; u++) {
+            for (int v = 0; v < FREQUENCIES; v++) {
+                if (u == 0 && v == 0) {
+                    continue;
+                }
+                double sum = 0;
+                for (int y = 0; y < GRID; y++) {
+                    double row = 0;
+                    for (int x = 0; x < GRID; x++) {
+                        row += luminance[y * GRID + x] * COSINES[v][x];
+                    }
+                    sum += row * COSINES[u][y];
+                }
+                coefficients[i++] = sum;
+            }
+        }
+
+        double[] sorted = coefficients.clone();
+        Arrays.sort(sorted);
+        double median = sorted[sorted.length / 2];
+        long hash = 0;
+        for (i = 0; i < coefficients.length; i++) {
+            if (coefficients[i] > median) {
+                hash |= 1L << i;
+            }
+        }
+        return hash;
+    }
+
+    static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * Pearson correlation of two line profiles, from -1 to 1. Retakes of a
+     * page tilted by up to about 1.5 degrees measured above 0.95; different
+     * pages with the same layout, among those within a few hash bits of
+     * each other, at most about 0.91.
+     */
+    static double correlation(byte[] a, byte[] b) {
+        double meanA = 0;
+        double meanB = 0;
+        for (int i = 0; i < a.length; i++) {
+            meanA += a[i] & 0xFF;
+            meanB += b[i] & 0xFF;
+        }
+        meanA /= a.length;
+        meanB /= b.length;
+        double covariance = 0;
+        double varianceA = 0;
+        double varianceB = 0;
+        for (int i = 0; i < a.length; i++) {
+            double x = (a[i] & 0xFF) - meanA;
+            double y = (b[i] & 0xFF) - meanB;
+            covariance += x * y;
+            varianceA += x * x;
+            varianceB += y * y;
+        }
+        // A blank page has no profile to compare; NaN fails every threshold
+        return covariance / Math.sqrt(varianceA * varianceB);
+    }
+
+    // Each row of the grid averaged into PROFILE_COLUMNS wide cells. Wide cells tolerate a slight tilt, and
+    // the rows still tell where each line of text ends, which the hash's low frequencies mostly do not.
+    private static byte[] profile(double[] luminance) {
+        int width = GRID / PROFILE_COLUMNS;
+        byte[] profile = new byte[GRID * PROFILE_COLUMNS];
+        for (int y = 0; y < GRID; y++) {
+            for (int c = 0; c < PROFILE_COLUMNS; c++) {
+                double sum = 0;
+                for (int x = c * width; x < (c + 1) * width; x++) {
+                    sum += luminance[y * GRID + x];
+                }
+                profile[y * PROFILE_COLUMNS + c] = (byte) Math.round(sum / width);
+            }
+        }
+        return profile;
+    }
+
+    // Box-averaged luminance of a GRID x GRID grid over the image
+    private static double[] luminanceGrid(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] rgb = image.getRGB(0, 0, width, height, null, 0, width);
+        double[] sums = new double[GRID * GRID];
+        int[] counts = new int[GRID * GRID];
+        for (int y = 0; y < height; y++) {
+            int row = y * GRID / height;
+            for (int x = 0; x < width; x++) {
+                int pixel = rgb[y * width + x];
+                int cell = row * GRID + x * GRID / width;
+                sums[cell] += 0.299 * ((pixel >> 16) & 0xFF) + 0.587 * ((pixel >> 8) & 0xFF) + 0.114 * (pixel & 0xFF);
+                counts[cell]++;
+            }
+        }
+        for (int i = 0; i < sums.length; i++) {
+            // Images smaller than the grid leave some cells empty
+            sums[i] = counts[i] == 0 ? 0 : sums[i] / counts[i];
+        }
+        return sums;
+    }
+}
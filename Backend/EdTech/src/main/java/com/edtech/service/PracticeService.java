@@ -0,0 +1,429 @@
+package com.edtech.service;
+
+import com.edtech.dto.AnswerKey;
+import com.edtech.dto.DueQuestion;
+import com.edtech.dto.Question;
+import com.edtech.dto.ReviewRequest;
+import com.edtech.dto.ReviewResult;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.entity.User;
+import com.edtech.event.QuizAttemptsRecordedEvent;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.QuestionRepository;
+import com.edtech.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SM-2 spaced-repetition practice. Every user with review cards gets an
+ * in-memory queue ordered by due time, loaded from review_states the first
+ * time it is needed and evicted after a period of inactivity, so reading the
+ * next due questions is a walk over the head of a sorted set. Question
+ * content comes from the second-level cache.
+ *
+ * <p>Review outcomes update the queue immediately and are written behind:
+ * the latest state per user and question is kept in a pending map and
+ * upserted in batches. A queue loaded while writes are pending overlays
+ * them on what it reads, so eviction never loses an update. A state whose
+ * write fails stays pending and is retried on later flushes with exponential
+ * backoff, so reviews made during a database outage are written once it
+ * recovers; only a row the database refuses outright (its question was
+ * deleted, say) is dropped.
+ *
+ * <p>Questions answered wrongly in a quiz enter the user's queue as lapses;
+ * questions already in the queue and answered correctly count as a review.
+ */
+@Service
+public class PracticeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PracticeService.class);
+
+    // Grades used when a review is judged from an answer rather than self-assessed
+    static final int CORRECT_QUALITY = 4;
+    static final int INCORRECT_QUALITY = 1;
+
+    private static final String LOAD_SQL = "SELECT question_id, repetitions, interval_days, ease_factor, lapses, "
+            + "due_at, last_reviewed_at FROM review_states WHERE user_id = ?";
+
+    // The new values are bound a second time for the update: VALUES() is deprecated on MySQL 8.0.20+ and the
+    // row alias that replaces it is not understood by H2
+    private static final String UPSERT_SQL = "INSERT INTO review_states "
+            + "(user_id, question_id, repetitions, interval_days, ease_factor, lapses, due_at, last_reviewed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "repetitions = ?, interval_days = ?, ease_factor = ?, lapses = ?, due_at = ?, last_reviewed_at = ?";
+
+    /** Key of a pending write. */
+    private static final class Key {
+        final long userId;
+        final long questionId;
+
+        Key(long userId, long questionId) {
+            this.userId = userId;
+            this.questionId = questionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && other.userId == userId && other.questionId == questionId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, questionId);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final QuestionRepository questionRepository;
+    private final QuestionBankRepository questionBankRepository;
+    private final UserRepository userRepository;
+    private final AnswerKeyCache answerKeyCache;
+    private final QuizAttemptService quizAttemptService;
+    private final int maxDue;
+    private final int flushBatchSize;
+    private final long relearnDelayMillis;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+
+    private final LoadingCache<Long, UserReviewQueue> queues;
+    private final Cache<String, Long> userIds;
+    private final Map<Key, ReviewState> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Consecutive failed flushes and when the next may run; guarded by flushLock
+    private int failures;
+    private long retryAt;
+
+    public PracticeService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            QuestionRepository questionRepository, QuestionBankRepository questionBankRepository,
+            UserRepository userRepository, AnswerKeyCache answerKeyCache, QuizAttemptService quizAttemptService,
+            @Value("${practice.max-due:50}") int maxDue,
+            @Value("${practice.relearn-delay:PT10M}") Duration relearnDelay,
+            @Value("${practice.idle-eviction:PT30M}") Duration idleEviction,
+            @Value("${practice.max-cached-users:50000}") long maxCachedUsers,
+            @Value("${practice.flush-batch-size:1000}") int flushBatchSize,
+            @Value("${practice.retry-backoff:PT1S}") Duration retryBackoff,
+            @Value("${practice.max-retry-backoff:PT1M}") Duration maxRetryBackoff) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.questionRepository = questionRepository;
+        this.questionBankRepository = questionBankRepository;
+        this.userRepository = userRepository;
+        this.answerKeyCache = answerKeyCache;
+        this.quizAttemptService = quizAttemptService;
+        this.maxDue = maxDue;
+        this.flushBatchSize = flushBatchSize;
+        this.relearnDelayMillis = relearnDelay.toMillis();
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.maxRetryBackoffNanos = Math.max(maxRetryBackoff.toNanos(), retryBackoffNanos);
+        this.queues = Caffeine.newBuilder()
+                .expireAfterAccess(idleEviction)
+                .maximumSize(maxCachedUsers)
+                .build(this::loadQueue);
+        this.userIds = Caffeine.newBuilder()
+                .expireAfterAccess(idleEviction)
+                .maximumSize(maxCachedUsers)
+                .build();
+    }
+
+    /**
+     * Questions due for review now, most overdue first, or empty if the user
+     * does not exist. Served from memory once the user's queue is loaded.
+     */
+    public Optional<List<DueQuestion>> getDue(String email, int limit) {
+        Optional<Long> userId = resolveUserId(email);
+        if (userId.isEmpty()) {
+            return Optional.empty();
+        }
+        UserReviewQueue queue = queues.get(userId.get());
+        List<ReviewState> due = queue.due(System.currentTimeMillis(), Math.max(1, Math.min(limit, maxDue)));
+
+        List<DueQuestion> questions = new ArrayList<>(due.size());
+        for (ReviewState state : due) {
+            Optional<QuestionEntity> entity = questionRepository.findById(state.questionId);
+            if (entity.isEmpty()) {
+                // Question was deleted; drop the card and its pending write
+                queue.remove(state.questionId);
+                pending.remove(new Key(state.userId, state.questionId));
+                continue;
+            }
+            Question question = QuestionBankService.toDto(entity.get());
+            question.setAnswer(null);
+            question.setExplanation(null);
+
+            DueQuestion dueQuestion = new DueQuestion();
+            dueQuestion.setQuestion(question);
+            dueQuestion.setQuestionBankId(entity.get().getQuestionBank() == null
+                    ? null : entity.get().getQuestionBank().getId());
+            dueQuestion.setDueAt(toLocalDateTime(state.dueAt));
+            dueQuestion.setRepetitions(state.repetitions);
+            dueQuestion.setLapses(state.lapses);
+            questions.add(dueQuestion);
+        }
+        return Optional.of(questions);
+    }
+
+    /**
+     * Records a review and schedules the next one. The quality is taken from
+     * the request or, when absent, derived by grading the answer. Only
+     * questions already in the user's review queue or from the user's own
+     * banks can be reviewed; returns empty for any other question, and if the
+     * user or question does not exist.
+     *
+     * @throws IllegalArgumentException if no quality is given and the
+     *         question type cannot be graded automatically
+     * @throws IllegalStateException if the question is part of one of the
+     *         user's unsubmitted quiz attempts, since the result carries its
+     *         answer
+     */
+    public Optional<ReviewResult> review(String email, ReviewRequest request) {
+        Optional<Long> userId = resolveUserId(email);
+        if (userId.isEmpty() || request.getQuestionId() == null) {
+            return Optional.empty();
+        }
+        Optional<QuestionEntity> question = questionRepository.findById(request.getQuestionId());
+        if (question.isEmpty() || question.get().getQuestionBank() == null
+                || !isStudying(userId.get(), question.get())) {
+            return Optional.empty();
+        }
+        if (quizAttemptService.isInActiveAttempt(userId.get(), request.getQuestionId())) {
+            throw new IllegalStateException("This question is part of an unsubmitted quiz attempt");
+        }
+
+        AnswerKey key = answerKeyCache.forBank(question.get().getQuestionBank().getId()).get(request.getQuestionId());
+        Boolean correct = null;
+        int quality;
+        if (request.getQuality() != null) {
+            quality = request.getQuality();
+            if (quality < 0 || quality > 5) {
+                throw new IllegalArgumentException("quality must be between 0 and 5");
+            }
+        } else {
+            correct = key == null ? null : QuizAttemptService.grade(key, request.getAnswer());
+            if (correct == null) {
+                throw new IllegalArgumentException("This question is not auto-graded; send a quality from 0 to 5");
+            }
+            quality = correct ? CORRECT_QUALITY : INCORRECT_QUALITY;
+        }
+
+        ReviewState next = apply(userId.get(), request.getQuestionId(), quality, System.currentTimeMillis(), true);
+
+        ReviewResult result = new ReviewResult();
+        result.setQuestionId(request.getQuestionId());
+        result.setCorrect(correct);
+        result.setQuality(quality);
+        if (key != null) {
+            result.setCorrectAnswer(key.getAnswer());
+            result.setExplanation(key.getExplanation());
+        }
+        result.setIntervalDays(next.intervalDays);
+        result.setEaseFactor(Math.round(next.easeFactor * 100) / 100.0);
+        result.setNextReviewAt(toLocalDateTime(next.dueAt));
+        return Optional.of(result);
+    }
+
+    @TransactionalEventListener
+    public void onAttemptsRecorded(QuizAttemptsRecordedEvent event) {
+        for (CompletedAttempt attempt : event.getAttempts()) {
+            long reviewedAt = Timestamp.valueOf(attempt.getSubmittedAt()).getTime();
+            for (CompletedAttempt.GradedAnswer answer : attempt.getAnswers()) {
+                if (Boolean.FALSE.equals(answer.getCorrect())) {
+                    apply(attempt.getUserId(), answer.getQuestionId(), INCORRECT_QUALITY, reviewedAt, true);
+                } else if (Boolean.TRUE.equals(answer.getCorrect())) {
+                    apply(attempt.getUserId(), answer.getQuestionId(), CORRECT_QUALITY, reviewedAt, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes pending review states in batches. After a failed flush the next
+     * ones are skipped until the backoff has elapsed.
+     *
+     * @return number of states written
+     */
+    @Scheduled(fixedDelayString = "${practice.flush-interval-ms:1000}")
+    public int flush() {
+        return flush(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush(true);
+        if (!pending.isEmpty()) {
+            logger.error("{} review states could not be written before shutdown", pending.size());
+        }
+    }
+
+    private int flush(boolean ignoreBackoff) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        flushLock.lock();
+        int written = 0;
+        try {
+            if (!ignoreBackoff && failures > 0 && retryAt - System.nanoTime() > 0) {
+                return 0;
+            }
+            List<Map.Entry<Key, ReviewState>> snapshot = new ArrayList<>(pending.entrySet());
+            for (int from = 0; from < snapshot.size(); from += flushBatchSize) {
+                List<Map.Entry<Key, ReviewState>> batch =
+                        snapshot.subList(from, Math.min(from + flushBatchSize, snapshot.size()));
+                written += write(batch);
+            }
+            failures = 0;
+            return written;
+        } catch (DataAccessException e) {
+            // The rest of the pass would fail the same way; everything not written stays pending
+            failures++;
+            long backoff = retryBackoffNanos << Math.min(failures - 1, 20);
+            if (backoff < 0 || backoff > maxRetryBackoffNanos) {
+                backoff = maxRetryBackoffNanos;
+            }
+            retryAt = System.nanoTime() + backoff;
+            logger.warn("Writing review states failed (try {}), {} kept and retried in {} ms: {}", failures,
+                    pending.size(), TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Scheduled for the user, or from a bank the user owns
+    private boolean isStudying(long userId, QuestionEntity question) {
+        if (queues.get(userId).get(question.getId()) != null) {
+            return true;
+        }
+        // Banks come from the second-level cache; the owner is read from the bank's foreign key
+        User owner = questionBankRepository.findById(question.getQuestionBank().getId())
+                .map(QuestionBank::getUser)
+                .orElse(null);
+        return owner != null && owner.getId() != null && owner.getId() == userId;
+    }
+
+    // Drops a user's queue; the next read rebuilds it from the table and pending writes
+    void evict(long userId) {
+        queues.invalidate(userId);
+    }
+
+    private ReviewState apply(long userId, long questionId, int quality, long now, boolean createIfAbsent) {
+        UserReviewQueue queue = queues.get(userId);
+        synchronized (queue) {
+            ReviewState current = queue.get(questionId);
+            if (current == null) {
+                if (!createIfAbsent) {
+                    return null;
+                }
+                current = ReviewState.initial(userId, questionId, now);
+            }
+            ReviewState next = current.review(quality, now, relearnDelayMillis);
+            queue.put(next);
+            pending.put(new Key(userId, questionId), next);
+            return next;
+        }
+    }
+
+    // Rows leave the pending map only once committed, and only if no newer review replaced them meanwhile.
+    // A single row that fails for any reason but a constraint violation throws, ending the flush.
+    private int write(List<Map.Entry<Key, ReviewState>> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                        ReviewState state = entry.getValue();
+                        ps.setLong(1, state.userId);
+                        ps.setLong(2, state.questionId);
+                        for (int offset : new int[] {0, 6}) {
+                            ps.setInt(3 + offset, state.repetitions);
+                            ps.setInt(4 + offset, state.intervalDays);
+                            ps.setDouble(5 + offset, state.easeFactor);
+                            ps.setInt(6 + offset, state.lapses);
+                            ps.setTimestamp(7 + offset, new Timestamp(state.dueAt));
+                            if (state.lastReviewedAt == 0) {
+                                ps.setNull(8 + offset, Types.TIMESTAMP);
+                            } else {
+                                ps.setTimestamp(8 + offset, new Timestamp(state.lastReviewedAt));
+                            }
+                        }
+                    }));
+            for (Map.Entry<Key, ReviewState> entry : batch) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+            return batch.size();
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                if (!(e instanceof DataIntegrityViolationException)) {
+                    throw e;
+                }
+                Map.Entry<Key, ReviewState> entry = batch.get(0);
+                logger.error("Dropping review state for user {} question {}: {}", entry.getKey().userId,
+                        entry.getKey().questionId, e.getMessage());
+                pending.remove(entry.getKey(), entry.getValue());
+                return 0;
+            }
+            logger.warn("Batch of {} review states failed, retrying one at a time: {}", batch.size(), e.getMessage());
+            int written = 0;
+            for (Map.Entry<Key, ReviewState> entry : batch) {
+                written += write(List.of(entry));
+            }
+            return written;
+        }
+    }
+
+    private UserReviewQueue loadQueue(Long userId) {
+        UserReviewQueue queue = new UserReviewQueue();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            Timestamp lastReviewed = rs.getTimestamp(7);
+            queue.put(new ReviewState(userId, rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getDouble(4),
+                    rs.getInt(5), rs.getTimestamp(6).getTime(), lastReviewed == null ? 0 : lastReviewed.getTime()));
+        }, userId);
+        for (ReviewState state : pending.values()) {
+            if (state.userId == userId) {
+                queue.put(state);
+            }
+        }
+        return queue;
+    }
+
+    private Optional<Long> resolveUserId(String email) {
+        Long cached = userIds.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> userId = userRepository.findIdByEmail(email);
+        userId.ifPresent(id -> userIds.put(email, id));
+        return userId;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,127 @@
+package com.edtech.service;
+
+import com.edtech.dto.Question;
+import com.edtech.dto.QuestionBankDetail;
+import com.edtech.dto.QuestionBankSummary;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class QuestionBankService {
+
+    private final QuestionBankRepository questionBankRepository;
+    private final UserRepository userRepository;
+
+    public QuestionBankService(QuestionBankRepository questionBankRepository, UserRepository userRepository) {
+        this.questionBankRepository = questionBankRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuestionBankSummary> listBanks(String email) {
+        return userRepository.findIdByEmail(email)
+                .map(questionBankRepository::findSummariesByUserId)
+                .orElseGet(ArrayList::new);
+    }
+
+    /**
+     * Loads a bank with all of its questions, or empty if the bank does not
+     * exist or belongs to another user.
+     */
+    @Transactional(readOnly = true)
+    public Optional<QuestionBankDetail> getBank(Long bankId, String email) {
+        Optional<Long> userId = userRepository.findIdByEmail(email);
+        if (userId.isEmpty()) {
+            return Optional.empty();
+        }
+        return questionBankRepository.findWithQuestionsById(bankId)
+                .filter(bank -> isOwnedBy(bank, userId.get()))
+                .map(this::toDetail);
+    }
+
+    /**
+     * Creates an empty bank owned by the given user, or empty if the user does not exist.
+     */
+    @Transactional
+    public Optional<QuestionBank> createBank(String email, String name, String subject, String difficulty) {
+        Optional<Long> userId = userRepository.findIdByEmail(email);
+        if (userId.isEmpty()) {
+            return Optional.empty();
+        }
+        QuestionBank bank = new QuestionBank();
+        bank.setName(name);
+        bank.setSubject(subject);
+        bank.setDifficulty(difficulty);
+        bank.setUser(userRepository.getReferenceById(userId.get()));
+        return Optional.of(questionBankRepository.save(bank));
+    }
+
+    /**
+     * Deletes a bank that has no questions, such as one created for an
+     * import that did not import any. Returns false if the bank has questions.
+     */
+    @Transactional
+    public boolean deleteEmptyBank(Long bankId) {
+        if (questionBankRepository.countQuestionsById(bankId) > 0) {
+            return false;
+        }
+        questionBankRepository.deleteById(bankId);
+        return true;
+    }
+
+    /**
+     * Returns the bank if it exists and belongs to the given user.
+     */
+    @Transactional(readOnly = true)
+    public Optional<QuestionBank> findOwnedBank(Long bankId, String email) {
+        Optional<Long> userId = userRepository.findIdByEmail(email);
+        if (userId.isEmpty()) {
+            return Optional.empty();
+        }
+        return questionBankRepository.findById(bankId)
+                .filter(bank -> isOwnedBy(bank, userId.get()));
+    }
+
+    boolean isOwnedBy(QuestionBank bank, Long userId) {
+        // getUser().getId() is answered from the lazy proxy without loading the user
+        return bank.getUser() != null && userId.equals(bank.getUser().getId());
+    }
+
+    private QuestionBankDetail toDetail(QuestionBank bank) {
+        QuestionBankDetail detail = new QuestionBankDetail();
+        detail.setId(bank.getId());
+        detail.setName(bank.getName());
+        detail.setSubject(bank.getSubject());
+        detail.setDifficulty(bank.getDifficulty());
+        detail.setCreatedAt(bank.getCreatedAt());
+
+        List<Question> questions = new ArrayList<>();
+        if (bank.getQuestions() != null) {
+            for (QuestionEntity entity : bank.getQuestions()) {
+                questions.add(toDto(entity));
+            }
+        }
+        detail.setQuestions(questions);
+        return detail;
+    }
+
+    public static Question toDto(QuestionEntity entity) {
+        Question question = new Question();
+        question.setId(String.valueOf(entity.getId()));
+        question.setType(entity.getType());
+        question.setQuestion(entity.getQuestionText());
+        question.setOptions(entity.getOptions());
+        question.setAnswer(entity.getAnswer());
+        question.setExplanation(entity.getExplanation());
+        question.setDifficulty(entity.getDifficulty());
+        return question;
+    }
+}
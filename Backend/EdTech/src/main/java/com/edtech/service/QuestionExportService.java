@@ -0,0 +1,161 @@
+package com.edtech.service;
+
+import com.edtech.dto.Question;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.repository.QuestionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes a question bank to an output stream row by row. Each entity is
+ * detached once written, so memory use does not grow with the bank size.
+ */
+@Service
+public class QuestionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionExportService.class);
+
+    static final String[] CSV_HEADER = { "id", "type", "question", "options", "answer", "explanation", "difficulty" };
+
+    private static final int FLUSH_EVERY = QuestionRepository.EXPORT_FETCH_SIZE;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+    }
+
+    private final QuestionRepository questionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public QuestionExportService(QuestionRepository questionRepository, EntityManager entityManager) {
+        this.questionRepository = questionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Flushing is batched by export() rather than done after every row
+        this.objectMapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Streams every question of the bank to {@code out}. The caller is
+     * responsible for checking ownership and for closing the stream.
+     *
+     * @return number of questions written
+     */
+    @Transactional(readOnly = true)
+    public long export(Long bankId, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.setRootValueSeparator(null);
+        } else {
+            writeCsvRow(writer, CSV_HEADER);
+        }
+        long written = 0;
+
+        try (Stream<QuestionEntity> rows = questionRepository.streamByQuestionBankId(bankId)) {
+            Iterator<QuestionEntity> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                QuestionEntity entity = iterator.next();
+                Question question = QuestionBankService.toDto(entity);
+                entityManager.detach(entity);
+
+                if (json != null) {
+                    objectMapper.writeValue(json, question);
+                    json.writeRaw('\n');
+                } else {
+                    writeCsvRow(writer, toCsvCells(question));
+                }
+
+                if (++written % FLUSH_EVERY == 0) {
+                    flush(json, writer);
+                }
+            }
+        }
+        flush(json, writer);
+
+        logger.info("Exported {} questions from bank {} as {}", written, bankId, format);
+        return written;
+    }
+
+    private static void flush(JsonGenerator json, Writer writer) throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private String[] toCsvCells(Question question) throws IOException {
+        List<String> options = question.getOptions();
+        return new String[] {
+                question.getId(),
+                question.getType(),
+                question.getQuestion(),
+                options == null ? null : objectMapper.writeValueAsString(options),
+                question.getAnswer(),
+                question.getExplanation(),
+                question.getDifficulty()
+        };
+    }
+
+    private static void writeCsvRow(Writer writer, String[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvCell(writer, cells[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote cells containing separators, quotes or line breaks and double embedded quotes
+    private static void writeCsvCell(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -7,7 +7,6 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +28,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -36,12 +36,6 @@ public class QuestionGenerationService {
 
     private static final Logger logger = LoggerFactory.getLogger(QuestionGenerationService.class);
 
-    @Value("${tesseract.data.path}")
-    private String tesseractDataPath;
-
-    @Value("${tesseract.language}")
-    private String tesseractLanguage;
-
     @Value("${llm.api.url}")
     private String llmApiUrl;
 
@@ -52,35 +46,88 @@ public class QuestionGenerationService {
     private String llmModel;
 
     private final RestTemplate restTemplate;
+    private final OcrService ocrService;
+    private final GenerationMetrics metrics;
+    private final PayloadLogger payloadLogger;
+    private final GenerationResultStore resultStore;
+    private final OcrReuseIndex ocrReuse;
     private final ObjectMapper objectMapper;
 
-    public QuestionGenerationService(RestTemplate restTemplate) {
+    public QuestionGenerationService(RestTemplate restTemplate, OcrService ocrService, GenerationMetrics metrics,
+            PayloadLogger payloadLogger, GenerationResultStore resultStore, OcrReuseIndex ocrReuse) {
         this.restTemplate = restTemplate;
+        this.ocrService = ocrService;
+        this.metrics = metrics;
+        this.payloadLogger = payloadLogger;
+        this.resultStore = resultStore;
+        this.ocrReuse = ocrReuse;
         this.objectMapper = new ObjectMapper();
     }
 
     public GenerateResponse generateQuestions(GenerateRequest request) {
+        long start = System.nanoTime();
+        GenerateResponse response;
         try {
             // Step 1: Extract text from image using OCR
             String extractedText = extractTextFromImage(request.getImage());
 
-            if (extractedText == null || extractedText.trim().isEmpty()) {
-                return new GenerateResponse(new ArrayList<>(), "error", "Failed to extract text from image");
-            }
-
             // Step 2: Generate questions using LLM API
-            List<Question> questions = generateQuestionsFromText(
-                    extractedText,
-                    request.getSubject(),
-                    request.getDifficulty(),
-                    request.getQuestionCount());
+            response = generateFromExtractedText(extractedText, request.getSubject(), request.getDifficulty(),
+                    request.getQuestionCount(), true);
 
-            return new GenerateResponse(questions, "success", "Questions generated successfully");
+        } catch (Exception e) {
+            logger.error("Error generating questions: ", e);
+            response = new GenerateResponse(new ArrayList<>(), "error",
+                    "Failed to generate questions: " + e.getMessage());
+        }
+        metrics.recordStage("total", start, "success".equals(response.getStatus()));
+        return response;
+    }
+
+    /**
+     * Same as {@link #generateQuestions(GenerateRequest)} for an image that
+     * arrived through the streaming upload path and is already on disk.
+     */
+    public GenerateResponse generateQuestions(ImageUpload image, String subject, String difficulty,
+            Integer questionCount) {
+        return generateQuestions(image, subject, difficulty, questionCount, true);
+    }
+
+    /**
+     * Same as {@link #generateQuestions(ImageUpload, String, String, Integer)};
+     * without {@code mockOnFailure} a failed or unparseable LLM call is
+     * reported as an error instead of being answered with mock questions, so
+     * that queued jobs can retry it.
+     */
+    public GenerateResponse generateQuestions(ImageUpload image, String subject, String difficulty,
+            Integer questionCount, boolean mockOnFailure) {
+        long start = System.nanoTime();
+        GenerateResponse response;
+        try {
+            logger.debug("OCR on {} upload {} ({} bytes, {}x{})", image.getFormat(), image.getSha256(),
+                    image.getSize(), image.getWidth(), image.getHeight());
+            String extractedText = ocrOrReuse(image.getPath());
+            response = generateFromExtractedText(extractedText, subject, difficulty, questionCount, mockOnFailure);
 
         } catch (Exception e) {
             logger.error("Error generating questions: ", e);
-            return new GenerateResponse(new ArrayList<>(), "error", "Failed to generate questions: " + e.getMessage());
+            response = new GenerateResponse(new ArrayList<>(), "error",
+                    "Failed to generate questions: " + e.getMessage());
+        }
+        metrics.recordStage("total", start, "success".equals(response.getStatus()));
+        return response;
+    }
+
+    private GenerateResponse generateFromExtractedText(String extractedText, String subject, String difficulty,
+            Integer questionCount, boolean mockOnFailure) {
+        if (extractedText == null || extractedText.trim().isEmpty()) {
+            return new GenerateResponse(new ArrayList<>(), "error", "Failed to extract text from image");
         }
+
+        List<Question> questions = generateQuestionsFromText(extractedText, subject, difficulty, questionCount,
+                mockOnFailure);
+
+        return new GenerateResponse(questions, "success", "Questions generated successfully");
     }
 
     private String extractTextFromImage(MultipartFile imageFile) throws TesseractException, IOException {
@@ -93,18 +140,16 @@ public class QuestionGenerationService {
 
         try {
             // Copy uploaded file to temporary file
-            Files.copy(imageFile.getInputStream(), tempFile, StandardCopyOption.REPLACE_EXISTING);
-
-            // Configure Tesseract
-            Tesseract tesseract = new Tesseract();
-            tesseract.setDatapath(tesseractDataPath);
-            tesseract.setLanguage(tesseractLanguage);
-
-            // Extract text from image
-            String extractedText = tesseract.doOCR(tempFile.toFile());
-            logger.info("Extracted text: {}", extractedText);
+            long copyStart = System.nanoTime();
+            boolean copied = false;
+            try {
+                Files.copy(imageFile.getInputStream(), tempFile, StandardCopyOption.REPLACE_EXISTING);
+                copied = true;
+            } finally {
+                metrics.recordStage("upload_copy", copyStart, copied);
+            }
 
-            return extractedText;
+            return ocrOrReuse(tempFile);
 
         } finally {
             // Clean up temporary file
@@ -116,14 +161,71 @@ public class QuestionGenerationService {
         }
     }
 
+    // Skips Tesseract when a near-identical image was read before on this node
+    private String ocrOrReuse(Path imageFile) throws TesseractException {
+        PerceptualHash.Fingerprint fingerprint = fingerprint(imageFile);
+        if (fingerprint != null) {
+            Optional<String> reused = ocrReuse.find(fingerprint);
+            metrics.recordOcrReuse(reused.isPresent() ? "hit" : "miss");
+            if (reused.isPresent()) {
+                return reused.get();
+            }
+        }
+        String text = ocr(imageFile);
+        if (fingerprint != null && text != null && !text.isBlank()) {
+            ocrReuse.add(fingerprint, text);
+        }
+        return text;
+    }
+
+    private PerceptualHash.Fingerprint fingerprint(Path imageFile) {
+        if (!ocrReuse.isEnabled()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            PerceptualHash.Fingerprint fingerprint = PerceptualHash.of(imageFile);
+            metrics.recordStage("image_hash", start, fingerprint != null);
+            return fingerprint;
+        } catch (IOException | RuntimeException e) {
+            metrics.recordStage("image_hash", start, false);
+            logger.warn("Could not hash {} for OCR reuse: {}", imageFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private String ocr(Path imageFile) throws TesseractException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            String text = ocrService.extractText(imageFile);
+            success = true;
+            return text;
+        } finally {
+            metrics.recordStage("ocr", start, success);
+        }
+    }
+
     private List<Question> generateQuestionsFromText(String extractedText, String subject,
-            String difficulty, Integer questionCount) {
+            String difficulty, Integer questionCount, boolean mockOnFailure) {
         try {
-            logger.info("Extracted text from image: {}", extractedText);
+            payloadLogger.ocrText(extractedText);
+
+            // Reuse an earlier generation for the same input, made on any node
+            long lookupStart = System.nanoTime();
+            String resultKey = GenerationResultStore.key(extractedText, subject, difficulty, questionCount, llmModel);
+            Optional<List<Question>> stored = resultStore.find(resultKey);
+            metrics.recordStage("result_lookup", lookupStart, true);
+            metrics.recordResultStore(stored.isPresent() ? "hit" : "miss");
+            if (stored.isPresent()) {
+                return stored.get();
+            }
 
             // Create prompt for LLM
+            long promptStart = System.nanoTime();
             String prompt = createPrompt(extractedText, subject, difficulty, questionCount);
-            logger.info("Generated prompt for LLM: {}", prompt);
+            metrics.recordStage("prompt_build", promptStart, true);
+            payloadLogger.prompt(prompt);
 
             // Validate API key first
             if (llmApiKey == null || llmApiKey.equals("your-api-key-here") || llmApiKey.trim().isEmpty()) {
@@ -133,16 +235,40 @@ public class QuestionGenerationService {
             }
 
             // Call LLM API
-            String llmResponse = callLlmApi(prompt);
-            logger.info("Received LLM response: {}", llmResponse);
+            long llmStart = System.nanoTime();
+            String llmResponse;
+            try {
+                llmResponse = callLlmApi(prompt);
+            } catch (RuntimeException e) {
+                metrics.recordStage("llm_call", llmStart, false);
+                throw e;
+            }
+            metrics.recordStage("llm_call", llmStart, true);
+            payloadLogger.llmResponse(llmResponse);
 
             // Parse LLM response to extract questions
-            return parseQuestionsFromLlmResponse(llmResponse);
+            long parseStart = System.nanoTime();
+            List<Question> questions = parseLlmResponse(llmResponse, null);
+            metrics.recordStage("parse", parseStart, true);
+            if (questions == null) {
+                if (!mockOnFailure) {
+                    throw new IllegalStateException("Unparseable response from LLM API");
+                }
+                return mockFallback("unparseable", 3);
+            }
+            if (!questions.isEmpty()) {
+                resultStore.save(resultKey, llmModel, subject, difficulty, questionCount, extractedText.length(),
+                        questions);
+            }
+            return questions;
 
         } catch (Exception e) {
+            if (!mockOnFailure) {
+                throw e;
+            }
             logger.error("Error calling LLM API - falling back to mock questions: ", e);
             // Return mock questions as fallback
-            return createMockQuestions(questionCount);
+            return mockFallback("llm_error", questionCount);
         }
     }
 
@@ -202,10 +328,14 @@ public class QuestionGenerationService {
                     String.class);
 
             logger.info("API response status: {}", response.getStatusCode());
-            logger.debug("API response body: {}", response.getBody());
 
             // Extract content from response
             JsonNode responseJson = objectMapper.readTree(response.getBody());
+            JsonNode usage = responseJson.path("usage");
+            if (usage.isObject()) {
+                metrics.recordTokens(llmModel, usage.path("prompt_tokens").asLong(),
+                        usage.path("completion_tokens").asLong());
+            }
             String content = responseJson.path("choices").get(0).path("message").path("content").asText();
 
             if (content.isEmpty()) {
@@ -222,6 +352,21 @@ public class QuestionGenerationService {
     }
 
     private List<Question> parseQuestionsFromLlmResponse(String llmResponse) {
+        List<Question> questions = parseLlmResponse(llmResponse, null);
+        return questions != null ? questions : mockFallback("unparseable", 3);
+    }
+
+    /**
+     * Parses an LLM response without recording metrics, so start-up warm-up
+     * can run the Jackson and regex paths until they are compiled.
+     */
+    List<Question> parseUnrecorded(String llmResponse) {
+        return metrics.unrecorded(() -> parseQuestionsFromLlmResponse(llmResponse));
+    }
+
+    // wrapper is set when parsing the array found inside a {"questions": [...]} style object;
+    // null when nothing usable could be parsed
+    private List<Question> parseLlmResponse(String llmResponse, String wrapper) {
         try {
             // Try to extract JSON from the response (handles arrays and numbered objects)
             String jsonResponse = extractJsonFromResponse(llmResponse);
@@ -231,10 +376,11 @@ public class QuestionGenerationService {
                 TypeReference<List<Question>> typeRef = new TypeReference<List<Question>>() {
                 };
                 List<Question> parsed = objectMapper.readValue(jsonResponse, typeRef);
-                return ensureIdsAndDefaults(parsed);
+                return parsed(wrapper, "direct", ensureIdsAndDefaults(parsed));
             } catch (com.fasterxml.jackson.databind.exc.MismatchedInputException mie) {
                 // Try more flexible parsing paths
-                logger.warn("LLM returned non-standard structure, attempting flexible parsing: {}", mie.getMessage());
+                // Routine for some models; generation.parse.strategy counts how often
+                logger.debug("LLM returned non-standard structure, attempting flexible parsing: {}", mie.getMessage());
 
                 JsonNode node = objectMapper.readTree(jsonResponse);
 
@@ -248,7 +394,7 @@ public class QuestionGenerationService {
                     else if (node.has("items"))
                         questionsNode = node.get("items");
                     if (questionsNode != null && questionsNode.isArray()) {
-                        return parseQuestionsFromLlmResponse(questionsNode.toString());
+                        return parseLlmResponse(questionsNode.toString(), "wrapper");
                     }
                 }
 
@@ -258,7 +404,7 @@ public class QuestionGenerationService {
                     for (JsonNode n : node) {
                         texts.add(n.asText());
                     }
-                    return mapStringsToQuestions(texts);
+                    return parsed(wrapper, "strings", mapStringsToQuestions(texts));
                 }
 
                 // Handle array of objects with different field names
@@ -266,7 +412,7 @@ public class QuestionGenerationService {
                     TypeReference<List<Map<String, Object>>> ref = new TypeReference<List<Map<String, Object>>>() {
                     };
                     List<Map<String, Object>> items = objectMapper.readValue(jsonResponse, ref);
-                    return mapGenericListToQuestions(items);
+                    return parsed(wrapper, "generic", mapGenericListToQuestions(items));
                 }
 
                 // If none matched, fall through to plain text parsing
@@ -278,17 +424,30 @@ public class QuestionGenerationService {
             // Try to parse plain text bullets/numbered lines
             List<Question> fallback = parsePlainTextToQuestions(llmResponse);
             if (!fallback.isEmpty())
-                return fallback;
-            return createMockQuestions(3);
+                return parsed(null, "plain_text", fallback);
+            return null;
         } catch (Exception e) {
             logger.error("Error extracting JSON from LLM response, attempting plain-text parsing: ", e);
             List<Question> fallback = parsePlainTextToQuestions(llmResponse);
             if (!fallback.isEmpty())
-                return fallback;
-            return createMockQuestions(3);
+                return parsed(null, "plain_text", fallback);
+            return null;
         }
     }
 
+    private List<Question> parsed(String wrapper, String strategy, List<Question> questions) {
+        metrics.recordParse(wrapper != null ? wrapper : strategy, questions.size());
+        return questions;
+    }
+
+    private List<Question> mockFallback(String reason, Integer questionCount) {
+        logger.warn("Serving mock questions ({})", reason);
+        List<Question> questions = createMockQuestions(questionCount);
+        metrics.recordFallback(reason);
+        metrics.recordParse("mock", questions.size());
+        return questions;
+    }
+
     private List<Question> ensureIdsAndDefaults(List<Question> questions) {
         if (questions == null)
             return new ArrayList<>();
@@ -494,13 +653,24 @@ public class QuestionGenerationService {
 
     public GenerateResponse generateQuestionsFromTextOnly(String text, String subject, String difficulty,
             Integer questionCount) {
+        return generateQuestionsFromTextOnly(text, subject, difficulty, questionCount, true);
+    }
+
+    /**
+     * Same as {@link #generateQuestionsFromTextOnly(String, String, String, Integer)},
+     * with the same {@code mockOnFailure} switch as
+     * {@link #generateQuestions(ImageUpload, String, String, Integer, boolean)}.
+     */
+    public GenerateResponse generateQuestionsFromTextOnly(String text, String subject, String difficulty,
+            Integer questionCount, boolean mockOnFailure) {
         try {
             if (text == null || text.trim().isEmpty()) {
                 return new GenerateResponse(new ArrayList<>(), "error", "Text content is required");
             }
 
             // Generate questions using LLM API
-            List<Question> questions = generateQuestionsFromText(text, subject, difficulty, questionCount);
+            List<Question> questions = generateQuestionsFromText(text, subject, difficulty, questionCount,
+                    mockOnFailure);
 
             return new GenerateResponse(questions, "success", "Questions generated successfully");
 
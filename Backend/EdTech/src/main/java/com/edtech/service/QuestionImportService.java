@@ -0,0 +1,368 @@
+package com.edtech.service;
+
+import com.edtech.dto.ImportResult;
+import com.edtech.entity.QuestionBank;
+import com.edtech.event.QuestionBankChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk-loads questions into a bank from CSV, NDJSON or JSON. Rows are parsed
+ * and validated one at a time and written with JDBC batch inserts, one
+ * transaction per chunk, so an upload of any size needs memory for one chunk.
+ * A failure rolls back the current chunk only; earlier chunks stay committed
+ * and are reported in {@link ImportResult#getRowsImported()}.
+ */
+@Service
+public class QuestionImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionImportService.class);
+
+    public enum Format {
+        CSV, NDJSON, JSON;
+
+        public static Optional<Format> fromContentType(String contentType) {
+            if (contentType == null) {
+                return Optional.empty();
+            }
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/csv")) {
+                return Optional.of(CSV);
+            }
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+                return Optional.of(NDJSON);
+            }
+            if (type.startsWith("application/json")) {
+                return Optional.of(JSON);
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static final Set<String> QUESTION_TYPES = Set.of("MCQ", "ONE_WORD", "PARAGRAPH");
+
+    // TEXT holds 65,535 bytes; 16,000 characters fits even at 4 bytes per character
+    private static final int MAX_TEXT_LENGTH = 16_000;
+
+    private static final int MAX_DIFFICULTY_LENGTH = 32;
+
+    private static final int MAX_TRACKED_IMPORTS = 200;
+
+    private static final String INSERT_SQL = "INSERT INTO questions "
+            + "(type, question_text, options, answer, explanation, difficulty, question_bank_id, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Value("${question-import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${question-import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${question-import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Value("${question-import.max-row-chars:100000}")
+    private int maxRowChars;
+
+    @Value("${question-import.max-bytes:104857600}")
+    private long maxBytes;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    // Recent imports by owner and id, so progress can be polled while an upload is still being read
+    private final Map<String, ImportResult> imports = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ImportResult> eldest) {
+                    return size() > MAX_TRACKED_IMPORTS;
+                }
+            });
+
+    public QuestionImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Imports into the bank. {@code importId} is chosen by the client, so
+     * progress is tracked per owner: the same id used by two users refers to
+     * two different imports.
+     */
+    public ImportResult importQuestions(String owner, String importId, Long bankId, Format format, InputStream in) {
+        ImportResult progress = new ImportResult();
+        progress.setImportId(importId != null && !importId.isBlank() ? importId : UUID.randomUUID().toString());
+        progress.setQuestionBankId(bankId);
+        progress.setStatus("RUNNING");
+        imports.put(progressKey(owner, progress.getImportId()), progress);
+
+        long start = System.nanoTime();
+        long read = 0;
+        long imported = 0;
+        List<ImportResult.RowError> errors = new ArrayList<>();
+        long rejected = 0;
+        List<Object[]> chunk = new ArrayList<>(chunkSize);
+
+        try (QuestionRowReaders.RowReader reader = QuestionRowReaders.open(format,
+                new BoundedInputStream(in, maxBytes), objectMapper, maxRowChars)) {
+            QuestionRowReaders.Row row;
+            while ((row = reader.next()) != null) {
+                read++;
+                String error = row.error != null ? row.error : validate(row);
+                if (error != null) {
+                    rejected++;
+                    if (errors.size() < maxReportedErrors) {
+                        errors.add(new ImportResult.RowError(row.rowNumber, error));
+                    }
+                    continue;
+                }
+                chunk.add(toParameters(row, bankId));
+
+                if (chunk.size() >= chunkSize) {
+                    imported += writeChunk(bankId, chunk);
+                    chunk.clear();
+                    publish(progress, read, imported, rejected, errors, start, "RUNNING", null);
+                    logger.info("Import {} into bank {}: {} rows read, {} imported, {} rejected",
+                            progress.getImportId(), bankId, read, imported, rejected);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                imported += writeChunk(bankId, chunk);
+            }
+            publish(progress, read, imported, rejected, errors, start, "COMPLETED", null);
+        } catch (IOException | DataAccessException e) {
+            logger.error("Import {} into bank {} failed after {} rows", progress.getImportId(), bankId, read, e);
+            publish(progress, read, imported, rejected, errors, start, "FAILED", e.getMessage());
+        }
+
+        logger.info("Import {} into bank {} {}: {} rows read, {} imported, {} rejected in {} ms ({} rows/s)",
+                progress.getImportId(), bankId, progress.getStatus(), read, imported, rejected,
+                progress.getElapsedMillis(), progress.getRowsPerSecond());
+        return snapshot(progress);
+    }
+
+    /** Largest request body accepted by {@link #importQuestions}, in bytes. */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /** Progress of one of the owner's recent imports. */
+    public Optional<ImportResult> getProgress(String owner, String importId) {
+        ImportResult progress = imports.get(progressKey(owner, importId));
+        return progress == null ? Optional.empty() : Optional.of(snapshot(progress));
+    }
+
+    private static String progressKey(String owner, String importId) {
+        return owner + "\n" + importId;
+    }
+
+    private int writeChunk(Long bankId, List<Object[]> chunk) {
+        Integer written = transactionTemplate.execute(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, chunk, batchSize, (ps, params) -> {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+            });
+            int total = 0;
+            for (int[] batch : counts) {
+                total += batch.length;
+            }
+            return total;
+        });
+        evictCachedQuestions(bankId);
+        eventPublisher.publishEvent(new QuestionBankChangedEvent(bankId));
+        return written == null ? 0 : written;
+    }
+
+    // JDBC writes bypass Hibernate, so drop the cached collection and query results for the bank
+    private void evictCachedQuestions(Long bankId) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictCollectionData(QuestionBank.class.getName() + ".questions", bankId);
+        cache.evictDefaultQueryRegion();
+    }
+
+    private Object[] toParameters(QuestionRowReaders.Row row, Long bankId) {
+        String options;
+        try {
+            options = row.options == null ? null : objectMapper.writeValueAsString(row.options);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize options", e);
+        }
+        return new Object[] {
+                row.type,
+                row.question,
+                options,
+                row.answer,
+                row.explanation,
+                row.difficulty,
+                bankId,
+                Timestamp.valueOf(LocalDateTime.now())
+        };
+    }
+
+    /**
+     * Normalizes the row in place and returns an error message, or null if
+     * the row can be imported.
+     */
+    private String validate(QuestionRowReaders.Row row) {
+        row.question = trimToNull(row.question);
+        row.answer = trimToNull(row.answer);
+        row.explanation = trimToNull(row.explanation);
+        row.difficulty = trimToNull(row.difficulty);
+        if (row.difficulty != null) {
+            row.difficulty = row.difficulty.toLowerCase(Locale.ROOT);
+            if (row.difficulty.length() > MAX_DIFFICULTY_LENGTH) {
+                return "Difficulty exceeds " + MAX_DIFFICULTY_LENGTH + " characters";
+            }
+        }
+
+        if (row.question == null) {
+            return "Question text is required";
+        }
+        if (row.question.length() > MAX_TEXT_LENGTH) {
+            return "Question text exceeds " + MAX_TEXT_LENGTH + " characters";
+        }
+        if ((row.answer != null && row.answer.length() > MAX_TEXT_LENGTH)
+                || (row.explanation != null && row.explanation.length() > MAX_TEXT_LENGTH)) {
+            return "Answer or explanation exceeds " + MAX_TEXT_LENGTH + " characters";
+        }
+
+        boolean hasOptions = row.options != null && !row.options.isEmpty();
+        String type = trimToNull(row.type);
+        if (type == null) {
+            type = hasOptions ? "MCQ" : "PARAGRAPH";
+        }
+        type = type.toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+        if (!QUESTION_TYPES.contains(type)) {
+            return "Unknown question type: " + row.type;
+        }
+        row.type = type;
+
+        if ("MCQ".equals(type)) {
+            if (!hasOptions || row.options.size() < 2) {
+                return "MCQ questions need at least two options";
+            }
+            if (row.answer == null) {
+                return "MCQ questions need an answer";
+            }
+            String answer = row.answer;
+            boolean answerIsOption = row.options.stream()
+                    .anyMatch(option -> option != null && option.trim().equalsIgnoreCase(answer));
+            if (!answerIsOption) {
+                return "MCQ answer must be one of the options";
+            }
+        } else {
+            row.options = null;
+            if ("ONE_WORD".equals(type) && row.answer == null) {
+                return "ONE_WORD questions need an answer";
+            }
+        }
+        return null;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static void publish(ImportResult progress, long read, long imported, long rejected,
+            List<ImportResult.RowError> errors, long startNanos, String status, String message) {
+        synchronized (progress) {
+            progress.setRowsRead(read);
+            progress.setRowsImported(imported);
+            progress.setRowsRejected(rejected);
+            progress.setErrors(new ArrayList<>(errors));
+            progress.setElapsedMillis((System.nanoTime() - startNanos) / 1_000_000);
+            progress.setStatus(status);
+            progress.setMessage(message);
+        }
+    }
+
+    private static ImportResult snapshot(ImportResult progress) {
+        synchronized (progress) {
+            ImportResult copy = new ImportResult();
+            copy.setImportId(progress.getImportId());
+            copy.setQuestionBankId(progress.getQuestionBankId());
+            copy.setStatus(progress.getStatus());
+            copy.setRowsRead(progress.getRowsRead());
+            copy.setRowsImported(progress.getRowsImported());
+            copy.setRowsRejected(progress.getRowsRejected());
+            copy.setElapsedMillis(progress.getElapsedMillis());
+            copy.setMessage(progress.getMessage());
+            copy.setErrors(new ArrayList<>(progress.getErrors()));
+            return copy;
+        }
+    }
+
+    // Fails the read once more than maxBytes have come through, for bodies without a Content-Length
+    private static final class BoundedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long count;
+
+        BoundedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                counted(n);
+            }
+            return n;
+        }
+
+        private void counted(int n) throws IOException {
+            count += n;
+            if (count > maxBytes) {
+                throw new IOException("Import body exceeds " + maxBytes + " bytes");
+            }
+        }
+    }
+}
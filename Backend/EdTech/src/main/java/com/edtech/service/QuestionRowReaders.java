@@ -0,0 +1,468 @@
+package com.edtech.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental readers for question import files. Each reader pulls one row at
+ * a time from the underlying stream, so only the current row is held in memory.
+ * A row longer than {@code maxRowChars} is skipped without being buffered and
+ * reported as a row error; in CSV that includes a quoted cell that is never
+ * closed, which runs to the end of the input.
+ */
+final class QuestionRowReaders {
+
+    private QuestionRowReaders() {
+    }
+
+    /** One parsed input row; {@code error} is set when the row could not be parsed. */
+    static final class Row {
+        long rowNumber;
+        String type;
+        String question;
+        List<String> options;
+        String answer;
+        String explanation;
+        String difficulty;
+        String error;
+    }
+
+    interface RowReader extends Closeable {
+        /** Returns the next row, or null at end of input. */
+        Row next() throws IOException;
+    }
+
+    static RowReader open(QuestionImportService.Format format, InputStream in, ObjectMapper objectMapper,
+            int maxRowChars) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        return switch (format) {
+            case CSV -> new CsvReader(reader, objectMapper, maxRowChars);
+            case NDJSON -> new NdjsonReader(reader, objectMapper, maxRowChars);
+            case JSON -> {
+                // A single string longer than a row cannot be skipped, so the parser refuses it outright
+                JsonFactory factory = objectMapper.getFactory().rebuild()
+                        .streamReadConstraints(StreamReadConstraints.builder().maxStringLength(maxRowChars).build())
+                        .build();
+                yield new JsonArrayReader(factory.createParser(reader), objectMapper, maxRowChars);
+            }
+        };
+    }
+
+    static String oversized(int maxRowChars) {
+        return "Row exceeds " + maxRowChars + " characters";
+    }
+
+    // ---- CSV ---------------------------------------------------------------
+
+    static final class CsvReader implements RowReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private final int maxRowChars;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private final StringBuilder cell = new StringBuilder();
+        private long rowNumber;
+        private boolean eof;
+        // Set by readRecord when the record it just skipped was longer than maxRowChars
+        private boolean oversized;
+
+        CsvReader(BufferedReader reader, ObjectMapper objectMapper, int maxRowChars) throws IOException {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+            this.maxRowChars = maxRowChars;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IOException("CSV input is empty");
+            }
+            if (oversized) {
+                throw new IOException("CSV header exceeds " + maxRowChars + " characters");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+                if (i == 0 && !name.isEmpty() && name.charAt(0) == '\uFEFF') {
+                    name = name.substring(1);
+                }
+                columns.putIfAbsent(name, i);
+            }
+            if (column("question", "question_text", "questiontext", "text") < 0) {
+                throw new IOException("CSV header must contain a 'question' column");
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+                rowNumber++;
+            } while (!oversized && record.size() == 1 && record.get(0).isBlank());
+
+            Row row = new Row();
+            row.rowNumber = rowNumber;
+            if (oversized) {
+                row.error = oversized(maxRowChars);
+                return row;
+            }
+            row.type = cell(record, "type", "question_type");
+            row.question = cell(record, "question", "question_text", "questiontext", "text");
+            row.answer = cell(record, "answer", "correct_answer", "correctanswer");
+            row.explanation = cell(record, "explanation", "rationale");
+            row.difficulty = cell(record, "difficulty", "level");
+            String options = cell(record, "options", "choices");
+            try {
+                row.options = parseOptions(options, objectMapper);
+            } catch (JsonProcessingException e) {
+                row.error = "Invalid options: " + e.getOriginalMessage();
+            }
+            return row;
+        }
+
+        private String cell(List<String> record, String... names) {
+            int index = column(names);
+            if (index < 0 || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        private int column(String... names) {
+            for (String name : names) {
+                Integer index = columns.get(name);
+                if (index != null) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        // RFC 4180 record: quoted cells may contain separators, doubled quotes and line breaks. Past
+        // maxRowChars the record is still scanned to its end, but its content is dropped.
+        private List<String> readRecord() throws IOException {
+            if (eof) {
+                return null;
+            }
+            List<String> record = new ArrayList<>();
+            cell.setLength(0);
+            oversized = false;
+            long chars = 0;
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (!oversized && ++chars > maxRowChars) {
+                    oversized = true;
+                    record.clear();
+                }
+                if (oversized) {
+                    cell.setLength(0);
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int nextChar = reader.read();
+                        if (nextChar == '"') {
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                            if (nextChar != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        cell.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    if (!oversized) {
+                        record.add(cell.toString());
+                    }
+                    cell.setLength(0);
+                } else if (c == '\n') {
+                    record.add(cell.toString());
+                    return record;
+                } else if (c != '\r') {
+                    cell.append((char) c);
+                }
+            }
+            eof = true;
+            if (!any) {
+                return null;
+            }
+            record.add(cell.toString());
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // ---- NDJSON ------------------------------------------------------------
+
+    static final class NdjsonReader implements RowReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private final int maxRowChars;
+        private final StringBuilder line = new StringBuilder();
+        private long rowNumber;
+        private boolean oversized;
+
+        NdjsonReader(BufferedReader reader, ObjectMapper objectMapper, int maxRowChars) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+            this.maxRowChars = maxRowChars;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = readLine();
+                if (line == null) {
+                    return null;
+                }
+                rowNumber++;
+            } while (!oversized && line.isBlank());
+
+            if (oversized) {
+                Row row = new Row();
+                row.rowNumber = rowNumber;
+                row.error = oversized(maxRowChars);
+                return row;
+            }
+            try {
+                return fromJson(objectMapper.readTree(line), rowNumber, objectMapper);
+            } catch (JsonProcessingException e) {
+                Row row = new Row();
+                row.rowNumber = rowNumber;
+                row.error = "Malformed JSON: " + e.getOriginalMessage();
+                return row;
+            }
+        }
+
+        // Like BufferedReader.readLine, but keeps at most maxRowChars of the line
+        private String readLine() throws IOException {
+            line.setLength(0);
+            oversized = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (c == '\n') {
+                    break;
+                }
+                if (line.length() < maxRowChars) {
+                    line.append((char) c);
+                } else {
+                    oversized = true;
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                end--;
+            }
+            return line.substring(0, end);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // ---- JSON array --------------------------------------------------------
+
+    /**
+     * Reads a top-level JSON array, or an object with a {@code questions}
+     * array, one element at a time. A syntax error cannot be resynchronised,
+     * so it ends the import, as does a string longer than a row. An element
+     * spanning more than a row's characters is skipped and reported.
+     */
+    static final class JsonArrayReader implements RowReader {
+        private final JsonParser parser;
+        private final ObjectMapper objectMapper;
+        private final int maxRowChars;
+        private long rowNumber;
+        private boolean started;
+
+        JsonArrayReader(JsonParser parser, ObjectMapper objectMapper, int maxRowChars) {
+            this.parser = parser;
+            this.objectMapper = objectMapper;
+            this.maxRowChars = maxRowChars;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (!started) {
+                started = true;
+                seekArray();
+            }
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            rowNumber++;
+
+            // Buffer the element's tokens while it is within maxRowChars, then only skip to its end
+            long start = parser.currentTokenLocation().getCharOffset();
+            TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+            boolean oversized = false;
+            int depth = 0;
+            while (true) {
+                if (!oversized && parser.currentLocation().getCharOffset() - start > maxRowChars) {
+                    oversized = true;
+                    buffer = null;
+                }
+                if (!oversized) {
+                    buffer.copyCurrentEvent(parser);
+                }
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+                if (depth == 0) {
+                    break;
+                }
+                token = parser.nextToken();
+                if (token == null) {
+                    throw new IOException("JSON input ends inside row " + rowNumber);
+                }
+            }
+            if (oversized) {
+                Row row = new Row();
+                row.rowNumber = rowNumber;
+                row.error = oversized(maxRowChars);
+                return row;
+            }
+            try (JsonParser element = buffer.asParser(objectMapper)) {
+                return fromJson(objectMapper.readTree(element), rowNumber, objectMapper);
+            }
+        }
+
+        private void seekArray() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                return;
+            }
+            if (token == JsonToken.START_OBJECT) {
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    token = parser.nextToken();
+                    if ("questions".equals(field) && token == JsonToken.START_ARRAY) {
+                        return;
+                    }
+                    parser.skipChildren();
+                }
+            }
+            throw new IOException("JSON input must be an array of questions or an object with a 'questions' array");
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    // ---- shared mapping ----------------------------------------------------
+
+    static Row fromJson(JsonNode node, long rowNumber, ObjectMapper objectMapper) {
+        Row row = new Row();
+        row.rowNumber = rowNumber;
+        if (node == null || !node.isObject()) {
+            row.error = "Row is not a JSON object";
+            return row;
+        }
+        row.type = text(node, "type", "question_type");
+        row.question = text(node, "question", "question_text", "questionText", "text", "prompt");
+        row.answer = text(node, "answer", "correct_answer", "correctAnswer");
+        row.explanation = text(node, "explanation", "rationale");
+        row.difficulty = text(node, "difficulty", "level");
+
+        JsonNode options = first(node, "options", "choices");
+        if (options != null && options.isArray()) {
+            List<String> values = new ArrayList<>(options.size());
+            for (JsonNode option : options) {
+                if (!option.isNull()) {
+                    values.add(option.asText());
+                }
+            }
+            row.options = values;
+        } else if (options != null && options.isTextual()) {
+            try {
+                row.options = parseOptions(options.asText(), objectMapper);
+            } catch (JsonProcessingException e) {
+                row.error = "Invalid options: " + e.getOriginalMessage();
+            }
+        }
+        return row;
+    }
+
+    /** Accepts a JSON array or a '|' separated list. */
+    static List<String> parseOptions(String value, ObjectMapper objectMapper) throws JsonProcessingException {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.startsWith("[")) {
+            List<String> values = new ArrayList<>();
+            for (JsonNode option : objectMapper.readTree(trimmed)) {
+                values.add(option.asText());
+            }
+            return values;
+        }
+        List<String> values = new ArrayList<>();
+        for (String part : trimmed.split("\\|")) {
+            if (!part.isBlank()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    private static String text(JsonNode node, String... names) {
+        JsonNode value = first(node, names);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static JsonNode first(JsonNode node, String... names) {
+        for (String name : names) {
+            JsonNode value = node.get(name);
+            if (value != null && !value.isNull()) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
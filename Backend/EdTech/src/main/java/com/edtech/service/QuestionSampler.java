@@ -0,0 +1,247 @@
+package com.edtech.service;
+
+import com.edtech.entity.QuestionEntity;
+import com.edtech.event.QuestionBankChangedEvent;
+import com.edtech.repository.QuestionRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks random questions from a bank without loading the bank. Each bank is
+ * indexed once as parallel primitive arrays (question id, type code,
+ * difficulty code), about 10 bytes per question; sampling draws positions
+ * from the index and then loads just the chosen rows with one query.
+ * Indexes are cached, bounded by total questions, and dropped when the
+ * bank's questions change.
+ */
+@Service
+public class QuestionSampler {
+
+    static final List<String> TYPES = List.of("MCQ", "ONE_WORD", "PARAGRAPH");
+    private static final byte OTHER_TYPE = (byte) TYPES.size();
+    private static final byte NO_DIFFICULTY = -1;
+
+    private static final String INDEX_SQL = "SELECT q.id, q.type, COALESCE(q.difficulty, b.difficulty) "
+            + "FROM questions q JOIN question_banks b ON b.id = q.question_bank_id "
+            + "WHERE q.question_bank_id = ? ORDER BY q.id";
+
+    private static final int INDEX_FETCH_SIZE = 5000;
+
+    /** Compact id index of one bank. Immutable once built. */
+    static final class BankIndex {
+        final long[] ids;
+        final byte[] types;
+        final byte[] difficulties;
+        // difficulty code -> lower-cased name
+        final List<String> difficultyNames;
+
+        BankIndex(long[] ids, byte[] types, byte[] difficulties, List<String> difficultyNames) {
+            this.ids = ids;
+            this.types = types;
+            this.difficulties = difficulties;
+            this.difficultyNames = difficultyNames;
+        }
+
+        int size() {
+            return ids.length;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QuestionRepository questionRepository;
+    private final LoadingCache<Long, BankIndex> indexes;
+
+    public QuestionSampler(JdbcTemplate jdbcTemplate, QuestionRepository questionRepository,
+            @Value("${quiz.sampling.max-indexed-questions:5000000}") long maxIndexedQuestions,
+            @Value("${quiz.sampling.expire-after-access:PT6H}") Duration expireAfterAccess) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.questionRepository = questionRepository;
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxIndexedQuestions)
+                .weigher((Long bankId, BankIndex index) -> Math.max(1, index.size()))
+                .expireAfterAccess(expireAfterAccess)
+                .build(this::buildIndex);
+    }
+
+    /**
+     * Random sample of up to {@code count} question ids from the bank, in
+     * random order. Null or empty filters match everything; type and
+     * difficulty are compared case-insensitively.
+     */
+    public long[] sampleIds(Long bankId, int count, Collection<String> types, String difficulty) {
+        BankIndex index = indexes.get(bankId);
+        int[] candidates = matching(index, types, difficulty);
+        int available = candidates == null ? index.size() : candidates.length;
+        int[] positions = samplePositions(available, Math.min(count, available));
+
+        long[] ids = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            int position = candidates == null ? positions[i] : candidates[positions[i]];
+            ids[i] = index.ids[position];
+        }
+        return ids;
+    }
+
+    /** Loads the given questions with one query, in the order of {@code ids}. */
+    public List<QuestionEntity> load(long[] ids) {
+        List<Long> boxed = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            boxed.add(id);
+        }
+        Map<Long, QuestionEntity> byId = new HashMap<>(ids.length * 2);
+        for (QuestionEntity entity : questionRepository.findAllById(boxed)) {
+            byId.put(entity.getId(), entity);
+        }
+        List<QuestionEntity> ordered = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            QuestionEntity entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+
+    public void invalidate(Long bankId) {
+        indexes.invalidate(bankId);
+    }
+
+    @EventListener
+    public void onQuestionBankChanged(QuestionBankChangedEvent event) {
+        invalidate(event.getQuestionBankId());
+    }
+
+    // Positions in the index that pass the filters, or null when there is no filter
+    private static int[] matching(BankIndex index, Collection<String> types, String difficulty) {
+        boolean[] typeAllowed = null;
+        if (types != null && !types.isEmpty()) {
+            typeAllowed = new boolean[TYPES.size() + 1];
+            for (String type : types) {
+                if (type != null) {
+                    typeAllowed[typeCode(type)] = true;
+                }
+            }
+        }
+        byte difficultyCode = 0;
+        boolean filterDifficulty = difficulty != null && !difficulty.isBlank();
+        if (filterDifficulty) {
+            int code = index.difficultyNames.indexOf(difficulty.trim().toLowerCase(Locale.ROOT));
+            if (code < 0) {
+                return new int[0];
+            }
+            difficultyCode = (byte) code;
+        }
+        if (typeAllowed == null && !filterDifficulty) {
+            return null;
+        }
+
+        int[] matches = new int[index.size()];
+        int count = 0;
+        for (int i = 0; i < index.size(); i++) {
+            if ((typeAllowed == null || typeAllowed[index.types[i]])
+                    && (!filterDifficulty || index.difficulties[i] == difficultyCode)) {
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    // Floyd's algorithm: k distinct positions out of n in O(k), then shuffled
+    private static int[] samplePositions(int n, int k) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] picked = new int[k];
+        if (k == n) {
+            for (int i = 0; i < n; i++) {
+                picked[i] = i;
+            }
+        } else {
+            Set<Integer> chosen = new HashSet<>(k * 2);
+            int c = 0;
+            for (int j = n - k; j < n; j++) {
+                int t = random.nextInt(j + 1);
+                int value = chosen.add(t) ? t : j;
+                if (value == j) {
+                    chosen.add(j);
+                }
+                picked[c++] = value;
+            }
+        }
+        for (int i = k - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = picked[i];
+            picked[i] = picked[j];
+            picked[j] = swap;
+        }
+        return picked;
+    }
+
+    private BankIndex buildIndex(Long bankId) {
+        long[][] ids = { new long[256] };
+        byte[][] types = { new byte[256] };
+        byte[][] difficulties = { new byte[256] };
+        List<String> difficultyNames = new ArrayList<>();
+        int[] size = { 0 };
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INDEX_SQL);
+            ps.setLong(1, bankId);
+            ps.setFetchSize(INDEX_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            int i = size[0];
+            if (i == ids[0].length) {
+                int grown = i * 2;
+                ids[0] = Arrays.copyOf(ids[0], grown);
+                types[0] = Arrays.copyOf(types[0], grown);
+                difficulties[0] = Arrays.copyOf(difficulties[0], grown);
+            }
+            ids[0][i] = rs.getLong(1);
+            types[0][i] = typeCode(rs.getString(2));
+            difficulties[0][i] = difficultyCode(rs.getString(3), difficultyNames);
+            size[0]++;
+        });
+
+        int n = size[0];
+        return new BankIndex(Arrays.copyOf(ids[0], n), Arrays.copyOf(types[0], n),
+                Arrays.copyOf(difficulties[0], n), List.copyOf(difficultyNames));
+    }
+
+    private static byte typeCode(String type) {
+        int code = type == null ? -1 : TYPES.indexOf(type.trim().toUpperCase(Locale.ROOT));
+        return code < 0 ? OTHER_TYPE : (byte) code;
+    }
+
+    // Distinct difficulties per bank are few; anything past 127 is treated as unfilterable
+    private static byte difficultyCode(String difficulty, List<String> names) {
+        if (difficulty == null || difficulty.isBlank()) {
+            return NO_DIFFICULTY;
+        }
+        String name = difficulty.trim().toLowerCase(Locale.ROOT);
+        int code = names.indexOf(name);
+        if (code < 0) {
+            if (names.size() >= Byte.MAX_VALUE) {
+                return NO_DIFFICULTY;
+            }
+            names.add(name);
+            code = names.size() - 1;
+        }
+        return (byte) code;
+    }
+}
@@ -0,0 +1,296 @@
+package com.edtech.service;
+
+import com.edtech.dto.AnswerKey;
+import com.edtech.dto.Question;
+import com.edtech.dto.QuizAttemptResponse;
+import com.edtech.dto.QuizResult;
+import com.edtech.dto.StartQuizRequest;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs quiz attempts. Started attempts live in memory until they are submitted
+ * or expire; grading uses the bank's cached answer keys, so a submission does
+ * no database work. Results are handed to {@link QuizResultWriter} and written
+ * in batches shortly afterwards.
+ */
+@Service
+public class QuizAttemptService {
+
+    /** An attempt that has been started but not yet submitted. */
+    private static final class ActiveAttempt {
+        final String attemptId;
+        final String email;
+        final Long userId;
+        final Long questionBankId;
+        final String title;
+        final long[] questionIds;
+        final LocalDateTime startedAt;
+
+        ActiveAttempt(String attemptId, String email, Long userId, Long questionBankId, String title,
+                long[] questionIds, LocalDateTime startedAt) {
+            this.attemptId = attemptId;
+            this.email = email;
+            this.userId = userId;
+            this.questionBankId = questionBankId;
+            this.title = title;
+            this.questionIds = questionIds;
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final QuestionBankRepository questionBankRepository;
+    private final QuestionSampler questionSampler;
+    private final UserRepository userRepository;
+    private final AnswerKeyCache answerKeyCache;
+    private final QuizResultWriter quizResultWriter;
+    private final int maxQuestions;
+    private final Duration attemptTtl;
+    private final Cache<String, ActiveAttempt> activeAttempts;
+    // Ids of each user's active attempts; entries leave with the attempt
+    private final Map<Long, Set<String>> attemptIdsByUser = new ConcurrentHashMap<>();
+
+    public QuizAttemptService(QuestionBankRepository questionBankRepository, QuestionSampler questionSampler,
+            UserRepository userRepository, AnswerKeyCache answerKeyCache, QuizResultWriter quizResultWriter,
+            @Value("${quiz.max-questions:100}") int maxQuestions,
+            @Value("${quiz.attempt-ttl:PT3H}") Duration attemptTtl,
+            @Value("${quiz.max-active-attempts:100000}") long maxActiveAttempts) {
+        this.questionBankRepository = questionBankRepository;
+        this.questionSampler = questionSampler;
+        this.userRepository = userRepository;
+        this.answerKeyCache = answerKeyCache;
+        this.quizResultWriter = quizResultWriter;
+        this.maxQuestions = maxQuestions;
+        this.attemptTtl = attemptTtl;
+        this.activeAttempts = Caffeine.newBuilder()
+                .expireAfterWrite(attemptTtl)
+                .maximumSize(maxActiveAttempts)
+                .<String, ActiveAttempt>removalListener((attemptId, attempt, cause) -> {
+                    if (attempt != null) {
+                        attemptIdsByUser.computeIfPresent(attempt.userId, (userId, ids) -> {
+                            ids.remove(attemptId);
+                            return ids.isEmpty() ? null : ids;
+                        });
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Starts an attempt on a random selection of the bank's questions, or
+     * empty if the user or bank does not exist or no question matches the
+     * requested types and difficulty.
+     */
+    public Optional<QuizAttemptResponse> start(String email, StartQuizRequest request) {
+        Optional<Long> userId = userRepository.findIdByEmail(email);
+        if (userId.isEmpty() || request.getQuestionBankId() == null) {
+            return Optional.empty();
+        }
+        Optional<QuestionBank> bank = questionBankRepository.findById(request.getQuestionBankId());
+        if (bank.isEmpty()) {
+            return Optional.empty();
+        }
+        int count = maxQuestions;
+        if (request.getQuestionCount() != null && request.getQuestionCount() > 0) {
+            count = Math.min(count, request.getQuestionCount());
+        }
+        long[] sampled = questionSampler.sampleIds(bank.get().getId(), count, request.getTypes(),
+                request.getDifficulty());
+        List<QuestionEntity> entities = questionSampler.load(sampled);
+        if (entities.isEmpty()) {
+            return Optional.empty();
+        }
+        // Rows deleted since the index was built are skipped
+        long[] questionIds = new long[entities.size()];
+        for (int i = 0; i < questionIds.length; i++) {
+            questionIds[i] = entities.get(i).getId();
+        }
+
+        String title = request.getTitle() != null && !request.getTitle().isBlank()
+                ? request.getTitle().trim()
+                : bank.get().getName();
+        ActiveAttempt attempt = new ActiveAttempt(UUID.randomUUID().toString(), email, userId.get(),
+                bank.get().getId(), title, questionIds, LocalDateTime.now());
+        attemptIdsByUser.compute(attempt.userId, (id, ids) -> {
+            Set<String> attemptIds = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            attemptIds.add(attempt.attemptId);
+            return attemptIds;
+        });
+        activeAttempts.put(attempt.attemptId, attempt);
+
+        QuizAttemptResponse response = new QuizAttemptResponse();
+        response.setAttemptId(attempt.attemptId);
+        response.setQuestionBankId(attempt.questionBankId);
+        response.setTitle(title);
+        response.setStartedAt(attempt.startedAt);
+        response.setExpiresAt(attempt.startedAt.plus(attemptTtl));
+        response.setQuestions(toQuestions(entities));
+        return Optional.of(response);
+    }
+
+    /**
+     * Grades and queues an attempt for persistence. Each attempt can be
+     * submitted once; returns empty if it is unknown, expired, already
+     * submitted or belongs to another user.
+     */
+    public Optional<QuizResult> submit(String email, String attemptId, Map<Long, String> answers) {
+        ActiveAttempt attempt = activeAttempts.getIfPresent(attemptId);
+        if (attempt == null || !attempt.email.equals(email)
+                || !activeAttempts.asMap().remove(attemptId, attempt)) {
+            return Optional.empty();
+        }
+        Map<Long, String> given = answers == null ? Collections.emptyMap() : answers;
+        Map<Long, AnswerKey> keys = answerKeyCache.forBank(attempt.questionBankId);
+
+        List<QuizResult.QuestionResult> results = new ArrayList<>(attempt.questionIds.length);
+        List<CompletedAttempt.GradedAnswer> graded = new ArrayList<>(attempt.questionIds.length);
+        int score = 0;
+        int gradable = 0;
+        for (long questionId : attempt.questionIds) {
+            AnswerKey key = keys.get(questionId);
+            String answer = trimToNull(given.get(questionId));
+            Boolean correct = key == null ? null : grade(key, answer);
+            if (correct != null) {
+                gradable++;
+                if (correct) {
+                    score++;
+                }
+            }
+            graded.add(new CompletedAttempt.GradedAnswer(questionId, answer, correct));
+
+            QuizResult.QuestionResult result = new QuizResult.QuestionResult();
+            result.setQuestionId(questionId);
+            result.setGivenAnswer(answer);
+            result.setCorrect(correct);
+            if (key != null) {
+                result.setCorrectAnswer(key.getAnswer());
+                result.setExplanation(key.getExplanation());
+            }
+            results.add(result);
+        }
+
+        quizResultWriter.enqueue(new CompletedAttempt(attempt.attemptId, attempt.userId, attempt.questionBankId,
+                attempt.title, score, attempt.questionIds.length, LocalDateTime.now(), graded));
+
+        QuizResult result = new QuizResult();
+        result.setAttemptId(attempt.attemptId);
+        result.setQuestionBankId(attempt.questionBankId);
+        result.setScore(score);
+        result.setTotalQuestions(attempt.questionIds.length);
+        result.setGradedQuestions(gradable);
+        result.setResults(results);
+        return Optional.of(result);
+    }
+
+    /**
+     * Whether the question is part of one of the user's started, unsubmitted
+     * and unexpired attempts.
+     */
+    public boolean isInActiveAttempt(long userId, long questionId) {
+        Set<String> attemptIds = attemptIdsByUser.get(userId);
+        if (attemptIds == null) {
+            return false;
+        }
+        for (String attemptId : attemptIds) {
+            ActiveAttempt attempt = activeAttempts.getIfPresent(attemptId);
+            if (attempt == null) {
+                continue;
+            }
+            for (long id : attempt.questionIds) {
+                if (id == questionId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True/false for MCQ and ONE_WORD questions; null for question types that
+     * are not auto-graded or have no stored answer. MCQ answers may be given
+     * as the option text or as the option letter (A, B, ...).
+     */
+    static Boolean grade(AnswerKey key, String answer) {
+        String expected = normalize(key.getAnswer());
+        if (expected == null) {
+            return null;
+        }
+        String type = key.getType() == null ? "" : key.getType().toUpperCase(Locale.ROOT);
+        switch (type) {
+            case "MCQ":
+                String actual = normalize(resolveOptionLetter(key.getOptions(), answer));
+                return expected.equals(actual);
+            case "ONE_WORD":
+                return expected.equals(normalize(answer));
+            default:
+                return null;
+        }
+    }
+
+    private static String resolveOptionLetter(List<String> options, String answer) {
+        if (answer == null || answer.length() != 1 || options == null) {
+            return answer;
+        }
+        int index = Character.toUpperCase(answer.charAt(0)) - 'A';
+        if (index < 0 || index >= options.size()) {
+            return answer;
+        }
+        // A one-letter option text takes precedence over the letter's position
+        for (String option : options) {
+            if (answer.equalsIgnoreCase(option == null ? null : option.trim())) {
+                return answer;
+            }
+        }
+        return options.get(index);
+    }
+
+    // Case-insensitive, with surrounding whitespace, repeated spaces and a trailing full stop ignored
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.endsWith(".")) {
+            normalized = normalized.substring(0, normalized.length() - 1).trim();
+        }
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    // Questions in the order they were picked, without answers or explanations
+    private List<Question> toQuestions(List<QuestionEntity> entities) {
+        List<Question> questions = new ArrayList<>(entities.size());
+        for (QuestionEntity entity : entities) {
+            Question question = QuestionBankService.toDto(entity);
+            question.setAnswer(null);
+            question.setExplanation(null);
+            questions.add(question);
+        }
+        return questions;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,272 @@
+package com.edtech.service;
+
+import com.edtech.event.QuizAttemptsRecordedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind queue for graded quiz attempts. Submissions are acknowledged as
+ * soon as they are queued; a scheduled flush drains the queue and inserts
+ * attempts and their answers with JDBC batches, one transaction per batch.
+ *
+ * <p>If the queue is full the attempt is written on the caller's thread, so a
+ * spike slows submitters down instead of dropping results. A batch that fails
+ * is retried one attempt at a time so a single bad row cannot hold back the
+ * rest. An attempt that still fails is never discarded: it is kept and retried
+ * on later flushes with exponential backoff, so results submitted during a
+ * database outage are written once it recovers. Attempts still queued are
+ * written when the application shuts down; an abrupt stop loses at most what
+ * was queued or awaiting retry at that moment.
+ */
+@Component
+public class QuizResultWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizResultWriter.class);
+
+    private static final String INSERT_QUIZ_SQL = "INSERT INTO quizzes "
+            + "(title, user_id, question_bank_id, score, total_questions, attempt_id, created_at, stats_applied) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, FALSE)";
+
+    private static final String INSERT_ANSWER_SQL = "INSERT INTO quiz_answers "
+            + "(attempt_id, question_id, given_answer, correct) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<CompletedAttempt> queue;
+    private final Queue<FailedAttempt> retries = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter written;
+    private final Counter failed;
+    private final Counter retried;
+    private final Counter callerRuns;
+    private final Timer flushTimer;
+
+    public QuizResultWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${quiz.write-behind.queue-capacity:50000}") int queueCapacity,
+            @Value("${quiz.write-behind.batch-size:500}") int batchSize,
+            @Value("${quiz.write-behind.retry-backoff:PT1S}") Duration retryBackoff,
+            @Value("${quiz.write-behind.max-retry-backoff:PT1M}") Duration maxRetryBackoff) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.maxRetryBackoffNanos = Math.max(maxRetryBackoff.toNanos(), retryBackoffNanos);
+
+        Gauge.builder("quiz.write_behind.queued", queue, BlockingQueue::size)
+                .description("Graded attempts waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("quiz.write_behind.retrying", retries, Queue::size)
+                .description("Graded attempts whose write failed and is waiting to be retried")
+                .register(meterRegistry);
+        this.written = Counter.builder("quiz.write_behind.written").register(meterRegistry);
+        this.failed = Counter.builder("quiz.write_behind.failed")
+                .description("Failed attempt writes; each one is kept and retried")
+                .register(meterRegistry);
+        this.retried = Counter.builder("quiz.write_behind.retried").register(meterRegistry);
+        this.callerRuns = Counter.builder("quiz.write_behind.caller_runs")
+                .description("Attempts written synchronously because the queue was full")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("quiz.write_behind.flush").register(meterRegistry);
+    }
+
+    public void enqueue(CompletedAttempt attempt) {
+        if (!queue.offer(attempt)) {
+            callerRuns.increment();
+            logger.warn("Quiz write-behind queue is full, writing attempt {} synchronously", attempt.getAttemptId());
+            write(List.of(attempt));
+        }
+    }
+
+    /**
+     * @return attempts not yet written, including those waiting to be retried
+     */
+    public int pending() {
+        return queue.size() + retries.size();
+    }
+
+    /**
+     * Retries failed attempts whose backoff has elapsed, then drains the queue
+     * in batches until it is empty.
+     *
+     * @return number of attempts written
+     */
+    @Scheduled(fixedDelayString = "${quiz.write-behind.flush-interval-ms:200}")
+    public int flush() {
+        return flush(false);
+    }
+
+    private int flush(boolean ignoreBackoff) {
+        if (queue.isEmpty() && retries.isEmpty()) {
+            return 0;
+        }
+        flushLock.lock();
+        try {
+            int total = retryFailed(ignoreBackoff);
+            List<CompletedAttempt> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                long start = System.nanoTime();
+                total += write(batch);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                batch.clear();
+            }
+            return total;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int remaining = flush(true);
+        if (remaining > 0) {
+            logger.info("Wrote {} queued quiz attempts on shutdown", remaining);
+        }
+        for (FailedAttempt unwritten : retries) {
+            logger.error("Quiz attempt {} for user {} could not be written before shutdown after {} tries",
+                    unwritten.attempt.getAttemptId(), unwritten.attempt.getUserId(), unwritten.failures);
+        }
+    }
+
+    /**
+     * Retries each failed attempt that is due on its own. A retry that fails
+     * again doubles its backoff, and the pass stops there: when the database is
+     * down, one failing write per flush is enough to find out.
+     */
+    private int retryFailed(boolean ignoreBackoff) {
+        int count = 0;
+        long now = System.nanoTime();
+        List<FailedAttempt> notDue = new ArrayList<>();
+        FailedAttempt entry;
+        while ((entry = retries.poll()) != null) {
+            if (!ignoreBackoff && entry.retryAt - now > 0) {
+                notDue.add(entry);
+                continue;
+            }
+            retried.increment();
+            try {
+                insert(List.of(entry.attempt));
+                written.increment();
+                count++;
+            } catch (DuplicateKeyException e) {
+                // The earlier failure was reported after the commit had gone through
+                logger.info("Quiz attempt {} was already written, not retrying", entry.attempt.getAttemptId());
+            } catch (DataAccessException e) {
+                notDue.add(failed(entry.attempt, entry.failures + 1, e));
+                break;
+            }
+        }
+        retries.addAll(notDue);
+        return count;
+    }
+
+    private FailedAttempt failed(CompletedAttempt attempt, int failures, DataAccessException e) {
+        failed.increment();
+        long backoff = retryBackoffNanos << Math.min(failures - 1, 20);
+        if (backoff < 0 || backoff > maxRetryBackoffNanos) {
+            backoff = maxRetryBackoffNanos;
+        }
+        logger.warn("Writing quiz attempt {} for user {} failed (try {}), retrying in {} ms: {}",
+                attempt.getAttemptId(), attempt.getUserId(), failures, TimeUnit.NANOSECONDS.toMillis(backoff),
+                e.getMessage());
+        return new FailedAttempt(attempt, failures, System.nanoTime() + backoff);
+    }
+
+    private int write(List<CompletedAttempt> batch) {
+        try {
+            insert(batch);
+            written.increment(batch.size());
+            return batch.size();
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                retries.add(failed(batch.get(0), 1, e));
+                return 0;
+            }
+            logger.warn("Batch of {} quiz attempts failed, retrying one at a time: {}", batch.size(), e.getMessage());
+            int count = 0;
+            for (CompletedAttempt attempt : batch) {
+                count += write(List.of(attempt));
+            }
+            return count;
+        }
+    }
+
+    private void insert(List<CompletedAttempt> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_QUIZ_SQL, batch, batchSize, (ps, attempt) -> {
+                ps.setString(1, attempt.getTitle());
+                ps.setLong(2, attempt.getUserId());
+                ps.setLong(3, attempt.getQuestionBankId());
+                ps.setInt(4, attempt.getScore());
+                ps.setInt(5, attempt.getTotalQuestions());
+                ps.setString(6, attempt.getAttemptId());
+                ps.setTimestamp(7, Timestamp.valueOf(attempt.getSubmittedAt()));
+            });
+
+            List<Object[]> answers = new ArrayList<>();
+            for (CompletedAttempt attempt : batch) {
+                for (CompletedAttempt.GradedAnswer answer : attempt.getAnswers()) {
+                    answers.add(new Object[] { attempt.getAttemptId(), answer });
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL, answers, batchSize * 20, (ps, row) -> {
+                CompletedAttempt.GradedAnswer answer = (CompletedAttempt.GradedAnswer) row[1];
+                ps.setString(1, (String) row[0]);
+                ps.setLong(2, answer.getQuestionId());
+                ps.setString(3, answer.getGivenAnswer());
+                if (answer.getCorrect() == null) {
+                    ps.setNull(4, Types.BOOLEAN);
+                } else {
+                    ps.setBoolean(4, answer.getCorrect());
+                }
+            });
+
+            eventPublisher.publishEvent(new QuizAttemptsRecordedEvent(batch));
+        });
+    }
+
+    private static final class FailedAttempt {
+        private final CompletedAttempt attempt;
+        private final int failures;
+        private final long retryAt;
+
+        private FailedAttempt(CompletedAttempt attempt, int failures, long retryAt) {
+            this.attempt = attempt;
+            this.failures = failures;
+            this.retryAt = retryAt;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.edtech.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Skip list ordered by a comparator, with the width of every link stored so
+ * that the rank of an element and the element at a rank are found in
+ * O(log n), as in Redis sorted sets. Elements must be distinct under the
+ * comparator. Not thread-safe.
+ */
+final class RankedSkipList<T> {
+
+    private static final int MAX_LEVEL = 32;
+    private static final double P = 0.25;
+
+    private static final class Node<T> {
+        final T value;
+        final Node<T>[] next;
+        // span[i]: number of bottom-level steps covered by next[i]
+        final int[] span;
+
+        @SuppressWarnings("unchecked")
+        Node(T value, int level) {
+            this.value = value;
+            this.next = (Node<T>[]) new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Comparator<? super T> comparator;
+    private final Node<T> head = new Node<>(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    RankedSkipList(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void insert(T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] update = (Node<T>[]) new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = newLevel;
+        }
+
+        Node<T> node = new Node<>(value, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = newLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    boolean remove(T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] update = (Node<T>[]) new Node[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node<T> target = x.next[0];
+        if (target == null || comparator.compare(target.value, value) != 0) {
+            return false;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /** 1-based rank of the value, or 0 if it is not in the list. */
+    int rankOf(T value) {
+        int rank = 0;
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && comparator.compare(x.value, value) == 0) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /** Up to {@code count} values starting at the 1-based {@code fromRank}, in order. */
+    List<T> range(int fromRank, int count) {
+        List<T> values = new ArrayList<>(Math.max(0, Math.min(count, size - fromRank + 1)));
+        if (fromRank < 1 || fromRank > size || count <= 0) {
+            return values;
+        }
+        int traversed = 0;
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= fromRank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == fromRank) {
+                break;
+            }
+        }
+        while (x != null && values.size() < count) {
+            values.add(x.value);
+            x = x.next[0];
+        }
+        return values;
+    }
+
+    private static int randomLevel() {
+        int level = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (level < MAX_LEVEL && random.nextDouble() < P) {
+            level++;
+        }
+        return level;
+    }
+}
@@ -0,0 +1,59 @@
+package com.edtech.service;
+
+/**
+ * SM-2 scheduling state of one question for one user. Immutable; every review
+ * produces a new state.
+ */
+final class ReviewState {
+
+    static final double INITIAL_EASE = 2.5;
+    static final double MIN_EASE = 1.3;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    final long userId;
+    final long questionId;
+    final int repetitions;
+    final int intervalDays;
+    final double easeFactor;
+    final int lapses;
+    final long dueAt;
+    final long lastReviewedAt; // 0 if never reviewed
+
+    ReviewState(long userId, long questionId, int repetitions, int intervalDays, double easeFactor, int lapses,
+            long dueAt, long lastReviewedAt) {
+        this.userId = userId;
+        this.questionId = questionId;
+        this.repetitions = repetitions;
+        this.intervalDays = intervalDays;
+        this.easeFactor = easeFactor;
+        this.lapses = lapses;
+        this.dueAt = dueAt;
+        this.lastReviewedAt = lastReviewedAt;
+    }
+
+    static ReviewState initial(long userId, long questionId, long now) {
+        return new ReviewState(userId, questionId, 0, 0, INITIAL_EASE, 0, now, 0);
+    }
+
+    /**
+     * Applies a review graded 0-5 (SM-2). A grade below 3 is a lapse: the
+     * card starts over and comes back after {@code relearnDelayMillis}.
+     */
+    ReviewState review(int quality, long now, long relearnDelayMillis) {
+        int q = Math.max(0, Math.min(5, quality));
+        double ease = Math.max(MIN_EASE, easeFactor + (0.1 - (5 - q) * (0.08 + (5 - q) * 0.02)));
+        if (q < 3) {
+            return new ReviewState(userId, questionId, 0, 0, ease, lapses + 1, now + relearnDelayMillis, now);
+        }
+        int interval;
+        if (repetitions == 0) {
+            interval = 1;
+        } else if (repetitions == 1) {
+            interval = 6;
+        } else {
+            interval = (int) Math.min(Integer.MAX_VALUE / 2, Math.round(intervalDays * easeFactor));
+        }
+        return new ReviewState(userId, questionId, repetitions + 1, interval, ease, lapses,
+                now + interval * DAY_MILLIS, now);
+    }
+}
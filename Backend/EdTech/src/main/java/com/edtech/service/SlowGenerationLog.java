@@ -0,0 +1,52 @@
+package com.edtech.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent generation requests that took at least
+ * {@code generation.trace.slow-threshold-ms}. Once full, each new slow
+ * request overwrites the oldest one, so memory stays at
+ * {@code generation.trace.slow-log-size} traces.
+ */
+@Component
+public class SlowGenerationLog {
+
+    private final GenerationTrace[] ring;
+    private final double thresholdMillis;
+    private int next;
+
+    public SlowGenerationLog(@Value("${generation.trace.slow-log-size:100}") int size,
+            @Value("${generation.trace.slow-threshold-ms:2000}") double thresholdMillis) {
+        this.ring = new GenerationTrace[Math.max(1, size)];
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    public void offer(GenerationTrace trace) {
+        if (trace.getTotalMillis() < thresholdMillis) {
+            return;
+        }
+        synchronized (ring) {
+            ring[next] = trace;
+            next = (next + 1) % ring.length;
+        }
+    }
+
+    /** The slowest retained requests, slowest first. */
+    public List<GenerationTrace> slowest(int limit) {
+        List<GenerationTrace> traces = new ArrayList<>(ring.length);
+        synchronized (ring) {
+            for (GenerationTrace trace : ring) {
+                if (trace != null) {
+                    traces.add(trace);
+                }
+            }
+        }
+        traces.sort(Comparator.comparingDouble(GenerationTrace::getTotalMillis).reversed());
+        return traces.subList(0, Math.min(Math.max(0, limit), traces.size()));
+    }
+}
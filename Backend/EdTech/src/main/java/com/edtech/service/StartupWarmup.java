@@ -0,0 +1,224 @@
+package com.edtech.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms the generation path up before the instance reports ready. Spring
+ * Boot only publishes {@code ReadinessState.ACCEPTING_TRAFFIC} (and
+ * {@code /actuator/health/readiness} only turns UP) after the application
+ * runners have returned, so the first routed request does not pay for:
+ * <ul>
+ *   <li>{@code ocr}: binding Tesseract through JNA and reading tessdata, by
+ *       OCR-ing the bundled {@code warmup.sample-image};</li>
+ *   <li>{@code llm_connections}: DNS and the TLS handshake to the LLM host,
+ *       by opening {@code warmup.llm-connections} keep-alive connections;</li>
+ *   <li>{@code parse}: interpreted Jackson and regex code, by parsing a
+ *       synthetic corpus of LLM responses until it is compiled.</li>
+ * </ul>
+ * The steps share the {@code warmup.budget}; once it is spent, readiness
+ * flips anyway and the remaining steps are skipped. Each step is timed as
+ * {@code warmup.step}, tagged with its outcome.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    // Covers the direct, numbered-object, string-list and generic parsers; not the plain-text fallback
+    private static final List<String> PARSE_CORPUS = List.of(
+            "[{\"id\":\"q1\",\"type\":\"MCQ\",\"question\":\"Where does photosynthesis take place?\","
+                    + "\"options\":[\"Chloroplasts\",\"Nucleus\",\"Ribosomes\",\"Vacuole\"],"
+                    + "\"answer\":\"Chloroplasts\",\"explanation\":\"Chlorophyll is in the chloroplasts.\"},"
+                    + "{\"id\":\"q2\",\"type\":\"ONE_WORD\",\"question\":\"Which gas is released?\","
+                    + "\"options\":null,\"answer\":\"Oxygen\",\"explanation\":null}]",
+            "```json\n[{\"type\":\"PARAGRAPH\",\"question\":\"Explain the role of sunlight.\"}]\n```",
+            "1. {\"type\":\"ONE_WORD\",\"question\":\"What is produced?\",\"answer\":\"Glucose\"}\n"
+                    + "2. {\"type\":\"ONE_WORD\",\"question\":\"What is absorbed?\",\"answer\":\"Light\"}",
+            "[\"1. What are the inputs of photosynthesis?\",\"2. Why are leaves green?\"]",
+            "[{\"question_text\":\"Name the pigment.\",\"question_type\":\"MCQ\","
+                    + "\"choices\":[\"Chlorophyll\",\"Keratin\"],\"correct_answer\":\"Chlorophyll\"}]");
+
+    private final OcrService ocrService;
+    private final QuestionGenerationService generationService;
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration budget;
+    private final Resource sampleImage;
+    private final String llmApiUrl;
+    private final int llmConnections;
+    private final int parseIterations;
+
+    public StartupWarmup(OcrService ocrService, QuestionGenerationService generationService,
+            RestTemplate restTemplate, MeterRegistry meterRegistry,
+            @Value("${warmup.enabled:true}") boolean enabled,
+            @Value("${warmup.budget:PT30S}") Duration budget,
+            @Value("${warmup.sample-image:classpath:warmup/sample.png}") Resource sampleImage,
+            @Value("${llm.api.url:}") String llmApiUrl,
+            @Value("${warmup.llm-connections:2}") int llmConnections,
+            @Value("${warmup.parse-iterations:2000}") int parseIterations) {
+        this.ocrService = ocrService;
+        this.generationService = generationService;
+        this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.budget = budget;
+        this.sampleImage = sampleImage;
+        this.llmApiUrl = llmApiUrl;
+        this.llmConnections = llmConnections;
+        this.parseIterations = parseIterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Runs the warm-up steps within the budget.
+     *
+     * @return each step's outcome and duration, in order
+     */
+    public Map<String, String> warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        Map<String, Step> steps = new LinkedHashMap<>();
+        steps.put("ocr", this::warmOcr);
+        steps.put("llm_connections", this::warmLlmConnections);
+        steps.put("parse", () -> warmParsing(deadline));
+
+        // Steps run on their own thread so an overrunning one can be abandoned
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, String> report = new LinkedHashMap<>();
+        boolean outOfTime = false;
+        try {
+            for (Map.Entry<String, Step> step : steps.entrySet()) {
+                long stepStart = System.nanoTime();
+                String outcome;
+                if (outOfTime || stepStart >= deadline) {
+                    outOfTime = true;
+                    outcome = "skipped";
+                } else {
+                    Future<?> future = executor.submit(() -> {
+                        step.getValue().run();
+                        return null;
+                    });
+                    try {
+                        future.get(deadline - stepStart, TimeUnit.NANOSECONDS);
+                        outcome = "success";
+                    } catch (TimeoutException e) {
+                        outOfTime = true;
+                        outcome = "timed_out";
+                    } catch (ExecutionException e) {
+                        outcome = "failed";
+                        logger.warn("Warm-up step {} failed: {}", step.getKey(), e.getCause().toString());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        outOfTime = true;
+                        outcome = "interrupted";
+                    }
+                }
+                long nanos = System.nanoTime() - stepStart;
+                Timer.builder("warmup.step")
+                        .description("Time spent in each start-up warm-up step")
+                        .tag("step", step.getKey())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(nanos, TimeUnit.NANOSECONDS);
+                report.put(step.getKey(), outcome + " " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+            }
+        } finally {
+            // An abandoned step finishes in the background
+            executor.shutdown();
+        }
+        logger.info("Warm-up finished in {} ms (budget {} ms): {}",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), budget.toMillis(), report);
+        return report;
+    }
+
+    private void warmOcr() throws Exception {
+        Path image = Files.createTempFile("warmup_", ".png");
+        try {
+            try (InputStream in = sampleImage.getInputStream()) {
+                Files.copy(in, image, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String text = ocrService.extractText(image);
+            logger.debug("Warm-up OCR read {} characters", text == null ? 0 : text.length());
+        } finally {
+            Files.deleteIfExists(image);
+        }
+    }
+
+    // The default RestTemplate keeps idle HttpURLConnections in the JDK's
+    // keep-alive cache (up to http.maxConnections per host), so opening them
+    // here lets the first generations skip the TCP and TLS handshakes
+    private void warmLlmConnections() throws Exception {
+        if (llmApiUrl == null || llmApiUrl.isBlank() || llmConnections <= 0) {
+            return;
+        }
+        List<Future<Integer>> requests = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < llmConnections; i++) {
+                requests.add(executor.submit(this::probeLlmHost));
+            }
+        }
+        for (Future<Integer> request : requests) {
+            request.get();
+        }
+    }
+
+    private Integer probeLlmHost() {
+        try {
+            return restTemplate.execute(llmApiUrl, HttpMethod.HEAD, null,
+                    response -> response.getStatusCode().value());
+        } catch (HttpStatusCodeException e) {
+            // Any status means the connection is up, which is all we want
+            return e.getStatusCode().value();
+        }
+    }
+
+    private void warmParsing(long deadline) {
+        for (int i = 0; i < parseIterations && System.nanoTime() < deadline; i++) {
+            for (String response : PARSE_CORPUS) {
+                generationService.parseUnrecorded(response);
+            }
+        }
+    }
+
+    private interface Step {
+        void run() throws Exception;
+    }
+}
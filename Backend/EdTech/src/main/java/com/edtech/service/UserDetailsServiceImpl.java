@@ -2,13 +2,19 @@ package com.edtech.service;
 
 import com.edtech.entity.User;
 import com.edtech.repository.UserRepository;
+import com.edtech.security.AccountUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -16,14 +22,32 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Value("${app.admin.emails:}")
+    private Set<String> adminEmails;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return new org.springframework.security.core.userdetails.User(
+        return new AccountUserDetails(
+                user.getId(),
                 user.getEmail(),
                 user.getPassword(),
-                new ArrayList<>());
+                authoritiesFor(user.getEmail()),
+                user.getFirstName(),
+                user.getLastName());
+    }
+
+    // Admins are configured by email; everyone else has no authorities
+    private List<GrantedAuthority> authoritiesFor(String email) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String admin : adminEmails) {
+            if (admin.trim().equalsIgnoreCase(email)) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+                break;
+            }
+        }
+        return authorities;
     }
 }
@@ -0,0 +1,57 @@
+package com.edtech.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * One user's review cards ordered by due time. Reading the next due cards
+ * walks the head of the set, so it costs O(log n + limit).
+ */
+final class UserReviewQueue {
+
+    private static final Comparator<ReviewState> BY_DUE = Comparator
+            .comparingLong((ReviewState s) -> s.dueAt)
+            .thenComparingLong(s -> s.questionId);
+
+    private final TreeSet<ReviewState> byDue = new TreeSet<>(BY_DUE);
+    private final Map<Long, ReviewState> byQuestion = new HashMap<>();
+
+    synchronized void put(ReviewState state) {
+        ReviewState previous = byQuestion.put(state.questionId, state);
+        if (previous != null) {
+            byDue.remove(previous);
+        }
+        byDue.add(state);
+    }
+
+    synchronized ReviewState get(long questionId) {
+        return byQuestion.get(questionId);
+    }
+
+    synchronized void remove(long questionId) {
+        ReviewState previous = byQuestion.remove(questionId);
+        if (previous != null) {
+            byDue.remove(previous);
+        }
+    }
+
+    /** Up to {@code limit} cards due at or before {@code now}, most overdue first. */
+    synchronized List<ReviewState> due(long now, int limit) {
+        List<ReviewState> due = new ArrayList<>(Math.min(limit, byDue.size()));
+        for (ReviewState state : byDue) {
+            if (state.dueAt > now || due.size() >= limit) {
+                break;
+            }
+            due.add(state);
+        }
+        return due;
+    }
+
+    synchronized int size() {
+        return byQuestion.size();
+    }
+}
@@ -0,0 +1,30 @@
+package com.edtech.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 helpers shared by the token stores, caches and payload logging,
+ * which all key or fingerprint values by their lowercase hex digest.
+ */
+public final class Sha256 {
+
+    private Sha256() {
+    }
+
+    /** Fresh digest for hashing a stream in chunks. */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Lowercase hex SHA-256 of the UTF-8 bytes of {@code text}. */
+    public static String hex(String text) {
+        return HexFormat.of().formatHex(newDigest().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
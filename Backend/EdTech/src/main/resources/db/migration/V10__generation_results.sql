@@ -0,0 +1,18 @@
+-- Generated questions keyed by a SHA-256 of the normalized source text, subject, difficulty, question count and
+-- LLM model, so any node can reuse an earlier generation for the same input. Rows expire after
+-- generation.result-store.ttl and are purged in batches.
+
+CREATE TABLE generation_results (
+    content_hash CHAR(64) NOT NULL,
+    model VARCHAR(128) NOT NULL,
+    subject VARCHAR(255),
+    difficulty VARCHAR(32),
+    question_count INT,
+    text_length INT NOT NULL,
+    questions MEDIUMTEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (content_hash)
+);
+
+CREATE INDEX idx_generation_results_expires_at ON generation_results (expires_at);
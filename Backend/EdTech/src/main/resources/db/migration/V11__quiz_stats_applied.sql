@@ -0,0 +1,7 @@
+-- Marks the quizzes already folded into user_subject_stats and user_bank_stats. The write-behind inserts quizzes
+-- with FALSE and the stats fold flips the flag in the same transaction as its upserts, so a quiz is counted once
+-- even when the fold runs after the quiz commit, is retried by the pending sweep, or races the backfill.
+-- Existing rows were folded inside the transaction that wrote them.
+
+ALTER TABLE quizzes ADD COLUMN stats_applied BOOLEAN NOT NULL DEFAULT TRUE;
+CREATE INDEX idx_quizzes_stats_applied ON quizzes (stats_applied);
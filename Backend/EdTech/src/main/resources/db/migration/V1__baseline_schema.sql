@@ -0,0 +1,62 @@
+-- Baseline schema, equivalent to what ddl-auto: update generated from the entities.
+-- Databases that already contain these tables are baselined at version 1 and skip this script.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE question_banks (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    subject VARCHAR(255),
+    difficulty VARCHAR(255),
+    user_id BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_question_banks_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE questions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    type VARCHAR(255) NOT NULL,
+    question_text TEXT NOT NULL,
+    options JSON,
+    answer TEXT,
+    explanation TEXT,
+    question_bank_id BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_questions_question_bank FOREIGN KEY (question_bank_id) REFERENCES question_banks (id)
+);
+
+CREATE TABLE quizzes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    user_id BIGINT,
+    question_bank_id BIGINT,
+    score INT,
+    total_questions INT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_quizzes_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_quizzes_question_bank FOREIGN KEY (question_bank_id) REFERENCES question_banks (id)
+);
+
+CREATE TABLE payments (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT,
+    amount DECIMAL(38, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    transaction_id VARCHAR(255),
+    payment_method VARCHAR(255),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_payments_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
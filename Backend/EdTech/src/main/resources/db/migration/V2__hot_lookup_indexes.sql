@@ -0,0 +1,17 @@
+-- Indexes backing the derived repository queries.
+-- The composite indexes also serve the single-column lookups on their leading column.
+
+CREATE INDEX idx_question_banks_user_subject ON question_banks (user_id, subject);
+CREATE INDEX idx_question_banks_subject ON question_banks (subject);
+
+-- (question_bank_id, id) lets bank listings and exports walk a bank in primary key order.
+CREATE INDEX idx_questions_bank_id ON questions (question_bank_id, id);
+
+CREATE INDEX idx_quizzes_user_bank ON quizzes (user_id, question_bank_id);
+CREATE INDEX idx_quizzes_bank ON quizzes (question_bank_id);
+
+CREATE INDEX idx_payments_user_status ON payments (user_id, status);
+CREATE INDEX idx_payments_status ON payments (status);
+
+-- Fails if duplicate transaction ids already exist; clean those up before migrating.
+CREATE UNIQUE INDEX uk_payments_transaction_id ON payments (transaction_id);
@@ -0,0 +1,18 @@
+-- Quiz attempts are written in batches by the write-behind queue. The attempt id is assigned in memory
+-- when the attempt starts, so per-question answers can reference it before the quiz row has a database id.
+
+ALTER TABLE quizzes ADD COLUMN attempt_id VARCHAR(36);
+CREATE UNIQUE INDEX uk_quizzes_attempt_id ON quizzes (attempt_id);
+
+CREATE TABLE quiz_answers (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    attempt_id VARCHAR(36) NOT NULL,
+    question_id BIGINT NOT NULL,
+    given_answer TEXT,
+    correct BOOLEAN,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_quiz_answers_attempt FOREIGN KEY (attempt_id) REFERENCES quizzes (attempt_id)
+);
+
+CREATE INDEX idx_quiz_answers_attempt ON quiz_answers (attempt_id);
+CREATE INDEX idx_quiz_answers_question ON quiz_answers (question_id);
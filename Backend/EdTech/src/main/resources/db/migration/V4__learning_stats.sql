@@ -0,0 +1,27 @@
+-- Per-user aggregates for the learning dashboard, maintained incrementally when quizzes are written and
+-- recomputable from quizzes by the stats backfill job. Banks without a subject are grouped under ''.
+
+CREATE TABLE user_subject_stats (
+    user_id BIGINT NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    attempts INT NOT NULL,
+    total_score BIGINT NOT NULL,
+    total_questions BIGINT NOT NULL,
+    best_percentage DECIMAL(5, 2) NOT NULL,
+    last_attempt_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id, subject),
+    CONSTRAINT fk_user_subject_stats_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE user_bank_stats (
+    user_id BIGINT NOT NULL,
+    question_bank_id BIGINT NOT NULL,
+    attempts INT NOT NULL,
+    total_score BIGINT NOT NULL,
+    total_questions BIGINT NOT NULL,
+    best_percentage DECIMAL(5, 2) NOT NULL,
+    last_attempt_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id, question_bank_id),
+    CONSTRAINT fk_user_bank_stats_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_bank_stats_question_bank FOREIGN KEY (question_bank_id) REFERENCES question_banks (id)
+);
@@ -0,0 +1,3 @@
+-- Optional per-question difficulty; questions without one take the difficulty of their bank.
+
+ALTER TABLE questions ADD COLUMN difficulty VARCHAR(32);
@@ -0,0 +1,16 @@
+-- Spaced-repetition (SM-2) state per user and question. Written in batches by the practice scheduler;
+-- a user's rows are loaded together when their due queue is first needed.
+
+CREATE TABLE review_states (
+    user_id BIGINT NOT NULL,
+    question_id BIGINT NOT NULL,
+    repetitions INT NOT NULL,
+    interval_days INT NOT NULL,
+    ease_factor DOUBLE NOT NULL,
+    lapses INT NOT NULL,
+    due_at DATETIME(6) NOT NULL,
+    last_reviewed_at DATETIME(6),
+    PRIMARY KEY (user_id, question_id),
+    CONSTRAINT fk_review_states_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_review_states_question FOREIGN KEY (question_id) REFERENCES questions (id)
+);
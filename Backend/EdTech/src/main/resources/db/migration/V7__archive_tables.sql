@@ -0,0 +1,47 @@
+-- Cold quizzes and settled payments are moved here in background batches (see ArchiveService), so the live
+-- tables only hold the retention window. Archive tables have no foreign keys: archived rows may outlive
+-- the users and banks they refer to.
+
+CREATE INDEX idx_quizzes_created_at ON quizzes (created_at);
+CREATE INDEX idx_payments_created_at ON payments (created_at);
+
+CREATE TABLE quizzes_archive (
+    id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    user_id BIGINT,
+    question_bank_id BIGINT,
+    score INT,
+    total_questions INT,
+    created_at DATETIME(6) NOT NULL,
+    attempt_id VARCHAR(36),
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_quizzes_archive_user ON quizzes_archive (user_id, created_at);
+
+CREATE TABLE quiz_answers_archive (
+    id BIGINT NOT NULL,
+    attempt_id VARCHAR(36) NOT NULL,
+    question_id BIGINT NOT NULL,
+    given_answer TEXT,
+    correct BOOLEAN,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_quiz_answers_archive_attempt ON quiz_answers_archive (attempt_id);
+
+CREATE TABLE payments_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT,
+    amount DECIMAL(38, 2) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    transaction_id VARCHAR(255),
+    payment_method VARCHAR(255),
+    created_at DATETIME(6) NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_payments_archive_user ON payments_archive (user_id, created_at);
+CREATE INDEX idx_payments_archive_transaction ON payments_archive (transaction_id);
@@ -0,0 +1,35 @@
+-- Durable queue of question generation jobs, shared by every node.
+-- Workers claim QUEUED rows with SELECT ... FOR UPDATE SKIP LOCKED, so concurrent claimers never wait on
+-- each other, and hold a lease (lease_owner, lease_until) that heartbeats extend while the job runs.
+-- A RUNNING row whose lease ran out belonged to a node that died; it is queued again until max_attempts.
+-- The image is kept only until the job finishes.
+
+CREATE TABLE generation_jobs (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    subject VARCHAR(255),
+    difficulty VARCHAR(32),
+    question_count INT,
+    input_text MEDIUMTEXT,
+    image LONGBLOB,
+    image_format VARCHAR(8),
+    image_sha256 CHAR(64),
+    image_width INT,
+    image_height INT,
+    result MEDIUMTEXT,
+    error VARCHAR(1000),
+    attempts INT NOT NULL DEFAULT 0,
+    max_attempts INT NOT NULL,
+    available_at DATETIME(6) NOT NULL,
+    lease_owner VARCHAR(64),
+    lease_until DATETIME(6),
+    created_at DATETIME(6) NOT NULL,
+    finished_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_generation_jobs_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_generation_jobs_claim ON generation_jobs (status, available_at);
+CREATE INDEX idx_generation_jobs_lease ON generation_jobs (status, lease_until);
+CREATE INDEX idx_generation_jobs_finished_at ON generation_jobs (finished_at);
@@ -0,0 +1,12 @@
+package com.edtech;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Boot configuration for slice tests under {@code com.edtech}. The production
+ * application class lives in {@code com.suraj.edTech}, which slice tests cannot
+ * find by searching upwards from their own package.
+ */
+@SpringBootApplication
+public class EdTechTestApplication {
+}
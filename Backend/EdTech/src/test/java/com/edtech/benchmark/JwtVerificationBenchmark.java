@@ -0,0 +1,85 @@
+package com.edtech.benchmark;
+
+import com.edtech.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Per-request cost of checking a bearer token:
+ * <ul>
+ *   <li>{@code previous}: what the filter used to do, three parses, each
+ *       rebuilding the key and the parser;</li>
+ *   <li>{@code verifyUncached}: one parse with the prebuilt parser;</li>
+ *   <li>{@code verifyCached}: a repeat token answered from the verified cache.</li>
+ * </ul>
+ * Run {@link #main} from the IDE, or after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main JwtVerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "7f04c2a8a6f64d85b1d8a9f92b6c9c3f2e7f9d1a0c3b5e7f9a1b2c3d4e5f6078";
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtUtil(new SimpleMeterRegistry(), SECRET, 3_600_000L, 10_000, Duration.ofMinutes(5));
+        uncached = new JwtUtil(new SimpleMeterRegistry(), SECRET, 3_600_000L, 0, Duration.ofMinutes(5));
+        token = cached.generateToken(User.withUsername("bench@example.com").password("").roles("USER").build());
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public boolean previous() {
+        String username = parse(token).getSubject();
+        return username.equals(parse(token).getSubject()) && !parse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public String verifyUncached() {
+        return uncached.verify(token).getSubject();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return cached.verify(token).getSubject();
+    }
+
+    private static Claims parse(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
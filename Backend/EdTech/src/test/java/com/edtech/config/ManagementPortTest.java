@@ -0,0 +1,52 @@
+package com.edtech.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Prometheus scrape is only reachable without a token on the management
+ * port; the application port serves the probes but not the actuator.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@AutoConfigureObservability(tracing = false)
+class ManagementPortTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void prometheusIsOnlyServedOnTheManagementPort() {
+        ResponseEntity<String> scrape = get(managementPort, "/actuator/prometheus");
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody()).contains("jvm_memory_used_bytes");
+
+        assertThat(get(port, "/actuator/prometheus").getStatusCode().is2xxSuccessful()).isFalse();
+        assertThat(get(port, "/actuator/metrics").getStatusCode().is2xxSuccessful()).isFalse();
+    }
+
+    @Test
+    void probesAreServedOnTheApplicationPort() {
+        assertThat(get(port, "/livez").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get(port, "/readyz").getStatusCode()).isIn(HttpStatus.OK, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private ResponseEntity<String> get(int targetPort, String path) {
+        return restTemplate.getForEntity("http://localhost:" + targetPort + path, String.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.edtech.controller;
+
+import com.edtech.repository.UserRepository;
+import com.edtech.security.RefreshTokenService;
+import com.edtech.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sign-up and login hash on the password pool and do their database work
+ * before and after it, off the pool.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    private static final String EMAIL = "auth-test@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockitoSpyBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail(EMAIL).ifPresent(user -> {
+            jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id = ?", user.getId());
+            userRepository.delete(user);
+        });
+    }
+
+    @Test
+    void signupAndLoginWriteOffThePasswordPool() throws Exception {
+        List<String> issuedOn = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            issuedOn.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(refreshTokenService).issue(any());
+        List<String> loadedOn = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            loadedOn.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(userDetailsService).loadUserByUsername(anyString());
+
+        perform("/api/auth/signup", "{\"email\":\"" + EMAIL + "\",\"password\":\"secret-1\","
+                + "\"firstName\":\"Ada\",\"lastName\":\"Lovelace\"}");
+        assertThat(userRepository.findByEmail(EMAIL)).isPresent();
+
+        MvcResult login = perform("/api/auth/login", "{\"email\":\"" + EMAIL + "\",\"password\":\"secret-1\"}");
+        assertThat(login.getResponse().getContentAsString()).contains("refreshToken");
+        assertThat(issuedOn).singleElement().satisfies(thread -> assertThat(thread).doesNotStartWith("password-"));
+        assertThat(loadedOn).singleElement().satisfies(thread -> assertThat(thread).doesNotStartWith("password-"));
+
+        MvcResult started = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + EMAIL + "\",\"password\":\"wrong-1\"}")).andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isUnauthorized());
+    }
+
+    private MvcResult perform(String path, String body) throws Exception {
+        MvcResult started = mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").exists())
+                .andReturn();
+    }
+}
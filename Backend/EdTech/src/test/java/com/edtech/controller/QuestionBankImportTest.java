@@ -0,0 +1,90 @@
+package com.edtech.controller;
+
+import com.edtech.entity.User;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Import endpoints end to end: progress is private to its owner, and a bank
+ * created for an import that imported nothing is removed again.
+ */
+@SpringBootTest(properties = "question-import.max-bytes=256")
+@AutoConfigureMockMvc
+@WithMockUser(username = "importer@example.com")
+class QuestionBankImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("importer@example.com");
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM questions WHERE question_bank_id IN "
+                + "(SELECT id FROM question_banks WHERE user_id = ?)", userId);
+        jdbcTemplate.update("DELETE FROM question_banks WHERE user_id = ?", userId);
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void progressIsOnlyVisibleToTheImportingUser() throws Exception {
+        mockMvc.perform(post("/api/question-banks/import").param("name", "Mine")
+                        .header("X-Import-Id", "shared-id")
+                        .contentType("text/csv").content("question,answer\nWhat is 2+2?,4\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsImported").value(1));
+
+        mockMvc.perform(get("/api/question-banks/imports/shared-id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+        mockMvc.perform(get("/api/question-banks/imports/shared-id").with(user("someone-else@example.com")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void failedImportDoesNotLeaveAnEmptyBank() throws Exception {
+        mockMvc.perform(post("/api/question-banks/import").param("name", "Broken")
+                        .contentType("text/csv").content("title,answer\nWhat is 2+2?,4\n"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.questionBankId").doesNotExist());
+
+        mockMvc.perform(post("/api/question-banks/import").param("name", "Too big")
+                        .contentType("text/csv").content("question\n" + "What is 2+2?\n".repeat(50)))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertThat(questionBankRepository.findByUserId(userId)).isEmpty();
+    }
+}
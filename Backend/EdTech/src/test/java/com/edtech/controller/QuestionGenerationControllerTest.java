@@ -1,9 +1,21 @@
 package com.edtech.controller;
 
+import com.edtech.repository.UserRepository;
+import com.edtech.security.JwtUtil;
+import com.edtech.security.TokenRevocationService;
+import com.edtech.security.UserDetailsCache;
+import com.edtech.service.GenerationJobQueue;
+import com.edtech.service.GenerationMetrics;
+import com.edtech.service.ImageUploadReader;
 import com.edtech.service.QuestionGenerationService;
+import com.edtech.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -15,12 +27,45 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(QuestionGenerationController.class)
 class QuestionGenerationControllerTest {
 
+    // The JWT filter records auth latency; the web slice has no metrics auto-configuration
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockitoBean
     private QuestionGenerationService questionGenerationService;
 
+    @MockitoBean
+    private ImageUploadReader imageUploadReader;
+
+    @MockitoBean
+    private GenerationMetrics generationMetrics;
+
+    @MockitoBean
+    private GenerationJobQueue generationJobQueue;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockitoBean
+    private UserDetailsCache userDetailsCache;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
     @Test
     @WithMockUser
     void healthEndpoint_ShouldReturnSuccess() throws Exception {
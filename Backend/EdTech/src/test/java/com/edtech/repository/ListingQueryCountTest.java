@@ -0,0 +1,119 @@
+package com.edtech.repository;
+
+import com.edtech.dto.QuestionBankSummary;
+import com.edtech.dto.QuizSummary;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.entity.Quiz;
+import com.edtech.entity.User;
+import com.edtech.support.SqlCapture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts the number of SQL statements issued by the listing projections and
+ * detail fetch plans, independent of how many banks or questions exist.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ListingQueryCountTest {
+
+    private static final int BANKS = 4;
+    private static final int QUESTIONS_PER_BANK = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    private User user;
+    private Long firstBankId;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("teacher@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        for (int b = 0; b < BANKS; b++) {
+            QuestionBank bank = new QuestionBank();
+            bank.setName("Bank " + b);
+            bank.setSubject("biology");
+            bank.setUser(user);
+            entityManager.persist(bank);
+            if (firstBankId == null) {
+                firstBankId = bank.getId();
+            }
+
+            for (int q = 0; q < QUESTIONS_PER_BANK; q++) {
+                QuestionEntity question = new QuestionEntity();
+                question.setType("MCQ");
+                question.setQuestionText("Question " + q);
+                question.setOptions(List.of("A", "B", "C", "D"));
+                question.setAnswer("A");
+                question.setQuestionBank(bank);
+                entityManager.persist(question);
+            }
+
+            Quiz quiz = new Quiz();
+            quiz.setTitle("Quiz " + b);
+            quiz.setUser(user);
+            quiz.setQuestionBank(bank);
+            quiz.setScore(2);
+            quiz.setTotalQuestions(QUESTIONS_PER_BANK);
+            entityManager.persist(quiz);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.clear();
+    }
+
+    @Test
+    void bankSummariesLoadInOneStatement() {
+        List<QuestionBankSummary> summaries = questionBankRepository.findSummariesByUserId(user.getId());
+
+        assertThat(summaries).hasSize(BANKS);
+        assertThat(summaries).allSatisfy(s -> assertThat(s.getQuestionCount()).isEqualTo(QUESTIONS_PER_BANK));
+        assertThat(SqlCapture.statements()).hasSize(1);
+    }
+
+    @Test
+    void quizSummariesIncludeBankNamesInOneStatement() {
+        List<QuizSummary> summaries = quizRepository.findSummariesByUserId(user.getId());
+
+        assertThat(summaries).hasSize(BANKS);
+        assertThat(summaries).allSatisfy(s -> assertThat(s.getQuestionBankName()).startsWith("Bank "));
+        assertThat(SqlCapture.statements()).hasSize(1);
+    }
+
+    @Test
+    void bankDetailFetchesQuestionsInOneStatement() {
+        QuestionBank bank = questionBankRepository.findWithQuestionsById(firstBankId).orElseThrow();
+
+        assertThat(bank.getQuestions()).hasSize(QUESTIONS_PER_BANK);
+        assertThat(bank.getQuestions().get(0).getOptions()).containsExactly("A", "B", "C", "D");
+        assertThat(SqlCapture.statements()).hasSize(1);
+    }
+
+    @Test
+    void lazyListingIssuesOneStatementPerBank() {
+        // Baseline for comparison: the plain entity listing triggers N+1 selects
+        List<QuestionBank> banks = questionBankRepository.findByUserId(user.getId());
+        banks.forEach(bank -> bank.getQuestions().size());
+
+        assertThat(SqlCapture.statements()).hasSize(1 + BANKS);
+    }
+}
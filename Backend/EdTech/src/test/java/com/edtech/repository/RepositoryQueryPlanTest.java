@@ -0,0 +1,125 @@
+package com.edtech.repository;
+
+import com.edtech.entity.Payment;
+import com.edtech.support.SqlCapture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs every derived repository query against the Flyway-migrated embedded
+ * database and checks that H2 plans it as an index lookup rather than a table scan.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RepositoryQueryPlanTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void resetCapture() {
+        SqlCapture.clear();
+    }
+
+    @Test
+    void userLookupsUseEmailIndex() {
+        userRepository.findByEmail("a@example.com");
+        assertIndexLookup(explainLast("a@example.com"), "email");
+
+        userRepository.existsByEmail("a@example.com");
+        assertIndexLookup(explainLast("a@example.com", 1), "email");
+    }
+
+    @Test
+    void questionBankLookupsUseIndexes() {
+        questionBankRepository.findByUserId(1L);
+        assertIndexLookup(explainLast(1L), "user_id");
+
+        questionBankRepository.findBySubject("physics");
+        assertIndexLookup(explainLast("physics"), "subject");
+
+        questionBankRepository.findByUserIdAndSubject(1L, "physics");
+        String plan = explainLast(1L, "physics");
+        assertIndexLookup(plan, "user_id");
+        assertThat(plan).contains("idx_question_banks_user_subject");
+    }
+
+    @Test
+    void quizLookupsUseIndexes() {
+        quizRepository.findByUserId(1L);
+        assertIndexLookup(explainLast(1L), "user_id");
+
+        quizRepository.findByQuestionBankId(1L);
+        assertIndexLookup(explainLast(1L), "question_bank_id");
+
+        quizRepository.findByUserIdAndQuestionBankId(1L, 2L);
+        String plan = explainLast(1L, 2L);
+        assertIndexLookup(plan, "user_id");
+        assertThat(plan).contains("idx_quizzes_user_bank");
+    }
+
+    @Test
+    void paymentLookupsUseIndexes() {
+        paymentRepository.findByUserId(1L);
+        assertIndexLookup(explainLast(1L), "user_id");
+
+        paymentRepository.findByStatus("PENDING");
+        assertIndexLookup(explainLast("PENDING"), "status");
+
+        paymentRepository.findByUserIdAndStatus(1L, "PENDING");
+        String plan = explainLast(1L, "PENDING");
+        assertIndexLookup(plan, "user_id");
+        assertThat(plan).contains("idx_payments_user_status");
+    }
+
+    @Test
+    void transactionIdIsUnique() {
+        paymentRepository.saveAndFlush(payment("txn-1"));
+
+        assertThatThrownBy(() -> paymentRepository.saveAndFlush(payment("txn-1")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private Payment payment(String transactionId) {
+        Payment payment = new Payment();
+        payment.setAmount(new BigDecimal("10.00"));
+        payment.setStatus("PENDING");
+        payment.setTransactionId(transactionId);
+        return payment;
+    }
+
+    private String explainLast(Object... params) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + SqlCapture.last(), String.class, params);
+    }
+
+    private static void assertIndexLookup(String plan, String column) {
+        assertThat(plan).doesNotContain("tableScan");
+        Pattern indexCondition = Pattern.compile("/\\* public\\.\\w+: [^*]*\\b" + column + " = ");
+        assertThat(indexCondition.matcher(plan).find())
+                .as("index lookup on %s in plan:%n%s", column, plan)
+                .isTrue();
+    }
+}
@@ -0,0 +1,174 @@
+package com.edtech.repository;
+
+import com.edtech.config.CacheMetricsConfig;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.entity.User;
+import com.edtech.support.SqlCapture;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exercises the second-level and query caches across separate transactions,
+ * including invalidation when banks and questions are edited.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private TransactionTemplate tx;
+    private Statistics statistics;
+    private Long bankId;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        bankId = tx.execute(status -> {
+            User user = new User();
+            user.setEmail("cache@example.com");
+            user.setPassword("secret");
+            userRepository.save(user);
+
+            QuestionBank bank = new QuestionBank();
+            bank.setName("Cached bank");
+            bank.setUser(user);
+            questionBankRepository.save(bank);
+            for (int i = 0; i < 3; i++) {
+                questionRepository.save(question(bank, "Question " + i));
+            }
+            return bank.getId();
+        });
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            questionRepository.deleteAll(questionRepository.findByQuestionBankId(bankId));
+            questionBankRepository.deleteById(bankId);
+            userRepository.findByEmail("cache@example.com").ifPresent(userRepository::delete);
+        });
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void repeatedBankReadsAreServedFromCache() {
+        tx.executeWithoutResult(status -> questionBankRepository.findById(bankId).orElseThrow());
+        SqlCapture.clear();
+
+        String name = tx.execute(status -> questionBankRepository.findById(bankId).orElseThrow().getName());
+
+        assertThat(name).isEqualTo("Cached bank");
+        assertThat(SqlCapture.statements()).isEmpty();
+        assertThat(statistics.getDomainDataRegionStatistics(QuestionBank.class.getName()).getHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void questionsByBankUseQueryCacheUntilTableChanges() {
+        tx.executeWithoutResult(status -> questionRepository.findByQuestionBankId(bankId));
+        SqlCapture.clear();
+
+        List<QuestionEntity> cached = tx.execute(status -> questionRepository.findByQuestionBankId(bankId));
+
+        assertThat(cached).hasSize(3);
+        assertThat(SqlCapture.statements()).isEmpty();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        tx.executeWithoutResult(status ->
+                questionRepository.save(question(questionBankRepository.getReferenceById(bankId), "Added")));
+
+        List<QuestionEntity> refreshed = tx.execute(status -> questionRepository.findByQuestionBankId(bankId));
+        assertThat(refreshed).hasSize(4);
+    }
+
+    @Test
+    void bankQuestionCollectionIsEvictedWhenQuestionIsAdded() {
+        Integer before = tx.execute(status ->
+                questionBankRepository.findById(bankId).orElseThrow().getQuestions().size());
+        assertThat(before).isEqualTo(3);
+
+        tx.executeWithoutResult(status ->
+                questionRepository.save(question(questionBankRepository.getReferenceById(bankId), "Added")));
+
+        Integer after = tx.execute(status ->
+                questionBankRepository.findById(bankId).orElseThrow().getQuestions().size());
+        assertThat(after).isEqualTo(4);
+    }
+
+    @Test
+    void editedQuestionIsVisibleAfterCommit() {
+        Long questionId = tx.execute(status -> questionRepository.findByQuestionBankId(bankId).get(0).getId());
+
+        tx.executeWithoutResult(status -> {
+            QuestionEntity question = entityManager.find(QuestionEntity.class, questionId);
+            question.setQuestionText("Edited");
+        });
+
+        SqlCapture.clear();
+        String text = tx.execute(status -> questionRepository.findById(questionId).orElseThrow().getQuestionText());
+        assertThat(text).isEqualTo("Edited");
+        assertThat(SqlCapture.statements()).isEmpty();
+    }
+
+    @Test
+    void hitRatioGaugesReadEveryRegion() {
+        // Read before any cached query has run, when Hibernate has no query region statistics yet
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new CacheMetricsConfig().secondLevelCacheHitRatio(entityManagerFactory).bindTo(registry);
+
+        assertThat(registry.find("hibernate.cache.hit.ratio").gauges())
+                .extracting(gauge -> gauge.getId().getTag("region"))
+                .contains(QuestionBank.class.getName(), "query-results");
+        assertThat(registry.find("hibernate.cache.hit.ratio").gauges())
+                .allSatisfy(gauge -> assertThat(gauge.value()).as(gauge.getId().getTag("region")).isNotNaN());
+    }
+
+    private static QuestionEntity question(QuestionBank bank, String text) {
+        QuestionEntity question = new QuestionEntity();
+        question.setType("ONE_WORD");
+        question.setQuestionText(text);
+        question.setAnswer("answer");
+        question.setQuestionBank(bank);
+        return question;
+    }
+}
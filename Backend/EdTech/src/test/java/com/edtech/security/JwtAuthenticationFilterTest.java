@@ -0,0 +1,118 @@
+package com.edtech.security;
+
+import com.edtech.entity.User;
+import com.edtech.repository.UserRepository;
+import com.edtech.service.UserDetailsServiceImpl;
+import com.edtech.support.SqlCapture;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs bearer-token requests through the filter in each user-details mode and
+ * counts the user lookups they cost.
+ */
+@SpringBootTest
+class JwtAuthenticationFilterTest {
+
+    private static final String EMAIL = "filter@example.com";
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("secret");
+        userRepository.save(user);
+        token = jwtUtil.generateToken(userDetailsService.loadUserByUsername(EMAIL));
+        userDetailsCache.invalidateAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(filter, "mode", "cached");
+        SecurityContextHolder.clearContext();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void cachedModeLooksUpEachUserOnce() throws Exception {
+        double hits = latencyCount("cached", "hit");
+
+        assertThat(authenticate().getName()).isEqualTo(EMAIL);
+        SqlCapture.clear();
+        assertThat(authenticate().getName()).isEqualTo(EMAIL);
+
+        assertThat(userLookups()).isZero();
+        assertThat(latencyCount("cached", "hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void accountChangesDropTheCachedEntry() throws Exception {
+        authenticate();
+        assertThat(userDetailsCache.contains(EMAIL)).isTrue();
+
+        User user = userRepository.findByEmail(EMAIL).orElseThrow();
+        user.setPassword("changed");
+        userRepository.save(user);
+
+        assertThat(userDetailsCache.contains(EMAIL)).isFalse();
+    }
+
+    @Test
+    void claimsModeAuthorizesWithoutLookup() throws Exception {
+        ReflectionTestUtils.setField(filter, "mode", "claims");
+        SqlCapture.clear();
+
+        assertThat(authenticate().getName()).isEqualTo(EMAIL);
+        assertThat(userLookups()).isZero();
+        assertThat(userDetailsCache.contains(EMAIL)).isFalse();
+    }
+
+    private Authentication authenticate() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stats");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private long userLookups() {
+        return SqlCapture.statements().stream().filter(sql -> sql.contains("from users")).count();
+    }
+
+    private double latencyCount(String mode, String result) {
+        var timer = meterRegistry.find("auth.filter.latency").tag("mode", mode).tag("result", result).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
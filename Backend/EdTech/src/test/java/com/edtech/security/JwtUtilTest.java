@@ -0,0 +1,52 @@
+package com.edtech.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Single-parse verification and the verified-token cache.
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void repeatTokensAreAnsweredFromTheCache() {
+        JwtUtil jwtUtil = new JwtUtil(meterRegistry, SECRET, 60_000L, 100, Duration.ofMinutes(5));
+        String token = jwtUtil.generateToken(User.withUsername("jwt@example.com").password("").roles("ADMIN").build());
+
+        VerifiedToken first = jwtUtil.verify(token);
+        VerifiedToken second = jwtUtil.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getSubject()).isEqualTo("jwt@example.com");
+        assertThat(first.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "auth.verified-tokens").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsExpiredAndTamperedTokens() throws InterruptedException {
+        // exp is stored in whole seconds, so a 1 s lifetime can already be over at the first verify
+        JwtUtil jwtUtil = new JwtUtil(meterRegistry, SECRET, 2_000L, 100, Duration.ofMinutes(5));
+        String token = jwtUtil.generateToken(User.withUsername("jwt@example.com").password("").build());
+        jwtUtil.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThatThrownBy(() -> jwtUtil.verify(tampered)).isInstanceOf(JwtException.class);
+
+        Thread.sleep(2_100);
+        assertThatThrownBy(() -> jwtUtil.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+}
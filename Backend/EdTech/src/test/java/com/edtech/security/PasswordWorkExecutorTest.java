@@ -0,0 +1,47 @@
+package com.edtech.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The password pool refuses work once its queue is full instead of waiting.
+ */
+class PasswordWorkExecutorTest {
+
+    @Test
+    void refusesWorkBeyondTheQueue() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordWorkExecutor executor = new PasswordWorkExecutor(meterRegistry, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = executor.submit(() -> await(release, "first"));
+            CompletableFuture<String> queued = executor.submit(() -> "second");
+
+            assertThatThrownBy(() -> executor.submit(() -> "third")).isInstanceOf(RejectedExecutionException.class);
+            assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String await(CountDownLatch latch, String result) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.edtech.security;
+
+import com.edtech.entity.User;
+import com.edtech.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The logout denylist behind its Bloom filter, and refresh-token rotation.
+ */
+@SpringBootTest
+class TokenRevocationServiceTest {
+
+    private static final String EMAIL = "tokens@example.com";
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM revoked_tokens");
+        jdbcTemplate.update("DELETE FROM refresh_tokens");
+        userRepository.deleteById(userId);
+        tokenRevocationService.rebuild();
+    }
+
+    @Test
+    void unrevokedIdsNeverReachTheDatabase() {
+        double lookups = lookups();
+        String revoked = UUID.randomUUID().toString();
+        tokenRevocationService.revoke(revoked, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(tokenRevocationService.isRevoked(UUID.randomUUID().toString())).isFalse();
+        }
+        assertThat(tokenRevocationService.isRevoked(revoked)).isTrue();
+        // One confirmed hit; at 0.1% false positives a stray lookup or two is allowed
+        assertThat(lookups() - lookups).isBetween(1.0, 4.0);
+    }
+
+    @Test
+    void rebuildLoadsOtherInstancesRevocationsAndDropsExpiredOnes() {
+        String elsewhere = UUID.randomUUID().toString();
+        String expired = UUID.randomUUID().toString();
+        insertRevoked(elsewhere, Instant.now().plus(1, ChronoUnit.HOURS));
+        insertRevoked(expired, Instant.now().minus(1, ChronoUnit.MINUTES));
+        assertThat(tokenRevocationService.isRevoked(elsewhere)).isFalse();
+
+        assertThat(tokenRevocationService.rebuild()).isEqualTo(1);
+
+        assertThat(tokenRevocationService.isRevoked(elsewhere)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(expired)).isFalse();
+    }
+
+    @Test
+    void reusingASpentRefreshTokenRevokesItsFamily() {
+        String first = refreshTokenService.issue(userId);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first).orElseThrow();
+        assertThat(rotation.getEmail()).isEqualTo(EMAIL);
+        assertThat(rotation.getRefreshToken()).isNotEqualTo(first);
+
+        assertThat(refreshTokenService.rotate(first)).isEmpty();
+        assertThat(refreshTokenService.rotate(rotation.getRefreshToken())).isEmpty();
+    }
+
+    private void insertRevoked(String jti, Instant expiresAt) {
+        jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?)", jti,
+                Timestamp.from(expiresAt), Timestamp.from(Instant.now()));
+    }
+
+    private double lookups() {
+        return meterRegistry.find("auth.revocation.lookups").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
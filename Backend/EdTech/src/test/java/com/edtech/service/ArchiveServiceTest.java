@@ -0,0 +1,166 @@
+package com.edtech.service;
+
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.User;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Moves cold quizzes and payments into the archive tables in small batches.
+ */
+@SpringBootTest(properties = {
+        "payment.webhook.secret=" + ArchiveServiceTest.SECRET,
+        "quiz.write-behind.flush-interval-ms=3600000",
+        "archive.batch-size=2",
+        "archive.pause-ms=0"
+})
+class ArchiveServiceTest {
+
+    static final String SECRET = "archive-secret";
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private LearningStatsService learningStatsService;
+
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime old = LocalDateTime.now().minusYears(2);
+    private Long userId;
+    private Long bankId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("archive@example.com");
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+
+        QuestionBank bank = new QuestionBank();
+        bank.setName("History");
+        bank.setSubject("history");
+        bank.setUser(user);
+        bankId = questionBankRepository.save(bank).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM user_subject_stats");
+        jdbcTemplate.update("DELETE FROM user_bank_stats");
+        jdbcTemplate.update("DELETE FROM quiz_answers_archive");
+        jdbcTemplate.update("DELETE FROM quizzes_archive");
+        jdbcTemplate.update("DELETE FROM payments_archive");
+        jdbcTemplate.update("DELETE FROM quiz_answers");
+        jdbcTemplate.update("DELETE FROM quizzes");
+        jdbcTemplate.update("DELETE FROM payments");
+        questionBankRepository.deleteById(bankId);
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void movesColdQuizzesWithTheirAnswersAndKeepsThemInStats() {
+        for (int i = 0; i < 5; i++) {
+            quiz(old.plusDays(i), 1, 2);
+        }
+        quiz(LocalDateTime.now(), 2, 2);
+
+        assertThat(archiveService.archiveQuizzes(LocalDateTime.now().minusYears(1))).isEqualTo(5);
+
+        assertThat(count("quizzes")).isEqualTo(1);
+        assertThat(count("quiz_answers")).isEqualTo(1);
+        assertThat(count("quizzes_archive")).isEqualTo(5);
+        assertThat(count("quiz_answers_archive")).isEqualTo(5);
+
+        learningStatsService.backfill();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT attempts FROM user_bank_stats WHERE user_id = ? AND question_bank_id = ?",
+                Integer.class, userId, bankId)).isEqualTo(6);
+    }
+
+    @Test
+    void keepsPendingPaymentsLive() {
+        payment("old-settled", "SUCCEEDED", old);
+        payment("old-refunded", "REFUNDED", old);
+        payment("old-pending", "PENDING", old);
+        payment("new-settled", "SUCCEEDED", LocalDateTime.now());
+
+        assertThat(archiveService.archivePayments(LocalDateTime.now().minusYears(1))).isEqualTo(2);
+
+        assertThat(jdbcTemplate.queryForList("SELECT transaction_id FROM payments ORDER BY transaction_id",
+                String.class)).containsExactly("new-settled", "old-pending");
+        assertThat(count("payments_archive")).isEqualTo(2);
+    }
+
+    @Test
+    void callbacksForArchivedPaymentsDoNotRecreateThem() {
+        payment("late-replay", "SUCCEEDED", old);
+        payment("late-refund", "SUCCEEDED", old);
+        assertThat(archiveService.archivePayments(LocalDateTime.now().minusYears(1))).isEqualTo(2);
+
+        assertThat(callback("late-replay", "SUCCEEDED")).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+        assertThat(callback("late-replay", "PENDING")).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+        assertThat(callback("late-refund", "REFUNDED")).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+
+        assertThat(count("payments")).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM payments_archive ORDER BY transaction_id",
+                String.class)).containsExactly("REFUNDED", "SUCCEEDED");
+    }
+
+    private PaymentWebhookService.Outcome callback(String transactionId, String status) {
+        byte[] body = ("{\"transactionId\":\"" + transactionId + "\",\"status\":\"" + status
+                + "\",\"amount\":5}").getBytes(StandardCharsets.UTF_8);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return paymentWebhookService.ingest(body, HexFormat.of().formatHex(mac.doFinal(body)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void quiz(LocalDateTime createdAt, int score, int total) {
+        String attemptId = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO quizzes (title, user_id, question_bank_id, score, total_questions, "
+                + "attempt_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                "Quiz", userId, bankId, score, total, attemptId, Timestamp.valueOf(createdAt));
+        jdbcTemplate.update("INSERT INTO quiz_answers (attempt_id, question_id, given_answer, correct) "
+                + "VALUES (?, ?, ?, ?)", attemptId, 1L, "answer", true);
+    }
+
+    private void payment(String transactionId, String status, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO payments (user_id, amount, status, transaction_id, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", userId, 5, status, transactionId, Timestamp.valueOf(createdAt));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
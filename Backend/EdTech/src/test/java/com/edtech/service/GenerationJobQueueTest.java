@@ -0,0 +1,201 @@
+package com.edtech.service;
+
+import com.edtech.dto.GenerateResponse;
+import com.edtech.dto.GenerationJobStatus;
+import com.edtech.dto.Question;
+import com.edtech.entity.User;
+import com.edtech.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Claims, leases and retries of the generation job queue against the
+ * embedded database.
+ */
+@SpringBootTest(properties = {
+        "generation.jobs.max-attempts=2",
+        "generation.jobs.retry-backoff=PT0S"
+})
+class GenerationJobQueueTest {
+
+    @Autowired
+    private GenerationJobQueue queue;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("jobs@example.com");
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM generation_jobs");
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void concurrentClaimsSkipRowsLockedByAnotherClaim() throws Exception {
+        long first = enqueue();
+        long second = enqueue();
+        long third = enqueue();
+
+        List<GenerationJob> claimedElsewhere = new TransactionTemplate(transactionManager).execute(tx -> {
+            // Holds the lock on the oldest job the way an in-flight claim on another node would
+            jdbcTemplate.queryForList("SELECT id FROM generation_jobs WHERE id = ? FOR UPDATE", Long.class, first);
+            try {
+                return CompletableFuture.supplyAsync(() -> queue.claim("node-b", 10)).get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(claimedElsewhere).extracting(GenerationJob::getId).containsExactly(second, third);
+        assertThat(queue.claim("node-a", 10)).extracting(GenerationJob::getId).containsExactly(first);
+        assertThat(queue.claim("node-a", 10)).isEmpty();
+    }
+
+    @Test
+    void imageJobsCarryTheUploadedBytes(@TempDir Path dir) throws Exception {
+        byte[] bytes = new byte[300_000];
+        new Random(7).nextBytes(bytes);
+        Path file = Files.write(dir.resolve("page.png"), bytes);
+        try (ImageUpload upload = new ImageUpload(file, "abc", bytes.length, "png", 640, 480)) {
+            queue.enqueueImage(userId, upload, "biology", "easy", 1);
+        }
+
+        GenerationJob job = queue.claim("node-a", 1).get(0);
+        assertThat(job.isImageJob()).isTrue();
+        assertThat(job.getImage()).isEqualTo(bytes);
+        assertThat(job.getImageFormat()).isEqualTo("png");
+        assertThat(job.getImageWidth()).isEqualTo(640);
+    }
+
+    @Test
+    void retriesFailedAttemptsUntilMaxAttempts() {
+        long id = enqueue();
+
+        GenerationJob attempt = queue.claim("node-a", 1).get(0);
+        assertThat(queue.fail(attempt, "node-a", "OCR failed")).isTrue();
+        assertThat(status(id).getStatus()).isEqualTo("QUEUED");
+
+        attempt = queue.claim("node-a", 1).get(0);
+        assertThat(attempt.getAttempts()).isEqualTo(2);
+        assertThat(queue.fail(attempt, "node-a", "OCR failed again")).isTrue();
+
+        GenerationJobStatus status = status(id);
+        assertThat(status.getStatus()).isEqualTo("FAILED");
+        assertThat(status.getError()).isEqualTo("OCR failed again");
+        assertThat(queue.claim("node-a", 1)).isEmpty();
+
+        jdbcTemplate.update("UPDATE generation_jobs SET finished_at = DATEADD('DAY', -30, finished_at)");
+        assertThat(queue.purgeFinished()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredLeasesMoveToAnotherNode() {
+        long id = enqueue();
+        GenerationJob stale = queue.claim("node-a", 1).get(0);
+        jdbcTemplate.update("UPDATE generation_jobs SET lease_until = DATEADD('MINUTE', -5, lease_until)");
+
+        assertThat(queue.reclaimExpired()).isEqualTo(1);
+        GenerationJob current = queue.claim("node-b", 1).get(0);
+
+        assertThat(queue.complete(stale, "node-a", response("stale"))).isFalse();
+        assertThat(queue.complete(current, "node-b", response("fresh"))).isTrue();
+        GenerationJobStatus status = status(id);
+        assertThat(status.getStatus()).isEqualTo("SUCCEEDED");
+        assertThat(status.getResult().getQuestions()).extracting(Question::getQuestion).containsExactly("fresh");
+    }
+
+    @Test
+    void workerRunsClaimedJobs() throws Exception {
+        QuestionGenerationService generationService = Mockito.mock(QuestionGenerationService.class);
+        Mockito.when(generationService.generateQuestionsFromTextOnly("Photosynthesis", "biology", "easy", 1, false))
+                .thenReturn(response("What do plants make?"));
+        GenerationJobWorker worker = new GenerationJobWorker(queue, generationService, new SimpleMeterRegistry(),
+                true, 1, "node-w", 30000);
+        long id = enqueue();
+
+        try {
+            worker.poll();
+            for (int i = 0; i < 50 && !"SUCCEEDED".equals(status(id).getStatus()); i++) {
+                Thread.sleep(100);
+            }
+        } finally {
+            worker.shutdown();
+        }
+
+        assertThat(status(id).getStatus()).isEqualTo("SUCCEEDED");
+        assertThat(status(id).getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void workerFailsTheAttemptWhenTheLlmFails() throws Exception {
+        QuestionGenerationService generationService = Mockito.mock(QuestionGenerationService.class);
+        Mockito.when(generationService.generateQuestionsFromTextOnly("Photosynthesis", "biology", "easy", 1, false))
+                .thenReturn(new GenerateResponse(List.of(), "error", "Failed to call LLM API: 500"));
+        GenerationJobWorker worker = new GenerationJobWorker(queue, generationService, new SimpleMeterRegistry(),
+                true, 1, "node-w", 30000);
+        long id = enqueue();
+
+        try {
+            worker.poll();
+            for (int i = 0; i < 50 && status(id).getError() == null; i++) {
+                Thread.sleep(100);
+            }
+        } finally {
+            worker.shutdown();
+        }
+
+        GenerationJobStatus status = status(id);
+        assertThat(status.getStatus()).isEqualTo("QUEUED");
+        assertThat(status.getAttempts()).isEqualTo(1);
+        assertThat(status.getError()).isEqualTo("Failed to call LLM API: 500");
+        assertThat(status.getResult()).isNull();
+    }
+
+    private long enqueue() {
+        return queue.enqueueText(userId, "Photosynthesis", "biology", "easy", 1);
+    }
+
+    private GenerationJobStatus status(long id) {
+        return queue.find(id, userId).orElseThrow();
+    }
+
+    private static GenerateResponse response(String text) {
+        Question question = new Question();
+        question.setQuestion(text);
+        return new GenerateResponse(List.of(question), "success", "Questions generated successfully");
+    }
+}
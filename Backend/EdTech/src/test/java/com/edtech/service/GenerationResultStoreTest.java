@@ -0,0 +1,77 @@
+package com.edtech.service;
+
+import com.edtech.dto.Question;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keys, upserts and expiry of the generation result store against the
+ * embedded database.
+ */
+@SpringBootTest(properties = "generation.result-store.purge-batch-size=2")
+class GenerationResultStoreTest {
+
+    @Autowired
+    private GenerationResultStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM generation_results");
+    }
+
+    @Test
+    void keyIgnoresWhitespaceAndOptionCaseButNotTheOptions() {
+        String key = GenerationResultStore.key("Cells divide\nby mitosis.", "Biology", "easy", 3, "m");
+
+        assertThat(GenerationResultStore.key("  Cells  divide by\r\nmitosis. ", "biology ", "EASY", 3, "m"))
+                .isEqualTo(key);
+        assertThat(GenerationResultStore.key("cells divide by mitosis.", "biology", "easy", 3, "m")).isNotEqualTo(key);
+        assertThat(GenerationResultStore.key("Cells divide by mitosis.", "biology", "easy", 4, "m")).isNotEqualTo(key);
+        assertThat(GenerationResultStore.key("Cells divide by mitosis.", "biology", "easy", 3, "n")).isNotEqualTo(key);
+    }
+
+    @Test
+    void savedResultsAreFoundAndOverwritten() {
+        String key = GenerationResultStore.key("Photosynthesis", "biology", "easy", 1, "m");
+        assertThat(store.find(key)).isEmpty();
+
+        store.save(key, "m", "biology", "easy", 1, 14, List.of(question("What do plants make?")));
+        store.save(key, "m", "biology", "easy", 1, 14, List.of(question("Where does it happen?")));
+
+        assertThat(store.find(key).orElseThrow()).extracting(Question::getQuestion)
+                .containsExactly("Where does it happen?");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM generation_results", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void expiredResultsAreIgnoredAndPurgedInBatches() {
+        for (int i = 0; i < 5; i++) {
+            store.save(GenerationResultStore.key("text " + i, null, null, null, "m"), "m", null, null, null, 6,
+                    List.of(question("Q" + i)));
+        }
+        String live = GenerationResultStore.key("live", null, null, null, "m");
+        store.save(live, "m", null, null, null, 4, List.of(question("Q")));
+        jdbcTemplate.update("UPDATE generation_results SET expires_at = DATEADD('DAY', -1, CURRENT_TIMESTAMP) "
+                + "WHERE content_hash <> ?", live);
+
+        assertThat(store.find(GenerationResultStore.key("text 0", null, null, null, "m"))).isEmpty();
+        assertThat(store.purgeExpired()).isEqualTo(5);
+        assertThat(store.find(live)).isPresent();
+    }
+
+    private static Question question(String text) {
+        Question question = new Question();
+        question.setQuestion(text);
+        return question;
+    }
+}
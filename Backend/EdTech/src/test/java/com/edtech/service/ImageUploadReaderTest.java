@@ -0,0 +1,137 @@
+package com.edtech.service;
+
+import com.edtech.service.ImageUploadRejectedException.Reason;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Streams uploads through the reader and checks how much of each body it
+ * consumes before refusing it.
+ */
+class ImageUploadReaderTest {
+
+    private static final int MAX_BYTES = 64 * 1024;
+    private static final int BUFFER = 4096;
+
+    private final ImageUploadReader reader = new ImageUploadReader(MAX_BYTES, 1_000_000, BUFFER);
+
+    @Test
+    void acceptsAnImageAndHashesIt() throws Exception {
+        byte[] png = png(40, 20);
+
+        Path spooled;
+        try (ImageUpload upload = reader.read(new ByteArrayInputStream(png), png.length)) {
+            spooled = upload.getPath();
+            assertThat(upload.getFormat()).isEqualTo("png");
+            assertThat(upload.getSize()).isEqualTo(png.length);
+            assertThat(upload.getWidth()).isEqualTo(40);
+            assertThat(upload.getHeight()).isEqualTo(20);
+            assertThat(upload.getSha256())
+                    .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png)));
+            assertThat(Files.readAllBytes(spooled)).isEqualTo(png);
+        }
+        assertThat(spooled).doesNotExist();
+    }
+
+    @Test
+    void refusesNonImagesAfterTheHeader() {
+        CountingStream body = new CountingStream(pattern("%PDF-1.7 "), 1_000_000);
+
+        assertRejected(body, -1, Reason.UNSUPPORTED_TYPE);
+        assertThat(body.consumed).isLessThanOrEqualTo(32);
+    }
+
+    @Test
+    void refusesOversizedBodiesWithoutReadingThemWhole() throws IOException {
+        byte[] header = Arrays.copyOf(png(10, 10), 32);
+        CountingStream undeclared = new CountingStream(header, 10_000_000);
+        assertRejected(undeclared, -1, Reason.TOO_LARGE);
+        assertThat(undeclared.consumed).isLessThanOrEqualTo(MAX_BYTES + BUFFER);
+
+        CountingStream declared = new CountingStream(header, 10_000_000);
+        assertRejected(declared, 10_000_000, Reason.TOO_LARGE);
+        assertThat(declared.consumed).isZero();
+    }
+
+    @Test
+    void refusesHugeDimensionsFromTheHeader() throws IOException {
+        byte[] header = Arrays.copyOf(png(10, 10), 32);
+        // IHDR width and height: 50000 x 50000
+        header[16] = 0;
+        header[17] = 0;
+        header[18] = (byte) 0xC3;
+        header[19] = 0x50;
+        System.arraycopy(header, 16, header, 20, 4);
+        CountingStream body = new CountingStream(header, 5_000);
+
+        assertRejected(body, -1, Reason.TOO_MANY_PIXELS);
+        assertThat(body.consumed).isLessThanOrEqualTo(32);
+    }
+
+    private void assertRejected(InputStream body, long declaredLength, Reason reason) {
+        assertThatThrownBy(() -> reader.read(body, declaredLength))
+                .isInstanceOf(ImageUploadRejectedException.class)
+                .extracting(e -> ((ImageUploadRejectedException) e).getReason())
+                .isEqualTo(reason);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] pattern(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** The given prefix followed by zeros, up to {@code length} bytes, counting what is read. */
+    private static class CountingStream extends InputStream {
+
+        private final byte[] prefix;
+        private final long length;
+        private long consumed;
+
+        CountingStream(byte[] prefix, long length) {
+            this.prefix = prefix;
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            if (consumed >= length) {
+                return -1;
+            }
+            int value = consumed < prefix.length ? prefix[(int) consumed] & 0xFF : 0;
+            consumed++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) {
+            if (consumed >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(count, length - consumed);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = (byte) read();
+            }
+            return n;
+        }
+    }
+}
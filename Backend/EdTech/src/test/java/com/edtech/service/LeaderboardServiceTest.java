@@ -0,0 +1,147 @@
+package com.edtech.service;
+
+import com.edtech.dto.Leaderboard;
+import com.edtech.dto.LeaderboardEntry;
+import com.edtech.dto.QuizAttemptResponse;
+import com.edtech.dto.StartQuizRequest;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.entity.User;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.QuestionRepository;
+import com.edtech.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rebuilds leaderboards from stored quizzes and follows new attempts.
+ */
+@SpringBootTest(properties = {
+        "quiz.write-behind.flush-interval-ms=3600000",
+        "practice.flush-interval-ms=3600000"
+})
+class LeaderboardServiceTest {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private QuizResultWriter quizResultWriter;
+
+    @Autowired
+    private PracticeService practiceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bankId;
+    private Long aliceId;
+    private Long bobId;
+
+    @BeforeEach
+    void setUp() {
+        aliceId = user("alice@example.com", "Alice");
+        bobId = user("bob@example.com", "Bob");
+
+        QuestionBank bank = new QuestionBank();
+        bank.setName("Ranked bank");
+        bank.setUser(userRepository.getReferenceById(aliceId));
+        questionBankRepository.save(bank);
+        bankId = bank.getId();
+
+        QuestionEntity question = new QuestionEntity();
+        question.setType("ONE_WORD");
+        question.setQuestionText("2 + 2?");
+        question.setAnswer("4");
+        question.setQuestionBank(bank);
+        questionRepository.save(question);
+    }
+
+    @AfterEach
+    void tearDown() {
+        practiceService.flush();
+        jdbcTemplate.update("DELETE FROM review_states");
+        jdbcTemplate.update("DELETE FROM user_subject_stats");
+        jdbcTemplate.update("DELETE FROM user_bank_stats");
+        jdbcTemplate.update("DELETE FROM quiz_answers");
+        jdbcTemplate.update("DELETE FROM quizzes");
+        questionRepository.deleteAll(questionRepository.findByQuestionBankId(bankId));
+        questionBankRepository.deleteById(bankId);
+        userRepository.deleteAllById(List.of(aliceId, bobId));
+    }
+
+    @Test
+    void rebuildsFromStoredQuizzes() {
+        insertQuiz(aliceId, 6, 10, "2026-01-01 10:00:00");
+        insertQuiz(aliceId, 8, 10, "2026-01-02 10:00:00");
+        insertQuiz(bobId, 16, 20, "2026-01-01 09:00:00");
+
+        leaderboardService.rebuild();
+
+        Leaderboard board = leaderboardService.getLeaderboard(bankId, "alice@example.com", 10).orElseThrow();
+        assertThat(board.getParticipants()).isEqualTo(2);
+        // Same percentage: Bob reached it first
+        assertThat(board.getTop()).extracting(LeaderboardEntry::getFirstName).containsExactly("Bob", "Alice");
+        assertThat(board.getMe().getRank()).isEqualTo(2);
+        assertThat(board.getMe().getPercentage()).isEqualTo(80.0);
+    }
+
+    @Test
+    void followsAttemptsOnceTheyAreWritten() {
+        StartQuizRequest request = new StartQuizRequest();
+        request.setQuestionBankId(bankId);
+        QuizAttemptResponse attempt = quizAttemptService.start("bob@example.com", request).orElseThrow();
+        Long questionId = Long.valueOf(attempt.getQuestions().get(0).getId());
+        quizAttemptService.submit("bob@example.com", attempt.getAttemptId(), Map.of(questionId, "4"));
+
+        assertThat(leaderboardService.getLeaderboard(bankId, "bob@example.com", 10).orElseThrow().getMe())
+                .isNull();
+
+        quizResultWriter.flush();
+
+        Leaderboard board = leaderboardService.getLeaderboard(bankId, "bob@example.com", 10).orElseThrow();
+        assertThat(board.getMe().getRank()).isEqualTo(1);
+        assertThat(board.getMe().getScore()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownBankIsNotFound() {
+        assertThat(leaderboardService.getLeaderboard(-1L, "alice@example.com", 10)).isEmpty();
+    }
+
+    private Long user(String email, String firstName) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setFirstName(firstName);
+        return userRepository.save(user).getId();
+    }
+
+    private void insertQuiz(Long userId, int score, int total, String createdAt) {
+        jdbcTemplate.update("INSERT INTO quizzes (title, user_id, question_bank_id, score, total_questions, "
+                + "created_at) VALUES (?, ?, ?, ?, ?, ?)", "Quiz", userId, bankId, score, total,
+                Timestamp.valueOf(createdAt));
+    }
+}
@@ -0,0 +1,175 @@
+package com.edtech.service;
+
+import com.edtech.dto.LearningStats;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.User;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that incremental aggregation and the backfill produce the same stats.
+ */
+@SpringBootTest(properties = "quiz.write-behind.flush-interval-ms=3600000")
+class LearningStatsServiceTest {
+
+    @Autowired
+    private LearningStatsService learningStatsService;
+
+    @Autowired
+    private QuizResultWriter quizResultWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long biologyId;
+    private Long historyId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("learner@example.com");
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+        biologyId = bank(user, "Cells", "biology");
+        historyId = bank(user, "Rome", "history");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM user_subject_stats");
+        jdbcTemplate.update("DELETE FROM user_bank_stats");
+        jdbcTemplate.update("DELETE FROM quiz_answers");
+        jdbcTemplate.update("DELETE FROM quizzes");
+        questionBankRepository.deleteAllById(List.of(biologyId, historyId));
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void aggregatesAttemptsIncrementally() {
+        record(biologyId, 9, 10);
+        record(biologyId, 7, 10);
+        record(historyId, 1, 4);
+        quizResultWriter.flush();
+        record(historyId, 2, 4);
+        quizResultWriter.flush();
+
+        LearningStats stats = learningStatsService.getStats(userId);
+
+        Map<String, LearningStats.SubjectStats> bySubject = bySubject(stats);
+        assertThat(bySubject.get("biology").getAttempts()).isEqualTo(2);
+        assertThat(bySubject.get("biology").getAveragePercentage()).isEqualTo(80.0);
+        assertThat(bySubject.get("biology").getBestPercentage()).isEqualTo(90.0);
+        assertThat(bySubject.get("history").getAttempts()).isEqualTo(2);
+        assertThat(bySubject.get("history").getAveragePercentage()).isEqualTo(37.5);
+        assertThat(stats.getWeakSubjects()).containsExactly("history");
+        assertThat(stats.getBanks()).hasSize(2);
+    }
+
+    @Test
+    void backfillMatchesIncrementalStatsAndCanBeRerun() {
+        record(biologyId, 9, 10);
+        record(biologyId, 2, 3);
+        record(historyId, 1, 4);
+        quizResultWriter.flush();
+        List<Map<String, Object>> incremental = snapshot();
+
+        jdbcTemplate.update("DELETE FROM user_subject_stats");
+        jdbcTemplate.update("DELETE FROM user_bank_stats");
+        assertThat(learningStatsService.backfill()).isGreaterThanOrEqualTo(1);
+        assertThat(snapshot()).isEqualTo(incremental);
+
+        learningStatsService.backfill();
+        assertThat(snapshot()).isEqualTo(incremental);
+    }
+
+    @Test
+    void failedFoldKeepsTheQuizzesAndTheSweepAppliesThemOnce() {
+        record(biologyId, 9, 10);
+        record(historyId, 1, 4);
+        flushWithStatsOffline();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quizzes WHERE stats_applied = FALSE",
+                Integer.class)).isEqualTo(2);
+        assertThat(learningStatsService.getStats(userId).getSubjects()).isEmpty();
+
+        assertThat(learningStatsService.foldPending()).isEqualTo(2);
+        assertThat(learningStatsService.foldPending()).isZero();
+
+        Map<String, LearningStats.SubjectStats> bySubject = bySubject(learningStatsService.getStats(userId));
+        assertThat(bySubject.get("biology").getAttempts()).isEqualTo(1);
+        assertThat(bySubject.get("history").getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void backfillCountsPendingQuizzesOnce() {
+        record(biologyId, 9, 10);
+        quizResultWriter.flush();
+        record(biologyId, 7, 10);
+        flushWithStatsOffline();
+
+        learningStatsService.backfill();
+        assertThat(learningStatsService.foldPending()).isZero();
+
+        LearningStats.SubjectStats biology = bySubject(learningStatsService.getStats(userId)).get("biology");
+        assertThat(biology.getAttempts()).isEqualTo(2);
+        assertThat(biology.getAveragePercentage()).isEqualTo(80.0);
+    }
+
+    // The quiz batch commits; only the stats fold after it fails
+    private void flushWithStatsOffline() {
+        jdbcTemplate.execute("ALTER TABLE user_bank_stats RENAME TO user_bank_stats_offline");
+        try {
+            assertThat(quizResultWriter.flush()).isPositive();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE user_bank_stats_offline RENAME TO user_bank_stats");
+        }
+        assertThat(quizResultWriter.pending()).isZero();
+    }
+
+    private void record(Long bankId, int score, int total) {
+        quizResultWriter.enqueue(new CompletedAttempt(UUID.randomUUID().toString(), userId, bankId, "Quiz", score,
+                total, LocalDateTime.now(), List.of()));
+    }
+
+    private List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT * FROM user_subject_stats WHERE user_id = ? ORDER BY subject", userId);
+        rows.addAll(jdbcTemplate.queryForList(
+                "SELECT * FROM user_bank_stats WHERE user_id = ? ORDER BY question_bank_id", userId));
+        return rows;
+    }
+
+    private Long bank(User user, String name, String subject) {
+        QuestionBank bank = new QuestionBank();
+        bank.setName(name);
+        bank.setSubject(subject);
+        bank.setUser(user);
+        return questionBankRepository.save(bank).getId();
+    }
+
+    private static Map<String, LearningStats.SubjectStats> bySubject(LearningStats stats) {
+        return stats.getSubjects().stream()
+                .collect(Collectors.toMap(LearningStats.SubjectStats::getSubject, s -> s));
+    }
+}
@@ -0,0 +1,176 @@
+package com.edtech.service;
+
+import com.edtech.service.PerceptualHash.Fingerprint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.RescaleOp;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fingerprints of re-photographed and of look-alike pages, BK-tree search
+ * against a linear scan, and eviction from the OCR reuse index.
+ */
+class OcrReuseIndexTest {
+
+    private static final String[] WORDS = { "lorem", "ipsum", "dolor", "sit", "amet" };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void retakenPhotosOfAPageMatchAndOtherPagesDoNot() throws Exception {
+        BufferedImage page = page("Photosynthesis", 0);
+        OcrReuseIndex index = new OcrReuseIndex(true, 6, 0.94, 100);
+        index.add(PerceptualHash.of(write(page, "png")), "photosynthesis text");
+        index.add(PerceptualHash.of(write(page("Mitosis", 1), "png")), "mitosis text");
+
+        BufferedImage tilted = rotate(page, 1.5);
+        BufferedImage smallerAndBrighter = new RescaleOp(1.0f, 40f, null).filter(scale(page, 0.35), null);
+        BufferedImage darker = new RescaleOp(0.7f, 0f, null).filter(page, null);
+
+        for (BufferedImage retaken : List.of(tilted, smallerAndBrighter, darker)) {
+            assertThat(index.find(PerceptualHash.of(write(retaken, "jpg")))).contains("photosynthesis text");
+        }
+        // Same title and layout, different text
+        assertThat(index.find(PerceptualHash.of(write(page("Photosynthesis", 2), "png")))).isEmpty();
+    }
+
+    @Test
+    void differentPagesWithTheSameLayoutDoNotMatch() {
+        OcrReuseIndex index = new OcrReuseIndex(true, 6, 0.94, 100);
+        List<Fingerprint> pages = new ArrayList<>();
+        int hashMatches = 0;
+        for (int seed = 0; seed < 24; seed++) {
+            Fingerprint page = PerceptualHash.of(page(seed % 2 == 0 ? "Photosynthesis" : "Respiration", seed));
+            for (Fingerprint earlier : pages) {
+                if (PerceptualHash.distance(page.hash, earlier.hash) <= 6) {
+                    hashMatches++;
+                }
+            }
+            assertThat(index.find(page)).isEmpty();
+            index.add(page, "page " + seed);
+            pages.add(page);
+        }
+        // The hash alone would have served some of them another page's text
+        assertThat(hashMatches).isPositive();
+    }
+
+    @Test
+    void bkTreeFindsTheSameEntriesAsALinearScan() {
+        Random random = new Random(42);
+        BkTree<Integer> tree = new BkTree<>();
+        List<Long> hashes = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long hash = random.nextLong();
+            hashes.add(hash);
+            tree.put(hash, i);
+        }
+        assertThat(tree.size()).isEqualTo(hashes.size());
+
+        for (int query = 0; query < 500; query++) {
+            // Half the queries are a few bits away from a stored hash
+            long hash = query % 2 == 0 ? random.nextLong()
+                    : hashes.get(random.nextInt(hashes.size())) ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < hashes.size(); i++) {
+                if (PerceptualHash.distance(hashes.get(i), hash) <= 12) {
+                    expected.add(i);
+                }
+            }
+            List<BkTree.Match<Integer>> matches = tree.within(hash, 12);
+            assertThat(matches).extracting(match -> match.value).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(matches).extracting(match -> match.distance).isSorted();
+        }
+    }
+
+    @Test
+    void dropsTheOldestQuarterWhenFull() {
+        OcrReuseIndex index = new OcrReuseIndex(true, 0, 0.94, 8);
+        for (long hash = 0; hash < 8; hash++) {
+            index.add(fingerprint(hash), "text " + hash);
+        }
+        index.add(fingerprint(0L), "text 0 again");
+        index.add(fingerprint(8L), "text 8");
+
+        assertThat(index.size()).isEqualTo(7);
+        assertThat(index.find(fingerprint(1L))).isEmpty();
+        assertThat(index.find(fingerprint(2L))).isEmpty();
+        assertThat(index.find(fingerprint(0L))).contains("text 0 again");
+        assertThat(index.find(fingerprint(8L))).contains("text 8");
+    }
+
+    // The same line profile for every hash, so only the hash decides
+    private static Fingerprint fingerprint(long hash) {
+        byte[] profile = new byte[256];
+        for (int i = 0; i < profile.length; i++) {
+            profile[i] = (byte) i;
+        }
+        return new Fingerprint(hash, profile);
+    }
+
+    private Path write(BufferedImage image, String format) throws Exception {
+        Path file = dir.resolve(System.nanoTime() + "." + format);
+        ImageIO.write(image, format, file.toFile());
+        return file;
+    }
+
+    // A worksheet-like page; pages share margins, fonts and line spacing, like real ones
+    private static BufferedImage page(String title, long seed) {
+        int width = 2400;
+        int height = 3200;
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(new Color(235, 230, 220));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.DARK_GRAY);
+        g.setFont(new Font(Font.SERIF, Font.BOLD, width / 14));
+        g.drawString(title, width / 10, height / 10);
+        g.setFont(new Font(Font.SERIF, Font.PLAIN, width / 40));
+        for (int y = height / 6; y < height * 9 / 10; y += height / 28) {
+            StringBuilder line = new StringBuilder();
+            int words = 4 + random.nextInt(8);
+            for (int w = 0; w < words; w++) {
+                line.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            g.drawString(line.toString(), width / 10, y);
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage image, double factor) {
+        int width = (int) (image.getWidth() * factor);
+        int height = (int) (image.getHeight() * factor);
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    private static BufferedImage rotate(BufferedImage image, double degrees) {
+        BufferedImage rotated = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rotated.createGraphics();
+        g.setColor(new Color(235, 230, 220));
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.rotate(Math.toRadians(degrees), image.getWidth() / 2.0, image.getHeight() / 2.0);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return rotated;
+    }
+}
@@ -0,0 +1,84 @@
+package com.edtech.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.edtech.config.RequestTraceFilter;
+import com.edtech.util.Sha256;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sampling, truncation and the full-capture toggle of the payload logger.
+ */
+class PayloadLoggerTest {
+
+    private static final String TEXT = "x".repeat(100);
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(PayloadLogger.LOGGER_NAME);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+        MDC.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void logsSampledPayloadsTruncatedWithTheirHash() {
+        PayloadLogger payloadLogger = new PayloadLogger(0, 1, 0, 10);
+
+        payloadLogger.ocrText(TEXT);
+        payloadLogger.prompt(TEXT);
+
+        assertThat(appender.list).hasSize(1);
+        String message = appender.list.get(0).getFormattedMessage();
+        assertThat(message).startsWith("prompt [len=100 sha256=" + Sha256.hex(TEXT) + "]")
+                .endsWith(": xxxxxxxxxx...");
+    }
+
+    @Test
+    void capturesFullPayloadsForOneRequestOrUser() {
+        PayloadLogger payloadLogger = new PayloadLogger(0, 0, 0, 10);
+        payloadLogger.captureRequest("req-1", Duration.ofMinutes(5));
+        payloadLogger.captureUser("Debug@Example.com", Duration.ofMinutes(5));
+
+        MDC.put(RequestTraceFilter.MDC_KEY, "req-2");
+        payloadLogger.llmResponse(TEXT);
+        assertThat(appender.list).isEmpty();
+
+        MDC.put(RequestTraceFilter.MDC_KEY, "req-1");
+        payloadLogger.llmResponse(TEXT);
+        MDC.put(RequestTraceFilter.MDC_KEY, "req-3");
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("debug@example.com", ""));
+        payloadLogger.ocrText(TEXT);
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .allMatch(message -> message.contains("[full len=100") && message.endsWith(TEXT))
+                .hasSize(2);
+
+        payloadLogger.stopAllCaptures();
+        payloadLogger.ocrText(TEXT);
+        assertThat(appender.list).hasSize(2);
+        assertThat(payloadLogger.activeCaptures()).isEmpty();
+    }
+}
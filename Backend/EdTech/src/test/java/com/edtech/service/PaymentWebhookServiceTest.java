@@ -0,0 +1,265 @@
+package com.edtech.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the webhook intake and the reconciliation job against the embedded
+ * database and a stub gateway served from a local HTTP server.
+ */
+@SpringBootTest(properties = {
+        "payment.webhook.secret=" + PaymentWebhookServiceTest.SECRET,
+        "payment.reconciliation.interval-ms=3600000",
+        "payment.reconciliation.chunk-size=2"
+})
+class PaymentWebhookServiceTest {
+
+    static final String SECRET = "test-secret";
+
+    // Stub gateway: transaction id -> status, and the ids asked for in each request
+    private static final Map<String, String> gatewayStatuses = new ConcurrentHashMap<>();
+    private static final List<String> gatewayRequests = new CopyOnWriteArrayList<>();
+    private static final HttpServer gateway = startGateway();
+
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+
+    @Autowired
+    private PaymentReconciliationService paymentReconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void gatewayUrl(DynamicPropertyRegistry registry) {
+        registry.add("payment.gateway.base-url", () -> "http://localhost:" + gateway.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM payments");
+        gatewayStatuses.clear();
+        gatewayRequests.clear();
+    }
+
+    @AfterAll
+    static void stopGateway() {
+        gateway.stop(0);
+    }
+
+    @Test
+    void replaysAreDroppedAndStatusOnlyMovesForward() {
+        assertThat(send("txn-a", "succeeded")).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+        assertThat(send("txn-a", "SUCCEEDED")).isEqualTo(PaymentWebhookService.Outcome.DUPLICATE);
+        assertThat(send("txn-a", "PENDING")).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+        assertThat(send("txn-b", "PENDING")).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+
+        // Accepted callbacks are already committed
+        assertThat(status("txn-a")).isEqualTo("SUCCEEDED");
+        assertThat(status("txn-b")).isEqualTo("PENDING");
+
+        send("txn-a", "REFUNDED");
+        send("txn-b", "FAILED");
+        assertThat(status("txn-a")).isEqualTo("REFUNDED");
+        assertThat(status("txn-b")).isEqualTo("FAILED");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void failedWriteIsNotAcknowledgedAndItsRedeliveryIsWritten() {
+        jdbcTemplate.execute("ALTER TABLE payments RENAME TO payments_offline");
+        try {
+            assertThat(send("txn-d", "SUCCEEDED")).isEqualTo(PaymentWebhookService.Outcome.BUSY);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE payments_offline RENAME TO payments");
+        }
+
+        assertThat(send("txn-d", "SUCCEEDED")).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+        assertThat(status("txn-d")).isEqualTo("SUCCEEDED");
+    }
+
+    @Test
+    void replayDuringAFailingWriteIsNotAcknowledged() throws Exception {
+        insertPending("txn-e", LocalDateTime.now());
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            // Holds the payment's row lock, so the writer's upsert waits for it and then fails
+            Future<?> holder = threads.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(tx -> {
+                        jdbcTemplate.queryForList("SELECT id FROM payments WHERE transaction_id = 'txn-e' FOR UPDATE");
+                        locked.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            locked.await();
+            Future<PaymentWebhookService.Outcome> first = threads.submit(() -> send("txn-e", "SUCCEEDED"));
+            // Queued or being written by now
+            Thread.sleep(200);
+
+            assertThat(send("txn-e", "SUCCEEDED")).isEqualTo(PaymentWebhookService.Outcome.BUSY);
+            assertThat(first.get()).isEqualTo(PaymentWebhookService.Outcome.BUSY);
+            release.countDown();
+            holder.get();
+        } finally {
+            release.countDown();
+            threads.shutdown();
+        }
+
+        assertThat(send("txn-e", "SUCCEEDED")).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+        assertThat(status("txn-e")).isEqualTo("SUCCEEDED");
+    }
+
+    @Test
+    void concurrentCallbacksAreAllWritten() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<PaymentWebhookService.Outcome>> outcomes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String transactionId = "txn-burst-" + i;
+                outcomes.add(callers.submit(() -> send(transactionId, "SUCCEEDED")));
+            }
+            for (Future<PaymentWebhookService.Outcome> outcome : outcomes) {
+                assertThat(outcome.get()).isEqualTo(PaymentWebhookService.Outcome.ACCEPTED);
+            }
+        } finally {
+            callers.shutdown();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments WHERE transaction_id LIKE 'txn-burst-%'",
+                Integer.class)).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsBadSignaturesAndPayloads() {
+        byte[] body = payload("txn-c", "PENDING");
+
+        assertThat(paymentWebhookService.ingest(body, null))
+                .isEqualTo(PaymentWebhookService.Outcome.INVALID_SIGNATURE);
+        assertThat(paymentWebhookService.ingest(body, sign("{}".getBytes(StandardCharsets.UTF_8))))
+                .isEqualTo(PaymentWebhookService.Outcome.INVALID_SIGNATURE);
+        byte[] unknownStatus = payload("txn-c", "LOST");
+        assertThat(paymentWebhookService.ingest(unknownStatus, sign(unknownStatus)))
+                .isEqualTo(PaymentWebhookService.Outcome.INVALID_PAYLOAD);
+        assertThat(paymentWebhookService.pending()).isZero();
+    }
+
+    @Test
+    void reconciliationWalksPendingPaymentsInChunks() {
+        LocalDateTime old = LocalDateTime.now().minusHours(1);
+        for (int i = 1; i <= 5; i++) {
+            insertPending("rec-" + i, old);
+        }
+        insertPending("rec-new", LocalDateTime.now());
+        gatewayStatuses.put("rec-1", "SUCCEEDED");
+        gatewayStatuses.put("rec-2", "PENDING");
+        gatewayStatuses.put("rec-4", "FAILED");
+        gatewayStatuses.put("rec-5", "SUCCEEDED");
+        gatewayStatuses.put("rec-new", "SUCCEEDED");
+
+        assertThat(paymentReconciliationService.reconcile()).isEqualTo(3);
+
+        assertThat(gatewayRequests).containsExactly("rec-1,rec-2", "rec-3,rec-4", "rec-5");
+        assertThat(status("rec-1")).isEqualTo("SUCCEEDED");
+        assertThat(status("rec-2")).isEqualTo("PENDING");
+        assertThat(status("rec-3")).isEqualTo("PENDING");
+        assertThat(status("rec-4")).isEqualTo("FAILED");
+        assertThat(status("rec-new")).isEqualTo("PENDING");
+    }
+
+    private PaymentWebhookService.Outcome send(String transactionId, String status) {
+        byte[] body = payload(transactionId, status);
+        return paymentWebhookService.ingest(body, sign(body));
+    }
+
+    private String status(String transactionId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM payments WHERE transaction_id = ?", String.class,
+                transactionId);
+    }
+
+    private void insertPending(String transactionId, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO payments (amount, status, transaction_id, created_at) VALUES (?, ?, ?, ?)",
+                10, "PENDING", transactionId, Timestamp.valueOf(createdAt));
+    }
+
+    private static byte[] payload(String transactionId, String status) {
+        return ("{\"transactionId\":\"" + transactionId + "\",\"status\":\"" + status
+                + "\",\"amount\":19.99,\"paymentMethod\":\"card\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpServer startGateway() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/transactions", exchange -> {
+                String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+                String ids = query.substring("ids=".length());
+                gatewayRequests.add(ids);
+                List<String> entries = new ArrayList<>();
+                for (String id : ids.split(",")) {
+                    String status = gatewayStatuses.get(id);
+                    if (status != null) {
+                        entries.add("{\"transactionId\":\"" + id + "\",\"status\":\"" + status + "\"}");
+                    }
+                }
+                byte[] response = ("[" + String.join(",", entries) + "]").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.edtech.service;
+
+import com.edtech.dto.DueQuestion;
+import com.edtech.dto.QuizAttemptResponse;
+import com.edtech.dto.ReviewRequest;
+import com.edtech.dto.ReviewResult;
+import com.edtech.dto.StartQuizRequest;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.entity.User;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.QuestionRepository;
+import com.edtech.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Schedules reviews from quiz results and self-assessment, and checks that
+ * due questions are served from memory.
+ */
+@SpringBootTest(properties = {
+        "quiz.write-behind.flush-interval-ms=3600000",
+        "practice.flush-interval-ms=3600000",
+        "practice.relearn-delay=PT0S",
+        "practice.retry-backoff=PT0S"
+})
+class PracticeServiceTest {
+
+    @Autowired
+    private PracticeService practiceService;
+
+    @Autowired
+    private QuizResultWriter quizResultWriter;
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // User ids are cached by email, so each test gets its own address
+    private final String email = "practice-" + UUID.randomUUID() + "@example.com";
+    private Long userId;
+    private Long bankId;
+    private Long mcqId;
+    private Long oneWordId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+
+        QuestionBank bank = new QuestionBank();
+        bank.setName("Elements");
+        bank.setUser(user);
+        bankId = questionBankRepository.save(bank).getId();
+
+        mcqId = questionRepository.save(question(bank, "MCQ", "Symbol for gold?", List.of("Ag", "Au"), "Au")).getId();
+        oneWordId = questionRepository.save(question(bank, "ONE_WORD", "Symbol for iron?", null, "Fe")).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        practiceService.flush();
+        jdbcTemplate.update("DELETE FROM review_states");
+        jdbcTemplate.update("DELETE FROM user_subject_stats");
+        jdbcTemplate.update("DELETE FROM user_bank_stats");
+        jdbcTemplate.update("DELETE FROM quiz_answers");
+        jdbcTemplate.update("DELETE FROM quizzes");
+        questionRepository.deleteAll(questionRepository.findByQuestionBankId(bankId));
+        questionBankRepository.deleteById(bankId);
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void wrongQuizAnswersBecomeDueReviews() {
+        quizResultWriter.enqueue(new CompletedAttempt(UUID.randomUUID().toString(), userId, bankId, "Quiz", 1, 2,
+                LocalDateTime.now(), List.of(
+                        new CompletedAttempt.GradedAnswer(mcqId, "Ag", false),
+                        new CompletedAttempt.GradedAnswer(oneWordId, "Fe", true))));
+        quizResultWriter.flush();
+
+        List<DueQuestion> due = practiceService.getDue(email, 10).orElseThrow();
+
+        assertThat(due).singleElement().satisfies(d -> {
+            assertThat(d.getQuestion().getId()).isEqualTo(String.valueOf(mcqId));
+            assertThat(d.getQuestion().getAnswer()).isNull();
+            assertThat(d.getQuestionBankId()).isEqualTo(bankId);
+            assertThat(d.getLapses()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void reviewsFollowSm2AndSurviveEviction() {
+        ReviewResult first = review(oneWordId, "fe", null);
+        assertThat(first.getCorrect()).isTrue();
+        assertThat(first.getQuality()).isEqualTo(PracticeService.CORRECT_QUALITY);
+        assertThat(first.getIntervalDays()).isEqualTo(1);
+
+        ReviewResult second = review(oneWordId, null, 5);
+        assertThat(second.getIntervalDays()).isEqualTo(6);
+        assertThat(second.getEaseFactor()).isCloseTo(2.6, within(0.001));
+
+        ReviewResult lapse = review(mcqId, "A", null);
+        assertThat(lapse.getCorrect()).isFalse();
+        assertThat(lapse.getIntervalDays()).isZero();
+
+        assertThat(practiceService.flush()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT interval_days FROM review_states WHERE user_id = ? AND question_id = ?",
+                Integer.class, userId, oneWordId)).isEqualTo(6);
+
+        // A fresh queue built from the table serves the same due questions
+        practiceService.evict(userId);
+        assertThat(practiceService.getDue(email, 10).orElseThrow())
+                .extracting(d -> d.getQuestion().getId())
+                .containsExactly(String.valueOf(mcqId));
+    }
+
+    @Test
+    void keepsReviewsWhoseWriteFailedAndRetriesThem() {
+        review(oneWordId, null, 5);
+        review(mcqId, "Au", null);
+        jdbcTemplate.execute("ALTER TABLE review_states RENAME TO review_states_offline");
+        try {
+            assertThat(practiceService.flush()).isZero();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE review_states_offline RENAME TO review_states");
+        }
+        // The states outlive their queue; one of them now points at a deleted question
+        practiceService.evict(userId);
+        questionRepository.deleteById(mcqId);
+
+        assertThat(practiceService.flush()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT question_id FROM review_states WHERE user_id = ?",
+                Long.class, userId)).containsExactly(oneWordId);
+        assertThat(practiceService.flush()).isZero();
+    }
+
+    @Test
+    void refusesQuestionsOfAnUnsubmittedAttempt() {
+        StartQuizRequest start = new StartQuizRequest();
+        start.setQuestionBankId(bankId);
+        QuizAttemptResponse attempt = quizAttemptService.start(email, start).orElseThrow();
+
+        assertThatThrownBy(() -> practiceService.review(email, request(mcqId, "Au", null)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> practiceService.review(email, request(oneWordId, null, 5)))
+                .isInstanceOf(IllegalStateException.class);
+
+        quizAttemptService.submit(email, attempt.getAttemptId(), Map.of()).orElseThrow();
+        assertThat(review(mcqId, "Au", null).getCorrectAnswer()).isEqualTo("Au");
+        quizResultWriter.flush();
+    }
+
+    @Test
+    void onlyScheduledOrOwnQuestionsCanBeReviewed() {
+        User other = new User();
+        other.setEmail("other-" + email);
+        other.setPassword("secret");
+        userRepository.save(other);
+        try {
+            assertThat(practiceService.review(other.getEmail(), request(mcqId, "Au", null))).isEmpty();
+
+            // A wrong quiz answer puts the question in the other user's queue
+            quizResultWriter.enqueue(new CompletedAttempt(UUID.randomUUID().toString(), other.getId(), bankId,
+                    "Quiz", 0, 1, LocalDateTime.now(), List.of(new CompletedAttempt.GradedAnswer(mcqId, "Ag", false))));
+            quizResultWriter.flush();
+
+            assertThat(practiceService.review(other.getEmail(), request(mcqId, "Au", null))).isPresent();
+            assertThat(practiceService.review(other.getEmail(), request(oneWordId, "Fe", null))).isEmpty();
+        } finally {
+            practiceService.flush();
+            jdbcTemplate.update("DELETE FROM review_states WHERE user_id = ?", other.getId());
+            jdbcTemplate.update("DELETE FROM user_subject_stats WHERE user_id = ?", other.getId());
+            jdbcTemplate.update("DELETE FROM user_bank_stats WHERE user_id = ?", other.getId());
+            jdbcTemplate.update("DELETE FROM quiz_answers");
+            jdbcTemplate.update("DELETE FROM quizzes");
+            userRepository.deleteById(other.getId());
+        }
+    }
+
+    private ReviewResult review(Long questionId, String answer, Integer quality) {
+        return practiceService.review(email, request(questionId, answer, quality)).orElseThrow();
+    }
+
+    private static ReviewRequest request(Long questionId, String answer, Integer quality) {
+        ReviewRequest request = new ReviewRequest();
+        request.setQuestionId(questionId);
+        request.setAnswer(answer);
+        request.setQuality(quality);
+        return request;
+    }
+
+    private static QuestionEntity question(QuestionBank bank, String type, String text, List<String> options,
+            String answer) {
+        QuestionEntity question = new QuestionEntity();
+        question.setType(type);
+        question.setQuestionText(text);
+        question.setOptions(options);
+        question.setAnswer(answer);
+        question.setQuestionBank(bank);
+        return question;
+    }
+}
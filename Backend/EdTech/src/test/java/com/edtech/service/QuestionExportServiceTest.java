@@ -0,0 +1,161 @@
+package com.edtech.service;
+
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.entity.User;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.QuestionRepository;
+import com.edtech.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a bank in both formats and checks that streamed entities do not
+ * pile up in the persistence context.
+ */
+@SpringBootTest
+class QuestionExportServiceTest {
+
+    @Autowired
+    private QuestionExportService exportService;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+    private Long bankId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("export@example.com");
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+
+        QuestionBank bank = new QuestionBank();
+        bank.setName("Export bank");
+        bank.setUser(user);
+        bankId = questionBankRepository.save(bank).getId();
+
+        QuestionEntity question = new QuestionEntity();
+        question.setType("MCQ");
+        question.setQuestionText("Which is \"largest\", 2, 3\nor 4?");
+        question.setOptions(List.of("2", "3", "4"));
+        question.setAnswer("4");
+        question.setDifficulty("easy");
+        question.setQuestionBank(bank);
+        questionRepository.save(question);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM questions WHERE question_bank_id = ?", bankId);
+        questionBankRepository.deleteById(bankId);
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void writesNdjsonLines() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exportService.export(bankId, QuestionExportService.Format.NDJSON, out)).isEqualTo(1);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1);
+        JsonNode row = new ObjectMapper().readTree(lines[0]);
+        assertThat(row.get("question").asText()).isEqualTo("Which is \"largest\", 2, 3\nor 4?");
+        assertThat(row.get("options")).extracting(JsonNode::asText).containsExactly("2", "3", "4");
+        assertThat(row.get("answer").asText()).isEqualTo("4");
+    }
+
+    @Test
+    void writesQuotedCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(bankId, QuestionExportService.Format.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("id,type,question,options,answer,explanation,difficulty\r\n");
+        assertThat(csv).endsWith(",MCQ,\"Which is \"\"largest\"\", 2, 3\nor 4?\",\"[\"\"2\"\",\"\"3\"\",\"\"4\"\"]\",4,,easy\r\n");
+    }
+
+    @Test
+    void detachesEveryRowBeforeItIsWritten() {
+        int extra = 2 * QuestionRepository.EXPORT_FETCH_SIZE + 50;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < extra; i++) {
+            rows.add(new Object[] { bankId, "ONE_WORD", "Question " + i, "answer", now });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO questions (question_bank_id, type, question_text, answer, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", rows);
+
+        // Run inside an outer transaction so the export's persistence context can be inspected while it streams
+        List<Integer> managedAtFlush = new ArrayList<>();
+        Long written = new TransactionTemplate(transactionManager).execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            OutputStream out = new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+
+                @Override
+                public void flush() {
+                    managedAtFlush.add(session.getStatistics().getEntityCount());
+                }
+            };
+            try {
+                long count = exportService.export(bankId, QuestionExportService.Format.NDJSON, out);
+                assertThat(session.getStatistics().getEntityCount()).isZero();
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        assertThat(written).isEqualTo(extra + 1);
+        // One flush per fetch-size rows plus the final one
+        assertThat(managedAtFlush).hasSizeGreaterThanOrEqualTo(3).containsOnly(0);
+    }
+}
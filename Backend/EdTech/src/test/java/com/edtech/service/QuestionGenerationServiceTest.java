@@ -0,0 +1,188 @@
+package com.edtech.service;
+
+import com.edtech.dto.GenerateResponse;
+import com.edtech.dto.Question;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.RescaleOp;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Stage timers, parse-strategy counters and token usage for the text path,
+ * against a stubbed LLM API.
+ */
+class QuestionGenerationServiceTest {
+
+    private static final String LLM_URL = "http://llm.test/v1/chat/completions";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SlowGenerationLog slowLog = new SlowGenerationLog(2, 0);
+    private final GenerationResultStore resultStore = Mockito.mock(GenerationResultStore.class);
+    private final OcrService ocrService = Mockito.mock(OcrService.class);
+    private GenerationMetrics metrics;
+    private MockRestServiceServer llm;
+    private QuestionGenerationService service;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        llm = MockRestServiceServer.bindTo(restTemplate).build();
+        metrics = new GenerationMetrics(meterRegistry, slowLog);
+        service = new QuestionGenerationService(restTemplate, ocrService, metrics,
+                new PayloadLogger(0, 0, 0, 64), resultStore, new OcrReuseIndex(true, 6, 0.94, 100));
+        ReflectionTestUtils.setField(service, "llmApiUrl", LLM_URL);
+        ReflectionTestUtils.setField(service, "llmApiKey", "test-key");
+        ReflectionTestUtils.setField(service, "llmModel", "test-model");
+    }
+
+    @Test
+    void recordsStagesStrategyAndTokens() {
+        String content = "[\\\"What is 2+2?\\\"]";
+        llm.expect(requestTo(LLM_URL)).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"choices\":[{\"message\":{\"content\":\"" + content + "\"}}],"
+                        + "\"usage\":{\"prompt_tokens\":120,\"completion_tokens\":30}}", MediaType.APPLICATION_JSON));
+
+        GenerateResponse response = service.generateQuestionsFromTextOnly("Arithmetic", "math", "easy", 1);
+
+        assertThat(response.getQuestions()).hasSize(1);
+        for (String stage : new String[] { "prompt_build", "llm_call", "parse" }) {
+            assertThat(meterRegistry.get("generation.stage").tag("stage", stage).tag("outcome", "success")
+                    .timer().count()).as(stage).isEqualTo(1);
+        }
+        assertThat(meterRegistry.get("generation.parse.strategy").tag("strategy", "strings").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("generation.llm.tokens").tag("type", "prompt").counter().count())
+                .isEqualTo(120);
+        assertThat(meterRegistry.get("generation.llm.tokens").tag("type", "completion").counter().count())
+                .isEqualTo(30);
+    }
+
+    @Test
+    void storesParsedQuestionsAndAnswersRepeatsFromTheStore() {
+        llm.expect(requestTo(LLM_URL)).andRespond(withSuccess(
+                "{\"choices\":[{\"message\":{\"content\":\"[\\\"What is 2+2?\\\"]\"}}]}", MediaType.APPLICATION_JSON));
+        String key = GenerationResultStore.key("Arithmetic", "math", "easy", 1, "test-model");
+
+        GenerateResponse first = service.generateQuestionsFromTextOnly("Arithmetic", "math", "easy", 1);
+        Mockito.verify(resultStore).save(Mockito.eq(key), Mockito.eq("test-model"), Mockito.eq("math"),
+                Mockito.eq("easy"), Mockito.eq(1), Mockito.eq(10), Mockito.eq(first.getQuestions()));
+
+        Mockito.when(resultStore.find(key)).thenReturn(Optional.of(first.getQuestions()));
+        GenerateResponse second = service.generateQuestionsFromTextOnly(" Arithmetic\n", "Math", "easy", 1);
+
+        llm.verify();
+        assertThat(second.getQuestions()).extracting(Question::getQuestion).containsExactly("What is 2+2?");
+        assertThat(meterRegistry.get("generation.result_store").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("generation.result_store").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotStoreTheMockFallback() {
+        llm.expect(requestTo(LLM_URL)).andRespond(withSuccess(
+                "{\"choices\":[{\"message\":{\"content\":\"\"}}]}", MediaType.APPLICATION_JSON));
+
+        service.generateQuestionsFromTextOnly("Arithmetic", "math", "easy", 1);
+
+        Mockito.verify(resultStore, Mockito.never()).save(anyString(), any(), any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void reusesOcrTextForANearIdenticalUpload(@TempDir Path dir) throws Exception {
+        Mockito.when(ocrService.extractText(any(Path.class))).thenReturn("Photosynthesis");
+        llm.expect(ExpectedCount.times(2), requestTo(LLM_URL)).andRespond(withServerError());
+        BufferedImage page = new BufferedImage(300, 400, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = page.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 300, 400);
+        g.setColor(Color.BLACK);
+        g.fillRect(30, 40, 200, 30);
+        g.fillRect(30, 120, 120, 200);
+        g.dispose();
+
+        service.generateQuestions(upload(dir, page, 1.0f), "biology", "easy", 1);
+        service.generateQuestions(upload(dir, page, 0.8f), "biology", "easy", 1);
+
+        Mockito.verify(ocrService, Mockito.times(1)).extractText(any(Path.class));
+        assertThat(meterRegistry.get("generation.ocr_reuse").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("generation.ocr_reuse").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void countsTheMockFallback() {
+        llm.expect(requestTo(LLM_URL)).andRespond(withServerError());
+
+        GenerateResponse response = service.generateQuestionsFromTextOnly("Arithmetic", "math", "easy", 2);
+
+        assertThat(response.getQuestions()).hasSize(2);
+        assertThat(meterRegistry.get("generation.stage").tag("stage", "llm_call").tag("outcome", "error")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("generation.fallbacks").tag("reason", "llm_error").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("generation.questions.returned").tag("strategy", "mock").summary().totalAmount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void reportsTheLlmFailureInsteadOfMockingWhenAsked() {
+        llm.expect(requestTo(LLM_URL)).andRespond(withServerError());
+
+        GenerateResponse response = service.generateQuestionsFromTextOnly("Arithmetic", "math", "easy", 2, false);
+
+        assertThat(response.getStatus()).isEqualTo("error");
+        assertThat(response.getQuestions()).isEmpty();
+        assertThat(meterRegistry.find("generation.fallbacks").counter()).isNull();
+        Mockito.verify(resultStore, Mockito.never()).save(anyString(), any(), any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void collectsStageTimingsIntoTheRequestTrace() {
+        for (int i = 0; i < 3; i++) {
+            llm.expect(requestTo(LLM_URL)).andRespond(withServerError());
+        }
+
+        GenerationTrace trace = null;
+        for (int i = 0; i < 3; i++) {
+            trace = metrics.begin("test-text");
+            service.generateQuestionsFromTextOnly("Arithmetic", "math", "easy", 1);
+            metrics.finish(trace, "200");
+        }
+
+        assertThat(trace.getTimings()).containsOnlyKeys("result_lookup", "prompt_build", "llm_call", "total");
+        assertThat(trace.toServerTiming()).matches(
+                "result_lookup;dur=[0-9.]+, prompt_build;dur=[0-9.]+, llm_call;dur=[0-9.]+, total;dur=[0-9.]+");
+        // The ring keeps the two most recent slow requests
+        assertThat(slowLog.slowest(10)).hasSize(2).contains(trace);
+    }
+
+    private static ImageUpload upload(Path dir, BufferedImage image, float brightness) throws Exception {
+        Path file = Files.createTempFile(dir, "upload", ".png");
+        ImageIO.write(new RescaleOp(brightness, 0f, null).filter(image, null), "png", file.toFile());
+        return new ImageUpload(file, "sha", Files.size(file), "png", image.getWidth(), image.getHeight());
+    }
+}
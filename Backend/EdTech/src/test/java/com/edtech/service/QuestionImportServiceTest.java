@@ -0,0 +1,118 @@
+package com.edtech.service;
+
+import com.edtech.dto.ImportResult;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.User;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Validation and per-chunk commits of bulk imports against the embedded
+ * database, with tiny batches and chunks.
+ */
+@SpringBootTest(properties = {
+        "question-import.batch-size=2",
+        "question-import.chunk-size=3"
+})
+class QuestionImportServiceTest {
+
+    private static final String OWNER = "bulk@example.com";
+
+    @Autowired
+    private QuestionImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long bankId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail(OWNER);
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+        QuestionBank bank = new QuestionBank();
+        bank.setName("Bulk");
+        bank.setUser(user);
+        bankId = questionBankRepository.save(bank).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM questions WHERE question_bank_id = ?", bankId);
+        questionBankRepository.deleteById(bankId);
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void validatesRowsAndWritesTheRestInChunks() {
+        String csv = "question,type,options,answer\n"
+                + "One,,a|b,a\n"
+                + "Two,mcq,a|b,c\n"
+                + ",,,\n"
+                + "Four,one-word,,four\n"
+                + "Five,essay,,\n"
+                + "Six,,,\n"
+                + "Seven,ONE_WORD,,\n"
+                + "Eight,,,\n"
+                + "Nine,,,\n";
+
+        ImportResult result = importCsv("bulk-1", csv);
+
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        assertThat(result.getRowsRead()).isEqualTo(9);
+        assertThat(result.getRowsImported()).isEqualTo(5);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getRow, ImportResult.RowError::getMessage)
+                .containsExactly(
+                        tuple(2L, "MCQ answer must be one of the options"),
+                        tuple(3L, "Question text is required"),
+                        tuple(5L, "Unknown question type: essay"),
+                        tuple(7L, "ONE_WORD questions need an answer"));
+        assertThat(jdbcTemplate.queryForList("SELECT type FROM questions WHERE question_bank_id = ? ORDER BY id",
+                String.class, bankId)).containsExactly("MCQ", "ONE_WORD", "PARAGRAPH", "PARAGRAPH", "PARAGRAPH");
+        assertThat(importService.getProgress(OWNER, "bulk-1")).get()
+                .extracting(ImportResult::getStatus).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void failureKeepsTheChunksAlreadyCommitted() {
+        // Seven rows, then a syntax error: two full chunks of three are committed, the seventh row is not
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= 7; i++) {
+            json.append("{\"question\":\"Q").append(i).append("\"},");
+        }
+        json.append("{\"question\" oops}]");
+
+        ImportResult result = importService.importQuestions(OWNER, "bulk-2", bankId, QuestionImportService.Format.JSON,
+                new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getStatus()).isEqualTo("FAILED");
+        assertThat(result.getRowsImported()).isEqualTo(6);
+        assertThat(questionBankRepository.countQuestionsById(bankId)).isEqualTo(6);
+    }
+
+    private ImportResult importCsv(String importId, String csv) {
+        return importService.importQuestions(OWNER, importId, bankId, QuestionImportService.Format.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
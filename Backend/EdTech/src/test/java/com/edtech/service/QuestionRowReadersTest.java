@@ -0,0 +1,155 @@
+package com.edtech.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parses import bodies in each format, including malformed and oversized rows.
+ */
+class QuestionRowReadersTest {
+
+    private static final int MAX_ROW_CHARS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csvQuotedCellsKeepSeparatorsNewlinesAndDoubledQuotes() throws Exception {
+        String csv = "question,options,answer\r\n"
+                + "\"Pick one, please\",\"[\"\"a,b\"\",\"\"c\"\"]\",c\r\n"
+                + "\"Line one\nline two\",,\"He said \"\"hi\"\"\"\r\n"
+                + "\r\n"
+                + "Last,a|b,a";
+
+        List<QuestionRowReaders.Row> rows = read(QuestionImportService.Format.CSV, csv);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).question).isEqualTo("Pick one, please");
+        assertThat(rows.get(0).options).containsExactly("a,b", "c");
+        assertThat(rows.get(1).question).isEqualTo("Line one\nline two");
+        assertThat(rows.get(1).options).isNull();
+        assertThat(rows.get(1).answer).isEqualTo("He said \"hi\"");
+        // The blank line is skipped but still counted
+        assertThat(rows.get(2).rowNumber).isEqualTo(4);
+        assertThat(rows.get(2).options).containsExactly("a", "b");
+    }
+
+    @Test
+    void csvHeaderAcceptsBomAndAliases() throws Exception {
+        String csv = "\uFEFFQuestion_Text,Choices,Correct_Answer,Rationale,Level,Question_Type\n"
+                + "2+2?,3|4,4,Count,Easy,mcq\n";
+
+        QuestionRowReaders.Row row = read(QuestionImportService.Format.CSV, csv).get(0);
+
+        assertThat(row.question).isEqualTo("2+2?");
+        assertThat(row.options).containsExactly("3", "4");
+        assertThat(row.answer).isEqualTo("4");
+        assertThat(row.explanation).isEqualTo("Count");
+        assertThat(row.difficulty).isEqualTo("Easy");
+        assertThat(row.type).isEqualTo("mcq");
+        assertThat(row.error).isNull();
+    }
+
+    @Test
+    void csvWithoutAQuestionColumnIsRefused() {
+        assertThatThrownBy(() -> read(QuestionImportService.Format.CSV, "title,answer\nx,y\n"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("'question' column");
+    }
+
+    @Test
+    void ndjsonReportsMalformedLinesAndKeepsGoing() throws Exception {
+        String ndjson = "{\"questionText\":\"One\",\"correctAnswer\":\"1\"}\n"
+                + "{\"question\": \"broken\"\n"
+                + "\n"
+                + "[1, 2]\r\n"
+                + "{\"prompt\":\"Four\",\"choices\":\"not json [\"}\n"
+                + "{\"text\":\"Five\",\"options\":[\"x\",null,\"y\"]}";
+
+        List<QuestionRowReaders.Row> rows = read(QuestionImportService.Format.NDJSON, ndjson);
+
+        assertThat(rows).extracting(row -> row.rowNumber).containsExactly(1L, 2L, 4L, 5L, 6L);
+        assertThat(rows.get(0).question).isEqualTo("One");
+        assertThat(rows.get(0).answer).isEqualTo("1");
+        assertThat(rows.get(1).error).startsWith("Malformed JSON");
+        assertThat(rows.get(2).error).isEqualTo("Row is not a JSON object");
+        assertThat(rows.get(3).question).isEqualTo("Four");
+        assertThat(rows.get(3).options).containsExactly("not json [");
+        assertThat(rows.get(4).options).containsExactly("x", "y");
+    }
+
+    @Test
+    void jsonArrayReadsElementsAndReportsNonObjects() throws Exception {
+        String json = "{\"version\":2,\"meta\":{\"a\":[1]},\"questions\":["
+                + "{\"question\":\"One\",\"options\":\"[\\\"a\\\",\\\"b\\\"]\"},"
+                + "\"just text\","
+                + "{\"question\":\"Three\",\"options\":\"[oops\"}]}";
+
+        List<QuestionRowReaders.Row> rows = read(QuestionImportService.Format.JSON, json);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).options).containsExactly("a", "b");
+        assertThat(rows.get(1).error).isEqualTo("Row is not a JSON object");
+        assertThat(rows.get(2).error).startsWith("Invalid options");
+    }
+
+    @Test
+    void jsonSyntaxErrorsEndTheImport() {
+        assertThatThrownBy(() -> read(QuestionImportService.Format.JSON, "[{\"question\":\"One\"}, {\"question\" 2}]"))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> read(QuestionImportService.Format.JSON, "{\"items\":[]}"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("'questions' array");
+    }
+
+    @Test
+    void unterminatedCsvQuoteIsReportedWithoutBufferingTheRest() throws Exception {
+        String csv = "question,answer\nFirst,1\n\"Never closed," + "x".repeat(10_000) + "\nmore\n";
+
+        List<QuestionRowReaders.Row> rows = read(QuestionImportService.Format.CSV, csv);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).question).isEqualTo("First");
+        assertThat(rows.get(1).error).isEqualTo("Row exceeds 200 characters");
+    }
+
+    @Test
+    void oversizedRowsAreSkippedAndReadingResumesAfterThem() throws Exception {
+        String longText = "y".repeat(1_000);
+        String csv = "question\n\"" + longText + "\"\nAfter\n";
+        String ndjson = "{\"question\":\"" + longText + "\"}\n{\"question\":\"After\"}";
+        String json = "[{\"question\":\"q\",\"options\":[" + "\"o\",".repeat(300) + "\"o\"]},{\"question\":\"After\"}]";
+
+        for (var input : List.of(
+                new Object[] { QuestionImportService.Format.CSV, csv },
+                new Object[] { QuestionImportService.Format.NDJSON, ndjson },
+                new Object[] { QuestionImportService.Format.JSON, json })) {
+            List<QuestionRowReaders.Row> rows = read((QuestionImportService.Format) input[0], (String) input[1]);
+
+            assertThat(rows).as(input[0].toString()).hasSize(2);
+            assertThat(rows.get(0).error).as(input[0].toString()).isEqualTo("Row exceeds 200 characters");
+            assertThat(rows.get(1).question).as(input[0].toString()).isEqualTo("After");
+            assertThat(rows.get(1).rowNumber).isEqualTo(2);
+        }
+    }
+
+    private List<QuestionRowReaders.Row> read(QuestionImportService.Format format, String body) throws IOException {
+        List<QuestionRowReaders.Row> rows = new ArrayList<>();
+        try (QuestionRowReaders.RowReader reader = QuestionRowReaders.open(format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), objectMapper, MAX_ROW_CHARS)) {
+            QuestionRowReaders.Row row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,127 @@
+package com.edtech.service;
+
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.entity.User;
+import com.edtech.event.QuestionBankChangedEvent;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.QuestionRepository;
+import com.edtech.repository.UserRepository;
+import com.edtech.support.SqlCapture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Samples from a bank of 90 questions: 30 of each type, every third one
+ * marked "hard" and the rest inheriting the bank's "easy".
+ */
+@SpringBootTest
+class QuestionSamplerTest {
+
+    @Autowired
+    private QuestionSampler questionSampler;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    private Long userId;
+    private Long bankId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail("sampler@example.com");
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+
+        QuestionBank bank = new QuestionBank();
+        bank.setName("Large bank");
+        bank.setDifficulty("Easy");
+        bank.setUser(user);
+        bankId = questionBankRepository.save(bank).getId();
+
+        List<QuestionEntity> questions = new ArrayList<>();
+        String[] types = { "MCQ", "ONE_WORD", "PARAGRAPH" };
+        for (int i = 0; i < 90; i++) {
+            QuestionEntity question = new QuestionEntity();
+            question.setType(types[i % 3]);
+            question.setQuestionText("Question " + i);
+            question.setAnswer("answer");
+            question.setDifficulty(i % 9 < 3 ? "hard" : null);
+            question.setQuestionBank(bank);
+            questions.add(question);
+        }
+        questionRepository.saveAll(questions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        questionRepository.deleteAll(questionRepository.findByQuestionBankId(bankId));
+        questionBankRepository.deleteById(bankId);
+        userRepository.deleteById(userId);
+        questionSampler.invalidate(bankId);
+    }
+
+    @Test
+    void samplesDistinctIdsAndLoadsThemInOneStatement() {
+        long[] ids = questionSampler.sampleIds(bankId, 20, null, null);
+
+        assertThat(ids).hasSize(20);
+        assertThat(Arrays.stream(ids).distinct().count()).isEqualTo(20);
+
+        SqlCapture.clear();
+        List<QuestionEntity> loaded = questionSampler.load(ids);
+        assertThat(loaded).extracting(QuestionEntity::getId).containsExactly(Arrays.stream(ids).boxed()
+                .toArray(Long[]::new));
+        assertThat(SqlCapture.statements()).hasSize(1);
+    }
+
+    @Test
+    void filtersByTypeAndEffectiveDifficulty() {
+        List<QuestionEntity> hardMcq = questionSampler.load(
+                questionSampler.sampleIds(bankId, 100, List.of("mcq"), "HARD"));
+        assertThat(hardMcq).hasSize(10);
+        assertThat(hardMcq).allSatisfy(q -> {
+            assertThat(q.getType()).isEqualTo("MCQ");
+            assertThat(q.getDifficulty()).isEqualTo("hard");
+        });
+
+        assertThat(questionSampler.sampleIds(bankId, 100, null, "easy")).hasSize(60);
+        assertThat(questionSampler.sampleIds(bankId, 100, List.of("MCQ", "ONE_WORD"), null)).hasSize(60);
+        assertThat(questionSampler.sampleIds(bankId, 100, null, "medium")).isEmpty();
+    }
+
+    @Test
+    void indexIsRebuiltAfterBankChanges() {
+        assertThat(questionSampler.sampleIds(bankId, 1000, null, null)).hasSize(90);
+
+        QuestionEntity added = new QuestionEntity();
+        added.setType("MCQ");
+        added.setQuestionText("Added");
+        added.setQuestionBank(questionBankRepository.getReferenceById(bankId));
+        questionRepository.save(added);
+        assertThat(questionSampler.sampleIds(bankId, 1000, null, null)).hasSize(90);
+
+        eventPublisher.publishEvent(new QuestionBankChangedEvent(bankId));
+        assertThat(questionSampler.sampleIds(bankId, 1000, null, null)).hasSize(91);
+    }
+}
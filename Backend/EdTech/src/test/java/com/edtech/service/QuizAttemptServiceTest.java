@@ -0,0 +1,216 @@
+package com.edtech.service;
+
+import com.edtech.dto.AnswerKey;
+import com.edtech.dto.Question;
+import com.edtech.dto.QuizAttemptResponse;
+import com.edtech.dto.QuizResult;
+import com.edtech.dto.StartQuizRequest;
+import com.edtech.entity.QuestionBank;
+import com.edtech.entity.QuestionEntity;
+import com.edtech.entity.QuizAnswer;
+import com.edtech.entity.User;
+import com.edtech.repository.QuestionBankRepository;
+import com.edtech.repository.QuestionRepository;
+import com.edtech.repository.QuizAnswerRepository;
+import com.edtech.repository.QuizRepository;
+import com.edtech.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts, grades and flushes quiz attempts against the embedded database.
+ */
+@SpringBootTest(properties = {
+        "quiz.write-behind.flush-interval-ms=3600000",
+        "quiz.write-behind.retry-backoff=PT0S",
+        "practice.flush-interval-ms=3600000"
+})
+class QuizAttemptServiceTest {
+
+    private static final String EMAIL = "student@example.com";
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private QuizResultWriter quizResultWriter;
+
+    @Autowired
+    private PracticeService practiceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionBankRepository questionBankRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizAnswerRepository quizAnswerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bankId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("secret");
+        userRepository.save(user);
+
+        QuestionBank bank = new QuestionBank();
+        bank.setName("Capitals");
+        bank.setUser(user);
+        questionBankRepository.save(bank);
+        bankId = bank.getId();
+
+        questionRepository.save(question(bank, "MCQ", "Capital of France?", List.of("Berlin", "Paris"), "Paris"));
+        questionRepository.save(question(bank, "ONE_WORD", "Capital of Italy?", null, "Rome"));
+        questionRepository.save(question(bank, "PARAGRAPH", "Describe Madrid.", null, "A city in Spain"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        practiceService.flush();
+        jdbcTemplate.update("DELETE FROM review_states");
+        jdbcTemplate.update("DELETE FROM user_subject_stats");
+        jdbcTemplate.update("DELETE FROM user_bank_stats");
+        jdbcTemplate.update("DELETE FROM quiz_answers");
+        jdbcTemplate.update("DELETE FROM quizzes");
+        questionRepository.deleteAll(questionRepository.findByQuestionBankId(bankId));
+        questionBankRepository.deleteById(bankId);
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void servesQuestionsWithoutAnswers() {
+        QuizAttemptResponse attempt = start(null);
+
+        assertThat(attempt.getQuestions()).hasSize(3);
+        assertThat(attempt.getQuestions()).allSatisfy(q -> {
+            assertThat(q.getAnswer()).isNull();
+            assertThat(q.getExplanation()).isNull();
+        });
+        assertThat(start(2).getQuestions()).hasSize(2);
+    }
+
+    @Test
+    void gradesInMemoryAndPersistsOnFlush() {
+        QuizAttemptResponse attempt = start(null);
+        Map<Long, String> answers = new HashMap<>();
+        for (Question question : attempt.getQuestions()) {
+            Long id = Long.valueOf(question.getId());
+            switch (question.getType()) {
+                case "MCQ" -> answers.put(id, "b");
+                case "ONE_WORD" -> answers.put(id, "  rome. ");
+                default -> answers.put(id, "Big");
+            }
+        }
+
+        QuizResult result = quizAttemptService.submit(EMAIL, attempt.getAttemptId(), answers).orElseThrow();
+
+        assertThat(result.getScore()).isEqualTo(2);
+        assertThat(result.getGradedQuestions()).isEqualTo(2);
+        assertThat(result.getTotalQuestions()).isEqualTo(3);
+        assertThat(quizRepository.count()).isZero();
+        assertThat(quizResultWriter.pending()).isEqualTo(1);
+
+        assertThat(quizResultWriter.flush()).isEqualTo(1);
+
+        assertThat(quizRepository.findAll()).singleElement().satisfies(quiz -> {
+            assertThat(quiz.getAttemptId()).isEqualTo(attempt.getAttemptId());
+            assertThat(quiz.getScore()).isEqualTo(2);
+            assertThat(quiz.getTotalQuestions()).isEqualTo(3);
+        });
+        List<QuizAnswer> stored = quizAnswerRepository.findByAttemptId(attempt.getAttemptId());
+        assertThat(stored).hasSize(3);
+        assertThat(stored).filteredOn(a -> a.getCorrect() == null).hasSize(1);
+    }
+
+    @Test
+    void attemptCanOnlyBeSubmittedOnceByItsOwner() {
+        QuizAttemptResponse attempt = start(null);
+
+        assertThat(quizAttemptService.submit("other@example.com", attempt.getAttemptId(), Map.of())).isEmpty();
+        assertThat(quizAttemptService.submit(EMAIL, attempt.getAttemptId(), Map.of())).isPresent();
+        assertThat(quizAttemptService.submit(EMAIL, attempt.getAttemptId(), Map.of())).isEmpty();
+        quizResultWriter.flush();
+    }
+
+    @Test
+    void batchesManyAttemptsIntoFewTransactions() {
+        for (int i = 0; i < 50; i++) {
+            QuizAttemptResponse attempt = start(null);
+            quizAttemptService.submit(EMAIL, attempt.getAttemptId(), Map.of());
+        }
+
+        assertThat(quizResultWriter.flush()).isEqualTo(50);
+        assertThat(quizRepository.count()).isEqualTo(50);
+        assertThat(quizAnswerRepository.count()).isEqualTo(150);
+    }
+
+    @Test
+    void keepsAttemptsWhoseWriteFailedAndRetriesThem() {
+        QuizAttemptResponse attempt = start(null);
+        quizAttemptService.submit(EMAIL, attempt.getAttemptId(), Map.of());
+
+        jdbcTemplate.execute("ALTER TABLE quiz_answers RENAME TO quiz_answers_offline");
+        try {
+            assertThat(quizResultWriter.flush()).isZero();
+            assertThat(quizResultWriter.flush()).isZero();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE quiz_answers_offline RENAME TO quiz_answers");
+        }
+        assertThat(quizRepository.count()).isZero();
+        assertThat(quizResultWriter.pending()).isEqualTo(1);
+
+        assertThat(quizResultWriter.flush()).isEqualTo(1);
+        assertThat(quizResultWriter.pending()).isZero();
+        assertThat(quizAnswerRepository.findByAttemptId(attempt.getAttemptId())).hasSize(3);
+    }
+
+    @Test
+    void mcqAcceptsOptionTextOrLetter() {
+        AnswerKey key = new AnswerKey(1L, "MCQ", "Option B", List.of("Option A", "Option B"), null);
+
+        assertThat(QuizAttemptService.grade(key, "option b")).isTrue();
+        assertThat(QuizAttemptService.grade(key, "B")).isTrue();
+        assertThat(QuizAttemptService.grade(key, "A")).isFalse();
+        assertThat(QuizAttemptService.grade(key, null)).isFalse();
+    }
+
+    private QuizAttemptResponse start(Integer count) {
+        StartQuizRequest request = new StartQuizRequest();
+        request.setQuestionBankId(bankId);
+        request.setQuestionCount(count);
+        return quizAttemptService.start(EMAIL, request).orElseThrow();
+    }
+
+    private static QuestionEntity question(QuestionBank bank, String type, String text, List<String> options,
+            String answer) {
+        QuestionEntity question = new QuestionEntity();
+        question.setType(type);
+        question.setQuestionText(text);
+        question.setOptions(options);
+        question.setAnswer(answer);
+        question.setQuestionBank(bank);
+        return question;
+    }
+}
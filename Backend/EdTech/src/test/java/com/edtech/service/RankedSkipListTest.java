@@ -0,0 +1,55 @@
+package com.edtech.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedSkipListTest {
+
+    @Test
+    void ranksAndRangesMatchSortedReference() {
+        Random random = new Random(42);
+        RankedSkipList<Integer> list = new RankedSkipList<>(Comparator.naturalOrder());
+        TreeSet<Integer> reference = new TreeSet<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(list.remove(value)).isEqualTo(reference.remove(value));
+            } else if (reference.add(value)) {
+                list.insert(value);
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(reference);
+        assertThat(list.size()).isEqualTo(sorted.size());
+        assertThat(list.range(1, sorted.size())).isEqualTo(sorted);
+        for (int i = 0; i < sorted.size(); i += 7) {
+            assertThat(list.rankOf(sorted.get(i))).isEqualTo(i + 1);
+            assertThat(list.range(i + 1, 5)).isEqualTo(sorted.subList(i, Math.min(i + 5, sorted.size())));
+        }
+        assertThat(list.rankOf(-1)).isZero();
+        assertThat(list.range(sorted.size() + 1, 5)).isEmpty();
+    }
+
+    @Test
+    void leaderboardKeepsEachUsersBestAttempt() {
+        BankLeaderboard board = new BankLeaderboard();
+        board.record(1, 5, 10, 100);
+        board.record(2, 9, 10, 200);
+        board.record(3, 18, 20, 150);
+        board.record(1, 4, 10, 300);
+        board.record(1, 10, 10, 400);
+
+        assertThat(board.size()).isEqualTo(3);
+        assertThat(board.top(3)).extracting(e -> e.userId).containsExactly(1L, 3L, 2L);
+        assertThat(board.rankOf(2)).isEqualTo(3);
+        assertThat(board.rankOf(99)).isZero();
+    }
+}
@@ -0,0 +1,75 @@
+package com.edtech.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+/**
+ * Warm-up steps, their timers and the shared time budget, with OCR and the
+ * LLM host stubbed.
+ */
+class StartupWarmupTest {
+
+    private static final String LLM_URL = "http://llm.test/v1/chat/completions";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OcrService ocrService = Mockito.mock(OcrService.class);
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final QuestionGenerationService generationService = new QuestionGenerationService(restTemplate,
+            ocrService, new GenerationMetrics(meterRegistry, new SlowGenerationLog(1, 0)),
+            new PayloadLogger(0, 0, 0, 64), Mockito.mock(GenerationResultStore.class),
+            new OcrReuseIndex(false, 0, 0.94, 1));
+
+    @Test
+    void runsEveryStepWithoutRecordingGenerationMetrics() throws Exception {
+        Mockito.when(ocrService.extractText(any(Path.class))).thenReturn("Photosynthesis");
+        MockRestServiceServer llm = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        llm.expect(ExpectedCount.times(2), requestTo(LLM_URL)).andExpect(method(HttpMethod.HEAD))
+                .andRespond(withStatus(HttpStatus.METHOD_NOT_ALLOWED));
+
+        Map<String, String> report = warmup(Duration.ofSeconds(30)).warmUp();
+
+        assertThat(report.keySet()).containsExactly("ocr", "llm_connections", "parse");
+        assertThat(report.values()).allMatch(outcome -> outcome.startsWith("success"));
+        llm.verify();
+        Mockito.verify(ocrService).extractText(any(Path.class));
+        assertThat(meterRegistry.get("warmup.step").tag("step", "parse").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("generation.parse.strategy").counters()).isEmpty();
+    }
+
+    @Test
+    void skipsTheRemainingStepsOnceTheBudgetIsSpent() throws Exception {
+        Mockito.when(ocrService.extractText(any(Path.class))).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return "slow";
+        });
+
+        Map<String, String> report = warmup(Duration.ofMillis(200)).warmUp();
+
+        assertThat(report.get("ocr")).startsWith("timed_out");
+        assertThat(report.get("llm_connections")).startsWith("skipped");
+        assertThat(report.get("parse")).startsWith("skipped");
+    }
+
+    private StartupWarmup warmup(Duration budget) {
+        return new StartupWarmup(ocrService, generationService, restTemplate, meterRegistry, true, budget,
+                new ClassPathResource("warmup/sample.png"), LLM_URL, 2, 50);
+    }
+}
@@ -0,0 +1,44 @@
+package com.edtech.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector that records every SQL statement prepared by
+ * the session factory, so tests can assert on generated SQL and statement counts.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    public static String last() {
+        synchronized (statements) {
+            if (statements.isEmpty()) {
+                throw new IllegalStateException("No SQL statement captured");
+            }
+            return statements.get(statements.size() - 1);
+        }
+    }
+}